@@ -27,10 +27,12 @@ public final class JUnitMessages extends NLS {
 	public static String JUnitLaunchConfigurationDelegate_error_junit5notonpath;
 	public static String JUnitLaunchConfigurationDelegate_error_junitnotonpath;
 	public static String JUnitLaunchConfigurationDelegate_error_no_socket;
+	public static String JUnitLaunchConfigurationDelegate_error_pooled_jvm;
 	public static String JUnitLaunchConfigurationDelegate_error_notests_kind;
 	public static String JUnitLaunchConfigurationDelegate_error_wrong_input;
 	public static String JUnitLaunchConfigurationDelegate_input_type_does_not_exist;
 	public static String JUnitLaunchConfigurationDelegate_verifying_attriburtes_description;
+	public static String PooledTestRunProcess_label;
 
 	static {
 		NLS.initializeMessages(BUNDLE_NAME, JUnitMessages.class);
@@ -23,6 +23,9 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 import org.osgi.service.packageadmin.PackageAdmin;
 
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerAcceptor;
+import org.eclipse.unittest.junit.internal.launcher.TestJvmPool;
+
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.core.runtime.Assert;
@@ -131,6 +134,8 @@ public class JUnitTestPlugin extends AbstractUIPlugin {
 	@Override
 	public void stop(BundleContext context) throws Exception {
 		fIsStopped = true;
+		TestJvmPool.disposeDefault();
+		RemoteTestRunnerAcceptor.disposeDefault();
 		super.stop(context);
 		fBundleContext = null;
 	}
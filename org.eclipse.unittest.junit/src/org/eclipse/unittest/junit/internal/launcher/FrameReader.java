@@ -0,0 +1,173 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.unittest.junit.runner.BinaryProtocol;
+
+/**
+ * Reads the frames of the {@link BinaryProtocol} from a non-blocking channel:
+ * {@link #fill()} whenever the channel is readable, followed by
+ * {@link #pollFrame()} until it returns <code>null</code>.
+ * <p>
+ * The bytes are read in bulk into a reusable buffer, which grows to hold a
+ * large frame and shrinks back once it has been read, and a frame is returned as a view of the buffer: its fields
+ * are decoded in place with {@link #getVarint(ByteBuffer)} and
+ * {@link #getString(ByteBuffer)}.
+ * </p>
+ */
+public final class FrameReader {
+
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	private final ReadableByteChannel fChannel;
+
+	/**
+	 * The bytes read from the channel, from the start of the next frame
+	 * (position) to the end of the read bytes (limit)
+	 */
+	private ByteBuffer fBuffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+	/**
+	 * The view of the buffer returned by {@link #pollFrame()}
+	 */
+	private ByteBuffer fFrame;
+	/**
+	 * The number of bytes of the next frame, with its length, if it has not been
+	 * read entirely
+	 */
+	private int fRequired;
+
+	/**
+	 * Constructs a reader of the frames of a channel
+	 *
+	 * @param channel a channel
+	 */
+	public FrameReader(ReadableByteChannel channel) {
+		fChannel = channel;
+		fBuffer.flip();
+		fFrame = fBuffer.duplicate();
+	}
+
+	/**
+	 * Returns the next frame of the read bytes, without reading the channel
+	 *
+	 * @return the frame, from its type byte (position) to its end (limit), only
+	 *         valid until the next call, or <code>null</code> if the read bytes
+	 *         don't contain a complete frame
+	 * @throws IOException if the length of the frame is invalid
+	 */
+	public ByteBuffer pollFrame() throws IOException {
+		int start = fBuffer.position();
+		int limit = fBuffer.limit();
+		int length = 0;
+		int index = start;
+		for (int shift = 0;; shift += 7) {
+			if (index == limit) {
+				return null;
+			}
+			if (shift > 28) {
+				throw new IOException("Invalid frame length"); //$NON-NLS-1$
+			}
+			byte b = fBuffer.get(index++);
+			length |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				break;
+			}
+		}
+		if (length <= 0) {
+			throw new IOException("Invalid frame length: " + length); //$NON-NLS-1$
+		}
+		if (limit - index < length) {
+			// the next fill() makes room for the whole frame
+			fRequired = index - start + length;
+			return null;
+		}
+		fBuffer.position(index + length);
+		fFrame.limit(index + length).position(index);
+		return fFrame;
+	}
+
+	/**
+	 * Reads the available bytes of the channel into the buffer, compacting,
+	 * growing or shrinking it first.
+	 *
+	 * @return the number of bytes read, or <code>-1</code> at the end of the
+	 *         input
+	 * @throws IOException if the channel cannot be read
+	 */
+	public int fill() throws IOException {
+		int capacity = fBuffer.capacity();
+		if (fRequired > capacity || fBuffer.position() == 0 && fBuffer.limit() == capacity) {
+			resize(Math.max(fRequired, capacity * 2));
+		} else if (capacity > INITIAL_CAPACITY && fRequired <= INITIAL_CAPACITY
+				&& fBuffer.remaining() < INITIAL_CAPACITY) {
+			// don't keep the capacity of an exceptionally large frame
+			resize(INITIAL_CAPACITY);
+		} else {
+			fBuffer.compact();
+		}
+		fRequired = 0;
+		int count = fChannel.read(fBuffer);
+		fBuffer.flip();
+		return count;
+	}
+
+	private void resize(int capacity) {
+		ByteBuffer resized = ByteBuffer.allocate(capacity);
+		resized.put(fBuffer);
+		fBuffer = resized;
+		fFrame = fBuffer.duplicate();
+	}
+
+	/**
+	 * Decodes a varint field
+	 *
+	 * @param frame the frame, positioned on the field
+	 * @return the value of the field
+	 * @throws BufferUnderflowException if the field is truncated
+	 */
+	public static long getVarint(ByteBuffer frame) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = frame.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new BufferUnderflowException();
+	}
+
+	/**
+	 * Decodes an inline string field
+	 *
+	 * @param frame the frame, positioned on the field
+	 * @return the value of the field
+	 * @throws BufferUnderflowException if the field is truncated
+	 */
+	public static String getString(ByteBuffer frame) {
+		int length = (int) getVarint(frame);
+		if (length < 0 || length > frame.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		int offset = frame.arrayOffset() + frame.position();
+		frame.position(frame.position() + length);
+		return new String(frame.array(), offset, length, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.runner.MappedFileRemoteTestRunner;
+import org.eclipse.unittest.junit.runner.MappedFileRing;
+
+import org.eclipse.jdt.internal.junit.runner.MessageIds;
+
+/**
+ * The transport over a {@link MappedFileRing} shared with a
+ * {@link MappedFileRemoteTestRunner} of the local machine.
+ * <p>
+ * The rings of all the test runs are polled by a single thread, which pauses
+ * for up to a millisecond when none of them has new bytes. As the test JVM may
+ * die without closing its side of the ring, a transport is also closed when
+ * its test JVM has terminated and all the bytes of the ring have been read.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public final class MappedFileTransport implements RemoteTestRunnerTransport {
+
+	/**
+	 * The number of bytes of a ring: 1MB leaves room for the traces of a few
+	 * failures while the IDE is busy
+	 */
+	public static final int CAPACITY = 1 << 20;
+
+	private static final long MIN_PARK_NANOS = 20_000L;
+	private static final long MAX_PARK_NANOS = 1_000_000L;
+
+	/**
+	 * The open transports, polled by the poller thread
+	 */
+	private static final List<MappedFileTransport> fgTransports = new CopyOnWriteArrayList<>();
+	private static volatile Thread fgPoller;
+
+	private final File fFile;
+	private final BooleanSupplier fTerminated;
+	private MappedFileRing fRing;
+	private ReadableByteChannel fChannel;
+	private Receiver fReceiver;
+	private volatile boolean fConnected;
+	private volatile boolean fCloseRequested;
+	private boolean fClosed;
+
+	/**
+	 * Constructs the transport of a ring buffer file
+	 *
+	 * @param file       a file created by
+	 *                   {@link MappedFileRing#create(File, int)}, deleted when the
+	 *                   transport is closed
+	 * @param terminated tells whether the test JVM has terminated
+	 */
+	public MappedFileTransport(File file, BooleanSupplier terminated) {
+		fFile = file;
+		fTerminated = terminated;
+	}
+
+	@Override
+	public void open(Receiver receiver) throws IOException {
+		fRing = MappedFileRing.open(fFile);
+		fChannel = new ReadableByteChannel() {
+			@Override
+			public int read(ByteBuffer dst) {
+				return fRing.read(dst);
+			}
+
+			@Override
+			public boolean isOpen() {
+				return !fClosed;
+			}
+
+			@Override
+			public void close() {
+				// the ring is closed by the transport
+			}
+		};
+		fReceiver = receiver;
+		fgTransports.add(this);
+		startPoller();
+	}
+
+	@Override
+	public boolean isConnected() {
+		return fConnected;
+	}
+
+	@Override
+	public void send(String message) {
+		// the ring only carries the stop requests to the test JVM
+		if (fConnected && message.startsWith(MessageIds.TEST_STOP)) {
+			fRing.requestStop();
+		}
+	}
+
+	@Override
+	public void close() {
+		if (Thread.currentThread() == fgPoller) {
+			closeRing();
+		} else {
+			fCloseRequested = true;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "mapped file " + fFile; //$NON-NLS-1$
+	}
+
+	/**
+	 * Polls the ring, in the poller thread
+	 *
+	 * @return <code>true</code> if some bytes have been read
+	 */
+	private boolean poll() {
+		if (fClosed) {
+			return false;
+		}
+		if (fCloseRequested) {
+			closeRing();
+			fReceiver.closed(new AsynchronousCloseException());
+			return false;
+		}
+		try {
+			// read the termination first, so that no byte written before is missed
+			boolean terminated = fTerminated.getAsBoolean();
+			if (!fConnected) {
+				if (!fRing.isAttached()) {
+					if (terminated) {
+						closeRing();
+						fReceiver.closed(null);
+					}
+					return false;
+				}
+				fConnected = true;
+				fReceiver.connected(fChannel);
+			}
+			int count = fReceiver.received();
+			if (!fClosed && (count == -1 || count == 0 && terminated)) {
+				closeRing();
+				fReceiver.closed(null);
+			}
+			return count > 0;
+		} catch (IOException e) {
+			closeRing();
+			fReceiver.closed(e);
+			return false;
+		}
+	}
+
+	private void closeRing() {
+		if (fClosed) {
+			return;
+		}
+		fClosed = true;
+		fgTransports.remove(this);
+		fRing.closeReader();
+		if (!fFile.delete()) {
+			fFile.deleteOnExit();
+		}
+	}
+
+	private static synchronized void startPoller() {
+		if (fgPoller != null) {
+			return;
+		}
+		fgPoller = new Thread(MappedFileTransport::runPoller, "RemoteTestRunner Ring Poller"); //$NON-NLS-1$
+		fgPoller.setDaemon(true);
+		fgPoller.start();
+	}
+
+	/**
+	 * Polls the open transports, until there are none
+	 */
+	private static void runPoller() {
+		long parkNanos = MIN_PARK_NANOS;
+		while (true) {
+			boolean progress = false;
+			for (MappedFileTransport transport : fgTransports) {
+				try {
+					progress |= transport.poll();
+				} catch (RuntimeException e) {
+					// don't let a failing session stop the other ones
+					JUnitTestPlugin.log(e);
+					if (!transport.fClosed) {
+						transport.closeRing();
+						transport.fReceiver.closed(null);
+					}
+				}
+			}
+			if (progress) {
+				parkNanos = MIN_PARK_NANOS;
+				continue;
+			}
+			synchronized (MappedFileTransport.class) {
+				if (fgTransports.isEmpty()) {
+					fgPoller = null;
+					return;
+				}
+			}
+			LockSupport.parkNanos(parkNanos);
+			parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+/**
+ * Scans the comma separated fields of a protocol message in a single pass.
+ * <p>
+ * Each call to {@link #next()} or {@link #nextEscaped()} moves to the next
+ * field, whose value can then be compared, parsed or extracted. A raw field
+ * is a region of the message and is never copied; an escaped field, in which a
+ * backslash quotes the next character, is only unescaped into the reusable
+ * buffer of the scanner if it contains a backslash. A {@link String} is only
+ * created for the fields extracted with {@link #getString()}. A scanner is
+ * meant to be reused for all the messages of a connection, and is not
+ * thread-safe.
+ * </p>
+ */
+public final class MessageFieldScanner {
+
+	private final StringBuilder fBuffer = new StringBuilder();
+
+	private CharSequence fMessage;
+	private int fPosition;
+	private boolean fHasNext;
+
+	/**
+	 * The current field, either a region of the message or of the buffer
+	 */
+	private CharSequence fField;
+	private int fFieldStart;
+	private int fFieldEnd;
+
+	/**
+	 * Starts scanning a message
+	 *
+	 * @param message a message
+	 * @param start   the offset of the first field, e.g. after the header of the
+	 *                message
+	 */
+	public void reset(CharSequence message, int start) {
+		fMessage = message;
+		fPosition = start;
+		fHasNext = start <= message.length();
+		fField = null;
+		fFieldStart = fFieldEnd = 0;
+	}
+
+	/**
+	 * Tells whether the message has another field, i.e. whether the current field
+	 * is followed by a comma
+	 *
+	 * @return <code>true</code> if there is a next field
+	 */
+	public boolean hasNext() {
+		return fHasNext;
+	}
+
+	/**
+	 * Moves to the next field, up to the next comma or the end of the message,
+	 * taken as is
+	 *
+	 * @throws IllegalStateException if there is no next field
+	 */
+	public void next() {
+		checkHasNext();
+		int length = fMessage.length();
+		int i = fPosition;
+		while (i < length && fMessage.charAt(i) != ',') {
+			i++;
+		}
+		setField(fMessage, fPosition, i);
+		advance(i);
+	}
+
+	/**
+	 * Moves to the next field, up to the next comma which is not quoted by a
+	 * backslash or the end of the message. The field is unescaped and trimmed
+	 * like by {@link String#trim()}.
+	 *
+	 * @throws IllegalStateException if there is no next field
+	 */
+	public void nextEscaped() {
+		checkHasNext();
+		int length = fMessage.length();
+		int i = fPosition;
+		while (i < length && fMessage.charAt(i) != ',' && fMessage.charAt(i) != '\\') {
+			i++;
+		}
+		if (i < length && fMessage.charAt(i) == '\\') {
+			i = unescape(i);
+		} else {
+			setField(fMessage, fPosition, i);
+		}
+		trimField();
+		advance(i);
+	}
+
+	/**
+	 * Returns the offset of the current field in the message, e.g. to look up an
+	 * identifier without extracting it
+	 *
+	 * @return the offset of the first character of the field, only meaningful
+	 *         for a raw field
+	 */
+	public int getStart() {
+		return fFieldStart;
+	}
+
+	/**
+	 * Returns the end of the current field in the message
+	 *
+	 * @return the offset after the last character of the field, only meaningful
+	 *         for a raw field
+	 */
+	public int getEnd() {
+		return fFieldEnd;
+	}
+
+	/**
+	 * Tells whether the current field is empty
+	 *
+	 * @return <code>true</code> if the field is empty
+	 */
+	public boolean isEmpty() {
+		return fFieldStart == fFieldEnd;
+	}
+
+	/**
+	 * Compares the current field with a string, without extracting it
+	 *
+	 * @param s a string
+	 * @return <code>true</code> if the field has the characters of the string
+	 */
+	public boolean fieldEquals(String s) {
+		int length = s.length();
+		if (fFieldEnd - fFieldStart != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (fField.charAt(fFieldStart + i) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Parses the current field as a decimal integer, without extracting it
+	 *
+	 * @return the value of the field
+	 * @throws NumberFormatException if the field is not an integer
+	 */
+	public int getInt() {
+		return Integer.parseInt(fField, fFieldStart, fFieldEnd, 10);
+	}
+
+	/**
+	 * Extracts the current field
+	 *
+	 * @return a new string with the characters of the field
+	 */
+	public String getString() {
+		return fField.subSequence(fFieldStart, fFieldEnd).toString();
+	}
+
+	private void checkHasNext() {
+		if (!fHasNext) {
+			throw new IllegalStateException("No more fields"); //$NON-NLS-1$
+		}
+	}
+
+	private void setField(CharSequence field, int start, int end) {
+		fField = field;
+		fFieldStart = start;
+		fFieldEnd = end;
+	}
+
+	/**
+	 * Moves after the current field and its comma
+	 */
+	private void advance(int end) {
+		fHasNext = end < fMessage.length();
+		fPosition = end + 1;
+	}
+
+	/**
+	 * Unescapes the rest of an escaped field into the buffer
+	 *
+	 * @param backslash the offset of the first backslash of the field
+	 * @return the end of the field
+	 */
+	private int unescape(int backslash) {
+		fBuffer.setLength(0);
+		fBuffer.append(fMessage, fPosition, backslash);
+		int length = fMessage.length();
+		boolean inQuote = false;
+		int i = backslash;
+		for (; i < length; i++) {
+			char c = fMessage.charAt(i);
+			if (c == '\\' && !inQuote) {
+				inQuote = true;
+			} else if (inQuote) {
+				inQuote = false;
+				fBuffer.append(c);
+			} else if (c == ',') {
+				break;
+			} else {
+				fBuffer.append(c);
+			}
+		}
+		setField(fBuffer, 0, fBuffer.length());
+		return i;
+	}
+
+	private void trimField() {
+		while (fFieldStart < fFieldEnd && fField.charAt(fFieldStart) <= ' ') {
+			fFieldStart++;
+		}
+		while (fFieldStart < fFieldEnd && fField.charAt(fFieldEnd - 1) <= ' ') {
+			fFieldEnd--;
+		}
+	}
+}
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+/**
+ * A lookup table from the fixed-length ASCII headers of protocol messages to
+ * their handlers.
+ * <p>
+ * A header of up to 8 characters is packed into a <code>long</code>, one byte
+ * per character, which is looked up in an open-addressing hash table: finding
+ * the handler of a message costs a few character reads and a multiplication,
+ * whatever the number of headers, and never allocates.
+ * </p>
+ *
+ * @param <T> the type of the handlers
+ */
+public final class MessageHeaderTable<T> {
+
+	private static final int MAX_HEADER_LENGTH = 8;
+
+	private final int fHeaderLength;
+	private final long[] fKeys;
+	private final Object[] fHandlers;
+	private final int fShift;
+	private int fSize;
+
+	/**
+	 * Constructs an empty table
+	 *
+	 * @param headerLength the length of the headers, at most 8
+	 * @param capacity     the maximum number of headers
+	 */
+	public MessageHeaderTable(int headerLength, int capacity) {
+		if (headerLength < 1 || headerLength > MAX_HEADER_LENGTH) {
+			throw new IllegalArgumentException("Unsupported header length: " + headerLength); //$NON-NLS-1$
+		}
+		fHeaderLength = headerLength;
+		// at most half full, so that probe sequences stay short
+		int bits = 32 - Integer.numberOfLeadingZeros(Math.max(capacity, 2) * 2 - 1);
+		fKeys = new long[1 << bits];
+		fHandlers = new Object[1 << bits];
+		fShift = 64 - bits;
+	}
+
+	/**
+	 * Registers the handler of a header
+	 *
+	 * @param header  a header of the length of this table, made of ASCII
+	 *                characters
+	 * @param handler the handler of the messages starting with the header
+	 */
+	public void put(String header, T handler) {
+		long key = header.length() == fHeaderLength ? key(header) : 0;
+		if (key == 0) {
+			throw new IllegalArgumentException("Invalid header: " + header); //$NON-NLS-1$
+		}
+		int slot = slot(key);
+		while (fKeys[slot] != 0 && fKeys[slot] != key) {
+			slot = (slot + 1) & (fKeys.length - 1);
+		}
+		if (fKeys[slot] == 0) {
+			if (2 * (fSize + 1) > fKeys.length) {
+				throw new IllegalStateException("Table is full"); //$NON-NLS-1$
+			}
+			fSize++;
+		}
+		fKeys[slot] = key;
+		fHandlers[slot] = handler;
+	}
+
+	/**
+	 * Returns the handler of the header of a message
+	 *
+	 * @param message a message
+	 * @return the handler registered for the header of the message, or
+	 *         <code>null</code> if the message is shorter than a header or its
+	 *         header is unknown
+	 */
+	@SuppressWarnings("unchecked")
+	public T get(CharSequence message) {
+		if (message.length() < fHeaderLength) {
+			return null;
+		}
+		long key = key(message);
+		if (key == 0) {
+			return null;
+		}
+		for (int slot = slot(key);; slot = (slot + 1) & (fKeys.length - 1)) {
+			long current = fKeys[slot];
+			if (current == key) {
+				return (T) fHandlers[slot];
+			}
+			if (current == 0) {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Packs the header of a message into a long
+	 *
+	 * @return the packed header, or <code>0</code> if it contains a non-ASCII
+	 *         character
+	 */
+	private long key(CharSequence message) {
+		long key = 0;
+		for (int i = 0; i < fHeaderLength; i++) {
+			char c = message.charAt(i);
+			if (c == 0 || c > 0x7F) {
+				return 0;
+			}
+			key = (key << 8) | c;
+		}
+		return key;
+	}
+
+	private int slot(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> fShift);
+	}
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the UTF-8 encoded lines of the RemoteTestRunner protocol from a
+ * channel.
+ * <p>
+ * The bytes are read in bulk into a reusable direct buffer, in which the line
+ * delimiters are searched for: as the delimiters are ASCII characters, they
+ * cannot be part of a multi-byte UTF-8 sequence. A line is returned as a
+ * {@link CharSequence} view of the buffer, which is only valid until the next
+ * line is read. The characters of an ASCII line, as most protocol lines are,
+ * are the bytes of the buffer and are never decoded; the other lines are
+ * decoded into a reusable character buffer. A {@link String} is only created
+ * for the parts of the line that the caller extracts with
+ * {@link CharSequence#subSequence(int, int)} or {@link Object#toString()}.
+ * </p>
+ * <p>
+ * The lines of a blocking channel are read with {@link #readLine()}; those of
+ * a non-blocking channel with {@link #fill()} whenever the channel is
+ * readable, followed by {@link #pollLine()} until it returns
+ * <code>null</code>.
+ * </p>
+ * <p>
+ * A line longer than {@link #MAX_LINE_SIZE} bytes, e.g. a huge expected result
+ * on a single line, is returned in several parts, so that the buffer stays
+ * bounded: all the parts but the last one have no delimiter, see
+ * {@link #isLastLinePartial()}.
+ * </p>
+ */
+public final class MessageLineReader implements Closeable {
+
+	private static final int INITIAL_CAPACITY = 1 << 16;
+
+	/**
+	 * The number of bytes of a line beyond which it is returned in parts
+	 */
+	public static final int MAX_LINE_SIZE = 1 << 20;
+
+	private static final String LF = "\n"; //$NON-NLS-1$
+	private static final String CR = "\r"; //$NON-NLS-1$
+	private static final String CRLF = "\r\n"; //$NON-NLS-1$
+
+	/**
+	 * A line of the buffer
+	 */
+	private final class Line implements CharSequence {
+		private int fStart;
+		private int fLength;
+		private boolean fAscii;
+
+		@Override
+		public int length() {
+			return fLength;
+		}
+
+		@Override
+		public char charAt(int index) {
+			if (index < 0 || index >= fLength) {
+				throw new IndexOutOfBoundsException("Index: " + index); //$NON-NLS-1$
+			}
+			return fAscii ? (char) fBuffer.get(fStart + index) : fChars.get(index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return substring(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return substring(0, fLength);
+		}
+
+		private String substring(int start, int end) {
+			if (start < 0 || end > fLength || start > end) {
+				throw new IndexOutOfBoundsException();
+			}
+			if (!fAscii) {
+				return new String(fChars.array(), start, end - start);
+			}
+			byte[] bytes = new byte[end - start];
+			for (int i = 0; i < bytes.length; i++) {
+				bytes[i] = fBuffer.get(fStart + start + i);
+			}
+			return new String(bytes, StandardCharsets.ISO_8859_1);
+		}
+	}
+
+	private final ReadableByteChannel fChannel;
+	private final CharsetDecoder fDecoder = StandardCharsets.UTF_8.newDecoder()
+			.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+	/**
+	 * The bytes read from the channel, from the start of the next line
+	 * (position) to the end of the read bytes (limit)
+	 */
+	private ByteBuffer fBuffer = ByteBuffer.allocateDirect(INITIAL_CAPACITY);
+	private CharBuffer fChars = CharBuffer.allocate(256);
+	private final Line fLine = new Line();
+	private boolean fEndOfInput;
+	/**
+	 * The number of bytes of the next line which have been scanned for a
+	 * delimiter, and whether they are all ASCII
+	 */
+	private int fScanned;
+	private boolean fScannedAscii = true;
+	private String fLastLineDelimiter;
+	private boolean fLastLinePartial;
+
+	/**
+	 * Constructs a reader of the lines of a channel
+	 *
+	 * @param channel a channel in blocking mode
+	 */
+	public MessageLineReader(ReadableByteChannel channel) {
+		fChannel = channel;
+		fBuffer.flip();
+	}
+
+	/**
+	 * Reads the next line, blocking until it is complete
+	 *
+	 * @return the line without its delimiter, only valid until the next call, or
+	 *         <code>null</code> at the end of the input
+	 * @throws IOException if the channel cannot be read
+	 */
+	public CharSequence readLine() throws IOException {
+		CharSequence line;
+		while ((line = pollLine()) == null && !fEndOfInput) {
+			fill();
+		}
+		return line;
+	}
+
+	/**
+	 * Returns the next line if it has already been read from the channel, e.g.
+	 * to consume the lines of a non-blocking channel after {@link #fill()}
+	 *
+	 * @return the line without its delimiter, only valid until the next call, or
+	 *         <code>null</code> if no complete line has been read
+	 */
+	public CharSequence pollLine() {
+		int start = fBuffer.position();
+		int limit = fBuffer.limit();
+		for (int i = start + fScanned; i < limit; i++) {
+			byte b = fBuffer.get(i);
+			if (b == '\n') {
+				fLastLineDelimiter = LF;
+				return nextLine(start, i, i + 1);
+			}
+			if (b == '\r') {
+				if (i + 1 < limit) {
+					boolean crlf = fBuffer.get(i + 1) == '\n';
+					fLastLineDelimiter = crlf ? CRLF : CR;
+					return nextLine(start, i, crlf ? i + 2 : i + 1);
+				}
+				if (fEndOfInput) {
+					fLastLineDelimiter = CR;
+					return nextLine(start, i, i + 1);
+				}
+				// the next byte tells if the delimiter is \r or \r\n
+				return null;
+			}
+			if (b < 0) {
+				fScannedAscii = false;
+			}
+			fScanned++;
+		}
+		if (fEndOfInput && start < limit) {
+			fLastLineDelimiter = null;
+			return nextLine(start, limit, limit);
+		}
+		if (limit - start >= MAX_LINE_SIZE) {
+			// don't split a UTF-8 sequence between two parts
+			int end = limit;
+			int lead = limit - 1;
+			while (lead > start && limit - lead < 4 && (fBuffer.get(lead) & 0xC0) == 0x80) {
+				lead--;
+			}
+			byte b = fBuffer.get(lead);
+			if (b < 0) {
+				int length = (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : 4;
+				if (lead + length > limit) {
+					end = lead;
+				}
+			}
+			fLastLineDelimiter = null;
+			CharSequence part = nextLine(start, end, end);
+			fLastLinePartial = true;
+			return part;
+		}
+		return null;
+	}
+
+	/**
+	 * Tells whether the last line read is only a part of a longer line, whose
+	 * next part is returned by the next call
+	 *
+	 * @return <code>true</code> if the last line read has been cut at
+	 *         {@link #MAX_LINE_SIZE} bytes
+	 */
+	public boolean isLastLinePartial() {
+		return fLastLinePartial;
+	}
+
+	/**
+	 * Tells whether the end of the input has been read
+	 *
+	 * @return <code>true</code> if the channel has no more bytes
+	 */
+	public boolean isEndOfInput() {
+		return fEndOfInput;
+	}
+
+	/**
+	 * Returns the delimiter of the last line read
+	 *
+	 * @return <code>"\n"</code>, <code>"\r"</code> or <code>"\r\n"</code>, or
+	 *         <code>null</code> if the last line ended with the input
+	 */
+	public String getLastLineDelimiter() {
+		return fLastLineDelimiter;
+	}
+
+	private CharSequence nextLine(int start, int end, int next) {
+		fLastLinePartial = false;
+		fLine.fStart = start;
+		fLine.fLength = end - start;
+		fLine.fAscii = fScannedAscii;
+		fScanned = 0;
+		fScannedAscii = true;
+		if (!fLine.fAscii) {
+			decode(start, end);
+			fLine.fLength = fChars.remaining();
+		}
+		fBuffer.position(next);
+		return fLine;
+	}
+
+	private void decode(int start, int end) {
+		// a UTF-8 sequence never has less bytes than characters
+		if (fChars.capacity() < end - start) {
+			fChars = CharBuffer.allocate(Math.max(end - start, fChars.capacity() * 2));
+		}
+		ByteBuffer bytes = fBuffer.duplicate();
+		bytes.limit(end).position(start);
+		fChars.clear();
+		fDecoder.reset();
+		fDecoder.decode(bytes, fChars, true);
+		fDecoder.flush(fChars);
+		fChars.flip();
+	}
+
+	/**
+	 * Reads more bytes, moving the start of the next line to the start of the
+	 * buffer, or growing the buffer if it is filled by a single line. The call
+	 * blocks until some bytes are available if the channel is in blocking mode.
+	 *
+	 * @return the number of bytes read, or <code>-1</code> at the end of the
+	 *         input
+	 * @throws IOException if the channel cannot be read
+	 */
+	public int fill() throws IOException {
+		if (fBuffer.position() == 0 && fBuffer.limit() == fBuffer.capacity()) {
+			ByteBuffer grown = ByteBuffer.allocateDirect(fBuffer.capacity() * 2);
+			grown.put(fBuffer);
+			fBuffer = grown;
+		} else {
+			fBuffer.compact();
+		}
+		int count = fChannel.read(fBuffer);
+		if (count == -1) {
+			fEndOfInput = true;
+		}
+		fBuffer.flip();
+		return count;
+	}
+
+	@Override
+	public void close() throws IOException {
+		fChannel.close();
+	}
+}
@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.osgi.util.NLS;
+
+import org.eclipse.unittest.junit.JUnitMessages;
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.internal.launcher.TestJvmPool.PooledTestJvm;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.PlatformObject;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamsProxy;
+
+/**
+ * The process of a launch whose tests run in a {@link PooledTestJvm}: it
+ * terminates when the run is done, so that the launch and its test run session
+ * end as with a test JVM of their own. The output of the tests goes to the
+ * console of the pooled test JVM.
+ */
+public final class PooledTestRunProcess extends PlatformObject implements IProcess {
+
+	private final ILaunch fLaunch;
+	private final PooledTestJvm fJvm;
+	private final Map<String, String> fAttributes = new HashMap<>();
+	private volatile boolean fTerminated;
+
+	/**
+	 * Constructs the process of a test run and adds it to its launch
+	 *
+	 * @param launch the launch of the test run
+	 * @param jvm    the test JVM running the tests
+	 */
+	PooledTestRunProcess(ILaunch launch, PooledTestJvm jvm) {
+		fLaunch = launch;
+		fJvm = jvm;
+		launch.addProcess(this);
+		fireEvent(DebugEvent.CREATE);
+	}
+
+	@Override
+	public String getLabel() {
+		return NLS.bind(JUnitMessages.PooledTestRunProcess_label, fJvm.getProjectName());
+	}
+
+	@Override
+	public ILaunch getLaunch() {
+		return fLaunch;
+	}
+
+	@Override
+	public IStreamsProxy getStreamsProxy() {
+		return null;
+	}
+
+	@Override
+	public void setAttribute(String key, String value) {
+		synchronized (fAttributes) {
+			fAttributes.put(key, value);
+		}
+		fireEvent(DebugEvent.CHANGE);
+	}
+
+	@Override
+	public String getAttribute(String key) {
+		synchronized (fAttributes) {
+			return fAttributes.get(key);
+		}
+	}
+
+	@Override
+	public int getExitValue() throws DebugException {
+		if (!fTerminated) {
+			throw new DebugException(new Status(IStatus.ERROR, JUnitTestPlugin.PLUGIN_ID,
+					DebugException.TARGET_REQUEST_FAILED, "The test run has not terminated", null)); //$NON-NLS-1$
+		}
+		return 0;
+	}
+
+	@Override
+	public boolean canTerminate() {
+		return !fTerminated;
+	}
+
+	@Override
+	public boolean isTerminated() {
+		return fTerminated;
+	}
+
+	/**
+	 * Terminates the test run by terminating the pooled test JVM, which cannot
+	 * abort a run and stay usable
+	 */
+	@Override
+	public void terminate() {
+		fJvm.dispose();
+	}
+
+	/**
+	 * Called when the run is done or the test JVM has terminated
+	 */
+	void terminated() {
+		if (fTerminated) {
+			return;
+		}
+		fTerminated = true;
+		fireEvent(DebugEvent.TERMINATE);
+	}
+
+	private void fireEvent(int kind) {
+		DebugPlugin plugin = DebugPlugin.getDefault();
+		if (plugin != null) {
+			plugin.fireDebugEventSet(new DebugEvent[] { new DebugEvent(this, kind) });
+		}
+	}
+}
@@ -0,0 +1,444 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerTransport.Receiver;
+
+/**
+ * Accepts and reads the connections of all the RemoteTestRunners with a single
+ * selector thread.
+ * <p>
+ * The port of a test run is reserved when it is launched, by binding a server
+ * socket which is kept open until the RemoteTestRunner connects: the port
+ * cannot be taken by another process or launch in between. The connection of
+ * the RemoteTestRunner is then routed to the client of the test run session by
+ * the server socket it was accepted from. The bytes of all the connections are
+ * read without blocking by the selector thread, which calls the
+ * {@link Receiver receivers} of the connections: a test run session costs a read
+ * buffer and the state of its protocol, rather than a thread blocked in a read.
+ * </p>
+ */
+public final class RemoteTestRunnerAcceptor {
+
+	/**
+	 * The connection of a test run session, from its server socket to the socket
+	 * connected to the RemoteTestRunner
+	 */
+	public final class Connection {
+		private final int fPort;
+		private final Receiver fReceiver;
+		private final ServerSocketChannel fServerChannel;
+		private SocketChannel fChannel;
+		private SelectionKey fKey;
+		/**
+		 * The bytes not accepted yet by the socket, written by the selector thread
+		 */
+		private final Queue<ByteBuffer> fPending = new ArrayDeque<>();
+		private volatile boolean fConnected;
+		private volatile boolean fClosed;
+
+		private Connection(int port, ServerSocketChannel serverChannel, Receiver receiver) {
+			fPort = port;
+			fServerChannel = serverChannel;
+			fReceiver = receiver;
+		}
+
+		/**
+		 * Returns the port of the server socket
+		 *
+		 * @return the port
+		 */
+		public int getPort() {
+			return fPort;
+		}
+
+		/**
+		 * Tells whether the RemoteTestRunner has connected
+		 *
+		 * @return <code>true</code> if the connection has been accepted
+		 */
+		public boolean isConnected() {
+			return fConnected;
+		}
+
+		/**
+		 * Writes to the RemoteTestRunner without blocking: the bytes which don't fit
+		 * in the socket buffer are kept, and written by the selector thread once the
+		 * socket is writable. Can be called by any thread once the connection has
+		 * been accepted.
+		 *
+		 * @param buffer the bytes to write
+		 * @throws IOException if the bytes cannot be written
+		 */
+		public void write(ByteBuffer buffer) throws IOException {
+			synchronized (this) {
+				if (fPending.isEmpty()) {
+					fChannel.write(buffer);
+					if (!buffer.hasRemaining()) {
+						return;
+					}
+				}
+				ByteBuffer pending = ByteBuffer.allocate(buffer.remaining());
+				pending.put(buffer).flip();
+				fPending.add(pending);
+				if (fPending.size() > 1) {
+					// the selector thread is already waiting for the socket
+					return;
+				}
+			}
+			execute(() -> {
+				if (!fClosed && fKey.isValid()) {
+					fKey.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+				}
+			});
+		}
+
+		/**
+		 * Closes the connection. When called by another thread than the selector
+		 * thread, {@link Receiver#closed(IOException)} is called with an
+		 * {@link AsynchronousCloseException}, unless the connection has already been
+		 * closed.
+		 */
+		public void close() {
+			if (Thread.currentThread() == fThread) {
+				closeChannels();
+			} else {
+				execute(() -> {
+					if (!fClosed) {
+						closeChannels();
+						fReceiver.closed(new AsynchronousCloseException());
+					}
+				});
+			}
+		}
+
+		private void register() throws IOException {
+			fServerChannel.configureBlocking(false);
+			fServerChannel.register(fSelector, SelectionKey.OP_ACCEPT, this);
+		}
+
+		private void accept() throws IOException {
+			SocketChannel channel = fServerChannel.accept();
+			if (channel == null) {
+				return;
+			}
+			// a RemoteTestRunner connects once
+			fServerChannel.close();
+			channel.configureBlocking(false);
+			fKey = channel.register(fSelector, SelectionKey.OP_READ, this);
+			fChannel = channel;
+			fConnected = true;
+			fReceiver.connected(channel);
+		}
+
+		private synchronized void writePending() throws IOException {
+			ByteBuffer buffer;
+			while ((buffer = fPending.peek()) != null) {
+				fChannel.write(buffer);
+				if (buffer.hasRemaining()) {
+					return;
+				}
+				fPending.remove();
+			}
+			fKey.interestOps(SelectionKey.OP_READ);
+		}
+
+		private void read() throws IOException {
+			int count = fReceiver.received();
+			if (count == -1 && !fClosed) {
+				closeChannels();
+				fReceiver.closed(null);
+			}
+		}
+
+		private void closeChannels() {
+			fClosed = true;
+			closeQuietly(fServerChannel);
+			closeQuietly(fChannel);
+		}
+	}
+
+	private static RemoteTestRunnerAcceptor fgDefault;
+
+	/**
+	 * The server sockets of the ports reserved for launches, until they are
+	 * claimed by the clients of the test run sessions
+	 */
+	private final Map<Integer, ServerSocketChannel> fReservations = new ConcurrentHashMap<>();
+	/**
+	 * The tasks to run in the selector thread, e.g. registering new server
+	 * sockets, which cannot be done while the selector is waiting
+	 */
+	private final Queue<Runnable> fTasks = new ConcurrentLinkedQueue<>();
+	private volatile Selector fSelector;
+	private volatile Thread fThread;
+	private boolean fDisposed;
+
+	private RemoteTestRunnerAcceptor() {
+	}
+
+	/**
+	 * Returns the acceptor shared by all the launches
+	 *
+	 * @return the default acceptor
+	 */
+	public static synchronized RemoteTestRunnerAcceptor getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new RemoteTestRunnerAcceptor();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Closes the connections and stops the selector thread of the default
+	 * acceptor (called by the {@link JUnitTestPlugin} on shutdown).
+	 */
+	public static synchronized void disposeDefault() {
+		if (fgDefault != null) {
+			fgDefault.dispose();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Reserves a free port for a launch, by binding a server socket to it
+	 *
+	 * @return the reserved port, to be passed to the RemoteTestRunner and then
+	 *         claimed by {@link #accept(int, Receiver)} or {@link #release(int)}
+	 * @throws IOException if no port is available
+	 */
+	public int reserve() throws IOException {
+		ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		try {
+			serverChannel.bind(new InetSocketAddress(0));
+		} catch (IOException e) {
+			closeQuietly(serverChannel);
+			throw e;
+		}
+		int port = serverChannel.socket().getLocalPort();
+		fReservations.put(Integer.valueOf(port), serverChannel);
+		return port;
+	}
+
+	/**
+	 * Releases a reserved port which will not be connected to, e.g. because the
+	 * launch has failed. Does nothing if the port has already been claimed.
+	 *
+	 * @param port a reserved port
+	 */
+	public void release(int port) {
+		closeQuietly(fReservations.remove(Integer.valueOf(port)));
+	}
+
+	/**
+	 * Waits for the connection of a RemoteTestRunner on a port, reserved by
+	 * {@link #reserve()} or else bound now
+	 *
+	 * @param port     the port of the RemoteTestRunner
+	 * @param receiver the receiver of the events of the connection
+	 * @return the connection
+	 * @throws IOException if the port cannot be bound
+	 */
+	public Connection accept(int port, Receiver receiver) throws IOException {
+		ServerSocketChannel serverChannel = fReservations.remove(Integer.valueOf(port));
+		if (serverChannel == null) {
+			serverChannel = ServerSocketChannel.open();
+			try {
+				serverChannel.bind(new InetSocketAddress(port));
+			} catch (IOException e) {
+				closeQuietly(serverChannel);
+				throw e;
+			}
+		}
+		Connection connection = new Connection(port, serverChannel, receiver);
+		start();
+		execute(() -> {
+			try {
+				connection.register();
+			} catch (IOException e) {
+				connection.closeChannels();
+				receiver.closed(e);
+			}
+		});
+		return connection;
+	}
+
+	private synchronized void start() throws IOException {
+		if (fThread != null) {
+			return;
+		}
+		fSelector = Selector.open();
+		fThread = new Thread(this::run, "RemoteTestRunner Acceptor"); //$NON-NLS-1$
+		fThread.setDaemon(true);
+		fThread.start();
+	}
+
+	private synchronized void dispose() {
+		fDisposed = true;
+		fReservations.values().forEach(RemoteTestRunnerAcceptor::closeQuietly);
+		fReservations.clear();
+		if (fSelector != null) {
+			execute(() -> {
+				for (SelectionKey key : fSelector.keys()) {
+					Connection connection = (Connection) key.attachment();
+					if (!connection.fClosed) {
+						connection.closeChannels();
+						connection.fReceiver.closed(new AsynchronousCloseException());
+					}
+				}
+				closeQuietly(fSelector);
+			});
+		}
+	}
+
+	private void execute(Runnable task) {
+		fTasks.add(task);
+		Selector selector = fSelector;
+		if (selector != null && selector.isOpen()) {
+			selector.wakeup();
+		}
+	}
+
+	private void run() {
+		Selector selector = fSelector;
+		IOException failure = null;
+		try {
+			while (selector.isOpen()) {
+				selector.select();
+				Runnable task;
+				while ((task = fTasks.poll()) != null) {
+					try {
+						task.run();
+					} catch (RuntimeException e) {
+						JUnitTestPlugin.log(e);
+					}
+				}
+				if (!selector.isOpen()) {
+					break;
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key);
+				}
+			}
+		} catch (IOException e) {
+			JUnitTestPlugin.log(e);
+			failure = e;
+		} catch (ClosedSelectorException e) {
+			JUnitTestPlugin.log(e);
+			failure = new IOException(e);
+		} catch (RuntimeException | Error e) {
+			failure = new IOException(e);
+			throw e;
+		} finally {
+			stopped(selector, failure);
+		}
+	}
+
+	/**
+	 * Cleans up after the selector thread has stopped, because the acceptor has
+	 * been disposed or the selector has failed: the connections still open are
+	 * closed, and a new selector thread is started for the tasks which were not
+	 * run.
+	 *
+	 * @param selector the selector of the thread
+	 * @param failure  the failure of the selector, or <code>null</code>
+	 */
+	private void stopped(Selector selector, IOException failure) {
+		synchronized (this) {
+			fThread = null;
+			fSelector = null;
+		}
+		if (selector.isOpen()) {
+			for (SelectionKey key : selector.keys()) {
+				Connection connection = (Connection) key.attachment();
+				if (!connection.fClosed) {
+					connection.closeChannels();
+					connection.fReceiver.closed(failure != null ? failure : new AsynchronousCloseException());
+				}
+			}
+			closeQuietly(selector);
+		}
+		synchronized (this) {
+			if (!fTasks.isEmpty() && !fDisposed) {
+				try {
+					start();
+				} catch (IOException e) {
+					JUnitTestPlugin.log(e);
+				}
+			}
+		}
+	}
+
+	private static void handle(SelectionKey key) {
+		Connection connection = (Connection) key.attachment();
+		try {
+			if (!key.isValid() || connection.fClosed) {
+				return;
+			}
+			if (key.isAcceptable()) {
+				connection.accept();
+				return;
+			}
+			if (key.isWritable()) {
+				connection.writePending();
+			}
+			if (key.isReadable()) {
+				connection.read();
+			}
+		} catch (IOException e) {
+			if (!connection.fClosed) {
+				connection.closeChannels();
+				connection.fReceiver.closed(e);
+			}
+		} catch (RuntimeException e) {
+			// don't let a failing session stop the other ones
+			JUnitTestPlugin.log(e);
+			if (!connection.fClosed) {
+				connection.closeChannels();
+				connection.fReceiver.closed(null);
+			}
+		}
+	}
+
+	private static void closeQuietly(Closeable closeable) {
+		try {
+			if (closeable != null) {
+				closeable.close();
+			}
+		} catch (IOException e) {
+			// Ignore
+		}
+	}
+}
@@ -13,20 +13,11 @@
  *******************************************************************************/
 package org.eclipse.unittest.junit.internal.launcher;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
-import java.io.PushbackReader;
-import java.net.ServerSocket;
-import java.net.Socket;
-import java.net.SocketException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.ReadableByteChannel;
 
 import org.eclipse.unittest.junit.JUnitTestPlugin;
-import org.eclipse.unittest.launcher.ITestRunnerClient;
+import org.eclipse.unittest.launcher.ProtocolTimer;
 import org.eclipse.unittest.model.ITestRunSession;
 
 import org.eclipse.core.runtime.ISafeRunnable;
@@ -35,7 +26,12 @@ import org.eclipse.core.runtime.ISafeRunnable;
  * The client side of the RemoteTestRunner. Handles the marshaling of the
  * different messages.
  */
-public abstract class RemoteTestRunnerClient implements ITestRunnerClient {
+public abstract class RemoteTestRunnerClient extends TransportTestRunnerClient {
+
+	/**
+	 * The time spent parsing a message and updating the model accordingly
+	 */
+	private static final ProtocolTimer MESSAGE_TIME = ProtocolTimer.get("junit.messages"); //$NON-NLS-1$
 
 	public abstract class ListenerSafeRunnable implements ISafeRunnable {
 		@Override
@@ -48,14 +44,16 @@ public abstract class RemoteTestRunnerClient implements ITestRunnerClient {
 	 * A simple state machine to process requests from the RemoteTestRunner
 	 */
 	abstract class ProcessingState {
-		abstract ProcessingState readMessage(String message);
+		abstract ProcessingState readMessage(CharSequence message);
 	}
 
-	private int fPort = -1;
 	protected String fLastLineDelimiter;
-	protected InputStream fInputStream;
-	protected PrintWriter fWriter;
-	protected PushbackReader fPushbackReader;
+
+	/**
+	 * Whether the message is the continuation of a line longer than
+	 * {@link MessageLineReader#MAX_LINE_SIZE}, received in several parts
+	 */
+	protected boolean fLineContinued;
 
 	/**
 	 * The protocol version
@@ -63,132 +61,46 @@ public abstract class RemoteTestRunnerClient implements ITestRunnerClient {
 	protected String fVersion;
 
 	protected boolean fDebug = false;
-	protected final ITestRunSession fTestRunSession;
 
 	/**
-	 * Reads the message stream from the RemoteTestRunner
+	 * Decodes the lines of the RemoteTestRunner, in the thread of the transport
 	 */
-	private class ServerConnection extends Thread {
-		int fServerPort;
-
-		public ServerConnection(int port) {
-			super("ServerConnection"); //$NON-NLS-1$
-			fServerPort = port;
-		}
-
-		@Override
-		public void run() {
-			try {
-				if (fDebug)
-					System.out.println("Creating server socket " + fServerPort); //$NON-NLS-1$
-				fServerSocket = new ServerSocket(fServerPort);
-				fSocket = fServerSocket.accept();
-				fPushbackReader = new PushbackReader(
-						new BufferedReader(new InputStreamReader(fSocket.getInputStream(), StandardCharsets.UTF_8)));
-				fWriter = new PrintWriter(new OutputStreamWriter(fSocket.getOutputStream(), StandardCharsets.UTF_8),
-						true);
-				String message;
-				while (fPushbackReader != null && (message = readMessage(fPushbackReader)) != null)
-					receiveMessage(message);
-			} catch (SocketException e) {
-				fTestRunSession.notifyTestSessionAborted(null, e);
-			} catch (IOException e) {
-				JUnitTestPlugin.log(e);
-				// fall through
-			}
-			shutDown();
-		}
-	}
+	private MessageLineReader fMessageReader;
 
 	protected RemoteTestRunnerClient(int port, ITestRunSession testRunSession) {
-		this.fPort = port;
-		fTestRunSession = testRunSession;
+		this(new SocketTransport(port), testRunSession);
 	}
 
-	@Override
-	public void startMonitoring() {
-		ServerConnection connection = new ServerConnection(fPort);
-		connection.start();
+	protected RemoteTestRunnerClient(RemoteTestRunnerTransport transport, ITestRunSession testRunSession) {
+		super(transport, testRunSession);
 	}
 
-	public abstract void receiveMessage(String message);
-
-	public synchronized void shutDown() {
-		if (fDebug)
-			System.out.println("shutdown " + fPort); //$NON-NLS-1$
-
-		if (fWriter != null) {
-			fWriter.close();
-			fWriter = null;
-		}
-		try {
-			if (fPushbackReader != null) {
-				fPushbackReader.close();
-				fPushbackReader = null;
-			}
-		} catch (IOException e) {
-			// Ignore
-		}
+	@Override
+	protected void connected(ReadableByteChannel channel) {
 		if (fDebug)
-			System.out.println("shutdown"); //$NON-NLS-1$
-
-		try {
-			if (fSocket != null) {
-				fSocket.close();
-				fSocket = null;
-			}
-		} catch (IOException e) {
-			// Ignore
-		}
-		try {
-			if (fServerSocket != null) {
-				fServerSocket.close();
-				fServerSocket = null;
-			}
-		} catch (IOException e) {
-			// Ignore
-		}
+			System.out.println("RemoteTestRunner connected: " + this); //$NON-NLS-1$
+		fMessageReader = new MessageLineReader(channel);
 	}
 
-	private String readMessage(PushbackReader in) throws IOException {
-		StringBuilder buf = new StringBuilder(128);
-		int ch;
-		while ((ch = in.read()) != -1) {
-			switch (ch) {
-			case '\n':
-				fLastLineDelimiter = "\n"; //$NON-NLS-1$
-				return buf.toString();
-			case '\r':
-				ch = in.read();
-				if (ch == '\n') {
-					fLastLineDelimiter = "\r\n"; //$NON-NLS-1$
-				} else {
-					in.unread(ch);
-					fLastLineDelimiter = "\r"; //$NON-NLS-1$
-				}
-				return buf.toString();
-			default:
-				buf.append((char) ch);
-				break;
-			}
+	@Override
+	protected int received() throws IOException {
+		int count = fMessageReader.fill();
+		CharSequence line;
+		while (isMonitoring() && (line = fMessageReader.pollLine()) != null) {
+			fLastLineDelimiter = fMessageReader.getLastLineDelimiter();
+			long start = System.nanoTime();
+			receiveMessage(line);
+			MESSAGE_TIME.recordSince(start);
+			fLineContinued = fMessageReader.isLastLinePartial();
 		}
-		fLastLineDelimiter = null;
-		if (buf.length() == 0)
-			return null;
-		return buf.toString();
+		return count;
 	}
 
 	/**
-	 * The server socket
+	 * Processes a line of the protocol
+	 *
+	 * @param message the line, only valid during this call
 	 */
-	protected ServerSocket fServerSocket;
-	protected Socket fSocket;
-
-	@Override
-	public synchronized void stopMonitoring() {
-		if (fServerSocket != null && !fServerSocket.isClosed() && fSocket == null) {
-			shutDown(); // will throw a SocketException in Threads that wait in ServerSocket#accept()
-		}
-	}
+	public abstract void receiveMessage(CharSequence message);
 
 }
@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Carries the bytes of a test runner protocol between a test JVM and its
+ * {@link TransportTestRunnerClient}: the {@link SocketTransport} over a
+ * loopback connection, the {@link MappedFileTransport} over a memory-mapped
+ * file. The transport doesn't know the protocol, which the receiver decodes,
+ * e.g. the lines of the RemoteTestRunner or the frames of the binary protocol.
+ */
+public interface RemoteTestRunnerTransport {
+
+	/**
+	 * Receives the events of a transport, always in the same thread
+	 */
+	interface Receiver {
+		/**
+		 * Called when the test JVM has connected
+		 *
+		 * @param channel the channel of the bytes sent by the test JVM, to read
+		 *                from {@link #received()} only, without blocking
+		 */
+		void connected(ReadableByteChannel channel);
+
+		/**
+		 * Called when bytes may be available: reads them from the channel and
+		 * processes them
+		 *
+		 * @return the number of bytes read, or <code>-1</code> at the end of the
+		 *         input
+		 * @throws IOException if the channel cannot be read
+		 */
+		int received() throws IOException;
+
+		/**
+		 * Called once when the transport is closed, except when it is closed by
+		 * the receiver itself
+		 *
+		 * @param exception <code>null</code> at the end of the input, an
+		 *                  {@link AsynchronousCloseException} if the transport has
+		 *                  been closed by another thread, or the error which closed
+		 *                  the transport
+		 */
+		void closed(IOException exception);
+	}
+
+	/**
+	 * Starts waiting for the test JVM, without blocking
+	 *
+	 * @param receiver the receiver of the events
+	 * @throws IOException if the transport cannot be opened
+	 */
+	void open(Receiver receiver) throws IOException;
+
+	/**
+	 * Tells whether the test JVM has connected
+	 *
+	 * @return <code>true</code> if the test JVM has connected
+	 */
+	boolean isConnected();
+
+	/**
+	 * Sends a request to the test JVM, e.g. to stop the test run. Does nothing if
+	 * the test JVM has not connected or cannot receive requests.
+	 *
+	 * @param message the request
+	 * @throws IOException if the request cannot be sent
+	 */
+	void send(String message) throws IOException;
+
+	/**
+	 * Closes the transport, see {@link Receiver#closed(IOException)}
+	 */
+	void close();
+}
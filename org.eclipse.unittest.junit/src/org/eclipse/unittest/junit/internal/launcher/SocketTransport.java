@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerAcceptor.Connection;
+
+/**
+ * The transport over a loopback socket, accepted and read by the
+ * {@link RemoteTestRunnerAcceptor}
+ */
+public final class SocketTransport implements RemoteTestRunnerTransport {
+
+	private final int fPort;
+	private volatile Connection fConnection;
+
+	/**
+	 * Constructs the transport of a port
+	 *
+	 * @param port the port passed to the RemoteTestRunner
+	 */
+	public SocketTransport(int port) {
+		fPort = port;
+	}
+
+	@Override
+	public void open(Receiver receiver) throws IOException {
+		fConnection = RemoteTestRunnerAcceptor.getDefault().accept(fPort, receiver);
+	}
+
+	@Override
+	public boolean isConnected() {
+		Connection connection = fConnection;
+		return connection != null && connection.isConnected();
+	}
+
+	@Override
+	public void send(String message) throws IOException {
+		Connection connection = fConnection;
+		if (connection != null && connection.isConnected()) {
+			connection.write(ByteBuffer.wrap((message + '\n').getBytes(StandardCharsets.UTF_8)));
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "port " + fPort; //$NON-NLS-1$
+	}
+
+	@Override
+	public void close() {
+		Connection connection = fConnection;
+		if (connection != null) {
+			connection.close();
+		}
+	}
+}
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.runner.PooledTestRunner;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.ILaunch;
+
+/**
+ * Keeps the test JVMs running {@link PooledTestRunner}s alive between the
+ * launches of a project, so that a launch doesn't pay the startup and the
+ * warmup of a JVM.
+ * <p>
+ * A project has at most one pooled test JVM, identified by a key which covers
+ * everything its process depends on: the JRE, the JVM arguments, the
+ * environment, the working directory and the classpath. A launch reuses the
+ * pooled test JVM of its project if it is idle and has the same key; a test JVM
+ * started with another key replaces it, so that the JVM of a previous
+ * classpath is released.
+ * </p>
+ */
+public final class TestJvmPool {
+
+	/**
+	 * The longest wait for a new test JVM to connect, in milliseconds
+	 */
+	private static final int CONNECT_TIMEOUT = 60_000;
+
+	/**
+	 * A test JVM of the pool, controlled through a loopback socket
+	 */
+	public final class PooledTestJvm {
+		private final String fProjectName;
+		private final String fKey;
+		private final ServerSocket fServerSocket;
+		private ILaunch fLaunch;
+		private Socket fSocket;
+		private DataOutputStream fOut;
+		private PooledTestRunProcess fRun;
+		private boolean fDisposed;
+
+		private PooledTestJvm(String projectName, String key) throws IOException {
+			fProjectName = projectName;
+			fKey = key;
+			fServerSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+			fServerSocket.setSoTimeout(CONNECT_TIMEOUT);
+		}
+
+		/**
+		 * Returns the port of the control socket, passed to the
+		 * {@link PooledTestRunner}
+		 *
+		 * @return the port
+		 */
+		public int getPort() {
+			return fServerSocket.getLocalPort();
+		}
+
+		/**
+		 * Returns the name of the project whose tests the test JVM runs
+		 *
+		 * @return the project name
+		 */
+		public String getProjectName() {
+			return fProjectName;
+		}
+
+		/**
+		 * Sets the launch of the process of the test JVM, once it is started
+		 *
+		 * @param launch the launch of the test JVM, terminated to dispose it
+		 */
+		public synchronized void started(ILaunch launch) {
+			fLaunch = launch;
+		}
+
+		/**
+		 * Runs tests in the test JVM, which reports them as a test JVM of their
+		 * own launch would. The launch is given a process which terminates when
+		 * the run is done.
+		 *
+		 * @param launch            the launch of the test run
+		 * @param mainType          the main class of the test runner
+		 * @param classpath         the classpath of the test run
+		 * @param programArguments  the program arguments of the test runner
+		 * @throws IOException if the test JVM cannot be reached
+		 */
+		public void run(ILaunch launch, String mainType, String[] classpath, String[] programArguments)
+				throws IOException {
+			boolean connected;
+			synchronized (this) {
+				connected = fSocket != null;
+			}
+			if (!connected) {
+				// waits for the test JVM without holding the lock
+				connect();
+			}
+			send(launch, mainType, classpath, programArguments);
+		}
+
+		/**
+		 * Waits for the new test JVM to connect to the control socket. Closing the
+		 * server socket, e.g. by {@link #dispose()}, makes it fail at once.
+		 *
+		 * @throws IOException if the test JVM doesn't connect
+		 */
+		private void connect() throws IOException {
+			Socket socket = fServerSocket.accept();
+			fServerSocket.close();
+			socket.setTcpNoDelay(true);
+			synchronized (this) {
+				if (fDisposed) {
+					socket.close();
+					throw new SocketException("Pooled test JVM disposed: " + this); //$NON-NLS-1$
+				}
+				fSocket = socket;
+				fOut = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			}
+		}
+
+		private synchronized void send(ILaunch launch, String mainType, String[] classpath, String[] programArguments)
+				throws IOException {
+			if (fDisposed) {
+				throw new SocketException("Pooled test JVM disposed: " + this); //$NON-NLS-1$
+			}
+			fOut.writeUTF(mainType);
+			fOut.writeInt(classpath.length);
+			for (String entry : classpath) {
+				fOut.writeUTF(entry);
+			}
+			fOut.writeInt(programArguments.length);
+			for (String argument : programArguments) {
+				fOut.writeUTF(argument);
+			}
+			fOut.flush();
+			fRun = new PooledTestRunProcess(launch, this);
+			Thread waiter = new Thread(this::waitForRun, "Pooled Test JVM of " + fProjectName); //$NON-NLS-1$
+			waiter.setDaemon(true);
+			waiter.start();
+		}
+
+		/**
+		 * Waits for the test JVM to tell that the current run is done, and
+		 * releases it to the pool
+		 */
+		private void waitForRun() {
+			PooledTestRunProcess run;
+			InputStream in;
+			synchronized (this) {
+				run = fRun;
+				in = fSocket != null ? getInputStream() : null;
+			}
+			boolean done = false;
+			try {
+				done = in != null && in.read() == PooledTestRunner.RUN_DONE;
+			} catch (IOException e) {
+				// the test JVM has died or has been disposed
+			}
+			synchronized (this) {
+				fRun = null;
+			}
+			if (done) {
+				release(this);
+			} else {
+				dispose();
+			}
+			run.terminated();
+		}
+
+		private InputStream getInputStream() {
+			try {
+				return fSocket.getInputStream();
+			} catch (IOException e) {
+				return null;
+			}
+		}
+
+		private synchronized boolean isAlive() {
+			return !fDisposed && fLaunch != null && !fLaunch.isTerminated();
+		}
+
+		/**
+		 * Terminates the test JVM and removes it from the pool, e.g. when its run is
+		 * terminated or its key is outdated
+		 */
+		public void dispose() {
+			// fails a pending accept() at once
+			closeQuietly(fServerSocket);
+			ILaunch launch;
+			synchronized (this) {
+				if (fDisposed) {
+					return;
+				}
+				fDisposed = true;
+				launch = fLaunch;
+				// tells the PooledTestRunner to exit
+				closeQuietly(fSocket);
+			}
+			remove(this);
+			if (launch != null && launch.canTerminate()) {
+				try {
+					launch.terminate();
+				} catch (DebugException e) {
+					JUnitTestPlugin.log(e);
+				}
+			}
+		}
+
+		private void closeQuietly(Closeable socket) {
+			try {
+				if (socket != null) {
+					socket.close();
+				}
+			} catch (IOException e) {
+				// nothing to do
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "pooled test JVM of " + fProjectName + " on port " + getPort(); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	private static TestJvmPool fgDefault;
+
+	/**
+	 * The pooled test JVMs by project name, running tests or idle
+	 */
+	private final Map<String, PooledTestJvm> fJvms = new HashMap<>();
+
+	/**
+	 * The idle test JVMs
+	 */
+	private final List<PooledTestJvm> fIdleJvms = new ArrayList<>();
+
+	private TestJvmPool() {
+	}
+
+	/**
+	 * Returns the pool of the test JVMs launched by this IDE
+	 *
+	 * @return the pool
+	 */
+	public static synchronized TestJvmPool getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new TestJvmPool();
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Terminates the test JVMs of the default pool (called by the
+	 * {@link JUnitTestPlugin} on shutdown).
+	 */
+	public static synchronized void disposeDefault() {
+		if (fgDefault != null) {
+			fgDefault.dispose();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Takes the idle test JVM of a project, if it has been started with the same
+	 * key. A test JVM started with another key is disposed if it is idle.
+	 *
+	 * @param projectName the name of the project
+	 * @param key         the key of the test JVM required by the launch
+	 * @return the test JVM, or <code>null</code> if a new one has to be created
+	 */
+	public PooledTestJvm acquire(String projectName, String key) {
+		PooledTestJvm outdated = null;
+		synchronized (this) {
+			PooledTestJvm jvm = fJvms.get(projectName);
+			if (jvm != null && fIdleJvms.contains(jvm)) {
+				if (jvm.fKey.equals(key) && jvm.isAlive()) {
+					fIdleJvms.remove(jvm);
+					return jvm;
+				}
+				outdated = jvm;
+			}
+		}
+		if (outdated != null) {
+			outdated.dispose();
+		}
+		return null;
+	}
+
+	/**
+	 * Creates a test JVM for a project, which replaces the one of the pool once
+	 * it is started. The test JVM is in use until its first run is done.
+	 *
+	 * @param projectName the name of the project
+	 * @param key         the key of the test JVM
+	 * @return the test JVM, to be started with the port of its control socket
+	 * @throws IOException if the control socket cannot be opened
+	 */
+	public PooledTestJvm create(String projectName, String key) throws IOException {
+		PooledTestJvm jvm = new PooledTestJvm(projectName, key);
+		PooledTestJvm previous;
+		synchronized (this) {
+			previous = fJvms.put(projectName, jvm);
+			if (previous != null && !fIdleJvms.contains(previous)) {
+				// a busy test JVM is disposed when its run is done
+				previous = null;
+			}
+		}
+		if (previous != null) {
+			previous.dispose();
+		}
+		return jvm;
+	}
+
+	private void release(PooledTestJvm jvm) {
+		boolean pooled;
+		synchronized (this) {
+			pooled = fJvms.get(jvm.getProjectName()) == jvm;
+			if (pooled) {
+				fIdleJvms.add(jvm);
+			}
+		}
+		if (!pooled) {
+			jvm.dispose();
+		}
+	}
+
+	private synchronized void remove(PooledTestJvm jvm) {
+		fIdleJvms.remove(jvm);
+		if (fJvms.get(jvm.getProjectName()) == jvm) {
+			fJvms.remove(jvm.getProjectName());
+		}
+	}
+
+	private void dispose() {
+		List<PooledTestJvm> jvms;
+		synchronized (this) {
+			jvms = new ArrayList<>(fJvms.values());
+		}
+		jvms.forEach(PooledTestJvm::dispose);
+	}
+}
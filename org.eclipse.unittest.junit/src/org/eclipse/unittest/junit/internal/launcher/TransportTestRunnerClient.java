@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.internal.launcher;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ReadableByteChannel;
+
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerTransport.Receiver;
+import org.eclipse.unittest.launcher.ITestRunnerClient;
+import org.eclipse.unittest.model.ITestRunSession;
+
+/**
+ * A test runner client receiving the bytes of a test JVM through a
+ * {@link RemoteTestRunnerTransport}. Subclasses decode the protocol and update
+ * the test run session, in the thread of the transport.
+ */
+public abstract class TransportTestRunnerClient implements ITestRunnerClient {
+
+	protected final ITestRunSession fTestRunSession;
+
+	/**
+	 * The transport of the bytes of the test JVM, whose events are received in
+	 * the thread of the transport
+	 */
+	private final RemoteTestRunnerTransport fTransport;
+	private volatile boolean fOpen;
+
+	/**
+	 * Receives the events of the transport
+	 */
+	private class TransportReceiver implements Receiver {
+		@Override
+		public void connected(ReadableByteChannel channel) {
+			TransportTestRunnerClient.this.connected(channel);
+		}
+
+		@Override
+		public int received() throws IOException {
+			return TransportTestRunnerClient.this.received();
+		}
+
+		@Override
+		public void closed(IOException exception) {
+			if (exception instanceof ClosedChannelException) {
+				// e.g. the transport has been closed by stopMonitoring()
+				fTestRunSession.notifyTestSessionAborted(null, exception);
+			} else if (exception != null) {
+				JUnitTestPlugin.log(exception);
+			}
+			shutDown();
+		}
+	}
+
+	protected TransportTestRunnerClient(RemoteTestRunnerTransport transport, ITestRunSession testRunSession) {
+		fTransport = transport;
+		fTestRunSession = testRunSession;
+	}
+
+	@Override
+	public synchronized void startMonitoring() {
+		try {
+			fTransport.open(new TransportReceiver());
+			fOpen = true;
+		} catch (IOException e) {
+			// the test JVM cannot connect
+			JUnitTestPlugin.log(e);
+			fTestRunSession.notifyTestSessionAborted(null, e);
+		}
+	}
+
+	/**
+	 * Called when the test JVM has connected, in the thread of the transport
+	 *
+	 * @param channel the channel of the bytes sent by the test JVM, to read from
+	 *                {@link #received()} only
+	 */
+	protected abstract void connected(ReadableByteChannel channel);
+
+	/**
+	 * Reads the available bytes of the channel without blocking and processes the
+	 * complete messages, in the thread of the transport
+	 *
+	 * @return the number of bytes read, or <code>-1</code> at the end of the input
+	 * @throws IOException if the channel cannot be read
+	 */
+	protected abstract int received() throws IOException;
+
+	/**
+	 * Tells whether the messages of the test JVM are still processed
+	 *
+	 * @return <code>false</code> once the client has shut down
+	 */
+	protected boolean isMonitoring() {
+		return fOpen;
+	}
+
+	/**
+	 * Sends a request to the test JVM
+	 *
+	 * @param message the request
+	 */
+	protected void sendMessage(String message) {
+		try {
+			fTransport.send(message);
+		} catch (IOException e) {
+			JUnitTestPlugin.log(e);
+		}
+	}
+
+	public synchronized void shutDown() {
+		if (fOpen) {
+			fTransport.close();
+			fOpen = false;
+		}
+	}
+
+	@Override
+	public synchronized void stopMonitoring() {
+		if (fOpen && !fTransport.isConnected()) {
+			shutDown(); // aborts the session waiting for the test JVM to connect
+		}
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " on " + fTransport; //$NON-NLS-1$
+	}
+}
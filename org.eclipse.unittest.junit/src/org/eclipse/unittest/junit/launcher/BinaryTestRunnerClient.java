@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.launcher;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.unittest.internal.trace.BoundedTextBuffer;
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
+import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.internal.launcher.FrameReader;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerTransport;
+import org.eclipse.unittest.junit.internal.launcher.TransportTestRunnerClient;
+import org.eclipse.unittest.junit.runner.BinaryProtocol;
+import org.eclipse.unittest.junit.runner.BinaryTestRunner;
+import org.eclipse.unittest.launcher.ProtocolTimer;
+import org.eclipse.unittest.model.ITestElement;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+import org.eclipse.unittest.model.ITestElement.Result;
+import org.eclipse.unittest.model.ITestRunSession;
+import org.eclipse.unittest.model.ITestSuiteElement;
+
+import org.eclipse.debug.core.ILaunch;
+
+/**
+ * The client side of the {@link BinaryTestRunner}. Decodes the frames of the
+ * {@link BinaryProtocol} straight into the test run session: the tests are
+ * looked up by their numeric ids, and the strings of the string table are
+ * decoded once.
+ */
+public class BinaryTestRunnerClient extends TransportTestRunnerClient {
+
+	/**
+	 * The time spent decoding a frame and updating the model accordingly
+	 */
+	private static final ProtocolTimer FRAME_TIME = ProtocolTimer.get("binary.frames"); //$NON-NLS-1$
+
+	private FrameReader fFrameReader;
+
+	/**
+	 * The string table, by index
+	 */
+	private final List<String> fStrings = new ArrayList<>();
+
+	/**
+	 * The tests and their unique ids, by protocol id
+	 */
+	private final List<ITestElement> fElements = new ArrayList<>();
+	private final List<String> fUniqueIds = new ArrayList<>();
+
+	/**
+	 * The texts of the failure being received, only the beginning of a large text
+	 * is kept in memory
+	 */
+	private final BoundedTextBuffer fTrace = BoundedTextBuffer.forFailureTrace();
+	private final BoundedTextBuffer fExpected = BoundedTextBuffer.forComparisonResult();
+	private final BoundedTextBuffer fActual = BoundedTextBuffer.forComparisonResult();
+
+	public BinaryTestRunnerClient(RemoteTestRunnerTransport transport, ITestRunSession session) {
+		super(transport, session);
+	}
+
+	@Override
+	protected void connected(ReadableByteChannel channel) {
+		fFrameReader = new FrameReader(channel);
+	}
+
+	@Override
+	protected int received() throws IOException {
+		int count = fFrameReader.fill();
+		ByteBuffer frame;
+		while (isMonitoring() && (frame = fFrameReader.pollFrame()) != null) {
+			long start = System.nanoTime();
+			try {
+				receiveFrame(frame);
+			} catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+				throw new IOException("Invalid frame", e); //$NON-NLS-1$
+			}
+			FRAME_TIME.recordSince(start);
+		}
+		return count;
+	}
+
+	/**
+	 * Terminates the launch: the test JVM doesn't read requests
+	 */
+	@Override
+	public synchronized void stopTest() {
+		ILaunch launch = fTestRunSession.getLaunch();
+		try {
+			launch.terminate();
+		} catch (Exception ex) {
+			JUnitTestPlugin.log(ex);
+		}
+	}
+
+	private void receiveFrame(ByteBuffer frame) {
+		int type = frame.get();
+		switch (type) {
+		case BinaryProtocol.STRING:
+			fStrings.add(FrameReader.getString(frame));
+			break;
+		case BinaryProtocol.RUN_STARTED:
+			fTestRunSession.notifyTestSessionStarted(Integer.valueOf(getInt(frame)));
+			break;
+		case BinaryProtocol.TEST_TREE:
+			receiveTestTree(frame);
+			break;
+		case BinaryProtocol.TEST_STARTED:
+			fTestRunSession.notifyTestStarted(fElements.get(getInt(frame)));
+			break;
+		case BinaryProtocol.TEST_ENDED:
+			ITestElement test = fElements.get(getInt(frame));
+			fTestRunSession.notifyTestEnded(test, frame.get() != 0);
+			break;
+		case BinaryProtocol.TEST_FAILED:
+			receiveTestFailed(frame);
+			break;
+		case BinaryProtocol.RUN_ENDED:
+			fTestRunSession.notifyTestSessionCompleted(Duration.ofMillis(FrameReader.getVarint(frame)));
+			break;
+		default:
+			// a frame of a newer protocol
+			break;
+		}
+	}
+
+	private void receiveTestTree(ByteBuffer frame) {
+		int id = getInt(frame);
+		int parentId = getInt(frame) - 1;
+		int flags = frame.get();
+		int testCount = getInt(frame);
+		String testName = fStrings.get(getInt(frame));
+		int className = getInt(frame) - 1;
+		if (className != -1) {
+			testName = testName + '(' + fStrings.get(className) + ')';
+		}
+		int displayName = getInt(frame) - 1;
+		int uniqueId = getInt(frame) - 1;
+		if (id != fElements.size()) {
+			throw new IndexOutOfBoundsException("Unexpected test id: " + id); //$NON-NLS-1$
+		}
+
+		ITestSuiteElement parent = null;
+		String parentUniqueId = null;
+		if (parentId != -1) {
+			ITestElement element = fElements.get(parentId);
+			if (element instanceof ITestSuiteElement) {
+				parent = (ITestSuiteElement) element;
+			}
+			parentUniqueId = fUniqueIds.get(parentId);
+		}
+		String unique = uniqueId != -1 ? fStrings.get(uniqueId) : null;
+		if (unique != null && parentUniqueId != null && (flags & BinaryProtocol.TREE_RELATIVE_UNIQUE_ID) != 0) {
+			unique = parentUniqueId + '/' + unique;
+		}
+		String display = displayName != -1 ? fStrings.get(displayName) : null;
+
+		String testId = Integer.toString(id);
+		ITestElement element;
+		if ((flags & BinaryProtocol.TREE_SUITE) != 0) {
+			element = fTestRunSession.newTestSuite(testId, testName, Integer.valueOf(testCount), parent, display,
+					unique);
+		} else {
+			element = fTestRunSession.newTestCase(testId, testName, parent, display, unique);
+		}
+		fElements.add(element);
+		fUniqueIds.add(unique);
+	}
+
+	private void receiveTestFailed(ByteBuffer frame) {
+		ITestElement test = fElements.get(getInt(frame));
+		int flags = frame.get();
+		boolean isComparison = (flags & BinaryProtocol.FAILURE_COMPARISON) != 0;
+		FailureTrace trace;
+		try {
+			fTrace.append(FrameReader.getString(frame));
+			if (isComparison) {
+				fExpected.append(FrameReader.getString(frame));
+				fActual.append(FrameReader.getString(frame));
+			}
+			// the strings of the protocol have no line delimiter to remove
+			trace = SpilledFailureTrace.create(fTrace.getText(), isComparison ? fExpected.getText() : null,
+					isComparison ? fActual.getText() : null, fTrace.toSpilledText(), fExpected.toSpilledText(),
+					fActual.toSpilledText());
+		} finally {
+			fTrace.clear();
+			fExpected.clear();
+			fActual.clear();
+		}
+		Result status = (flags & BinaryProtocol.FAILURE_ERROR) != 0 ? Result.ERROR : Result.FAILURE;
+		fTestRunSession.notifyTestFailed(test, status, (flags & BinaryProtocol.FAILURE_ASSUMPTION) != 0, trace);
+	}
+
+	private static int getInt(ByteBuffer frame) {
+		long value = FrameReader.getVarint(frame);
+		if (value > Integer.MAX_VALUE) {
+			throw new IndexOutOfBoundsException("Value out of range: " + value); //$NON-NLS-1$
+		}
+		return (int) value;
+	}
+}
@@ -39,6 +39,14 @@ import org.osgi.framework.Constants;
 import org.eclipse.unittest.junit.JUnitMessages;
 import org.eclipse.unittest.junit.JUnitTestPlugin;
 import org.eclipse.unittest.junit.JUnitTestPlugin.JUnitVersion;
+import org.eclipse.unittest.junit.internal.launcher.MappedFileTransport;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerAcceptor;
+import org.eclipse.unittest.junit.internal.launcher.TestJvmPool;
+import org.eclipse.unittest.junit.internal.launcher.TestJvmPool.PooledTestJvm;
+import org.eclipse.unittest.junit.runner.BinaryTestRunner;
+import org.eclipse.unittest.junit.runner.MappedFileRemoteTestRunner;
+import org.eclipse.unittest.junit.runner.MappedFileRing;
+import org.eclipse.unittest.junit.runner.PooledTestRunner;
 
 import org.eclipse.core.variables.VariablesPlugin;
 
@@ -57,6 +65,7 @@ import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
 
 import org.eclipse.jdt.core.IClasspathAttribute;
 import org.eclipse.jdt.core.IClasspathEntry;
@@ -79,9 +88,10 @@ import org.eclipse.jdt.internal.junit.util.IJUnitStatusConstants;
 import org.eclipse.jdt.launching.AbstractJavaLaunchConfigurationDelegate;
 import org.eclipse.jdt.launching.ExecutionArguments;
 import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
+import org.eclipse.jdt.launching.IVMInstall;
+import org.eclipse.jdt.launching.IVMInstall2;
 import org.eclipse.jdt.launching.IVMRunner;
 import org.eclipse.jdt.launching.JavaRuntime;
-import org.eclipse.jdt.launching.SocketUtil;
 import org.eclipse.jdt.launching.VMRunnerConfiguration;
 
 /**
@@ -100,8 +110,38 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 	// or the "legacy" view handles it first
 	public static final String ATTR_PORT = JUnitTestPlugin.PLUGIN_ID + ".PORT"; //$NON-NLS-1$
 
+	/**
+	 * The path of the ring buffer file through which the test JVM sends its
+	 * messages, when it doesn't use the socket of {@link #ATTR_PORT}
+	 */
+	public static final String ATTR_MAPPED_FILE = JUnitTestPlugin.PLUGIN_ID + ".MAPPED_FILE"; //$NON-NLS-1$
+
+	/**
+	 * Set to <code>"true"</code> when the test JVM runs the
+	 * {@link BinaryTestRunner} instead of the RemoteTestRunner
+	 */
+	public static final String ATTR_BINARY_PROTOCOL = JUnitTestPlugin.PLUGIN_ID + ".BINARY_PROTOCOL"; //$NON-NLS-1$
+
+	/**
+	 * Launch configuration attribute: <code>true</code> to run the tests in a
+	 * test JVM kept alive between the launches of the project, see
+	 * {@link TestJvmPool}
+	 */
+	public static final String ATTR_REUSE_TEST_JVM = JUnitTestPlugin.PLUGIN_ID + ".REUSE_TEST_JVM"; //$NON-NLS-1$
+
+	/**
+	 * Launch configuration attribute: <code>true</code> to run the JUnit 5 tests
+	 * with the {@link BinaryTestRunner}, which reports the results with less
+	 * overhead than the RemoteTestRunner but cannot stop a run without
+	 * terminating the test JVM
+	 */
+	public static final String ATTR_USE_BINARY_PROTOCOL = JUnitTestPlugin.PLUGIN_ID + ".USE_BINARY_PROTOCOL"; //$NON-NLS-1$
+
 	private boolean fKeepAlive = false;
-	private int fPort;
+	private int fPort = -1;
+	private File fMappedFile;
+	private boolean fBinaryProtocol;
+	private boolean fReuseTestJvm;
 	private IJavaElement[] fTestElements;
 
 	private static final String DEFAULT = "<default>"; //$NON-NLS-1$
@@ -132,6 +172,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			}
 			return cmdLine;
 		} finally {
+			releaseTransport();
 			monitor.done();
 		}
 	}
@@ -169,10 +210,26 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 
 			fKeepAlive = mode.equals(ILaunchManager.DEBUG_MODE)
 					&& configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, false);
-			fPort = evaluatePort();
-			launch.setAttribute(ATTR_PORT, String.valueOf(fPort));
+			fMappedFile = createMappedFile(configuration);
+			if (fMappedFile != null) {
+				launch.setAttribute(ATTR_MAPPED_FILE, fMappedFile.getAbsolutePath());
+			} else {
+				fPort = evaluatePort();
+				launch.setAttribute(ATTR_PORT, String.valueOf(fPort));
+			}
 
 			JUnitVersion junitVersion = getJUnitVersion(configuration);
+			// the binary reporter doesn't read the rerun requests of kept alive runs, nor reruns the failures only
+			fBinaryProtocol = junitVersion == JUnitVersion.JUNIT5 && !fKeepAlive && isJava11(configuration)
+					&& configuration.getAttribute(ATTR_USE_BINARY_PROTOCOL, false)
+					&& configuration.getAttribute(JUnitLaunchConfigurationConstants.ATTR_FAILURES_NAMES, "").isEmpty(); //$NON-NLS-1$
+			if (fBinaryProtocol) {
+				launch.setAttribute(ATTR_BINARY_PROTOCOL, Boolean.TRUE.toString());
+			}
+			// a pooled test JVM runs the reporters of this bundle, and cannot be debugged by a launch
+			fReuseTestJvm = mode.equals(ILaunchManager.RUN_MODE) && !fKeepAlive && isJava11(configuration)
+					&& !JavaRuntime.isModularConfiguration(configuration)
+					&& configuration.getAttribute(ATTR_REUSE_TEST_JVM, false);
 			IJavaProject javaProject = getJavaProject(configuration);
 			if (junitVersion == JUnitVersion.JUNIT3 || junitVersion == JUnitVersion.JUNIT4) {
 				fTestElements = evaluateTests(configuration, SubMonitor.convert(monitor, 1));
@@ -186,7 +243,14 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 				}
 			}
 
-			String mainTypeName = verifyMainTypeName(configuration);
+			String mainTypeName;
+			if (fBinaryProtocol) {
+				mainTypeName = BinaryTestRunner.class.getName();
+			} else if (fMappedFile != null || fReuseTestJvm) {
+				mainTypeName = MappedFileRemoteTestRunner.class.getName();
+			} else {
+				mainTypeName = verifyMainTypeName(configuration);
+			}
 
 			File workingDir = verifyWorkingDirectory(configuration);
 			String workingDirName = null;
@@ -234,6 +298,13 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 				}
 			}
 
+			if (fMappedFile != null || fBinaryProtocol || fReuseTestJvm) {
+				// the reporters writing to the mapped file or with the binary protocol are in this bundle
+				int length = classpath.length;
+				System.arraycopy(classpath, 0, classpath = new String[length + 1], 0, length);
+				classpath[length] = getBundleClasspathEntry();
+			}
+
 			// Create VM config
 			runConfig = new VMRunnerConfiguration(mainTypeName, classpath);
 			runConfig.setVMArguments(vmArguments.toArray(new String[vmArguments.size()]));
@@ -293,6 +364,7 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor = new NullProgressMonitor();
 		}
 
+		boolean launched = false;
 		try {
 
 			VMRunnerConfiguration runConfig = getVMRunnerConfiguration(configuration, launch, mode, monitor);
@@ -306,20 +378,188 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 			monitor.worked(1);
 
 			// Launch the configuration - 1 unit of work
-			runner.run(runConfig, launch, monitor);
+			if (fReuseTestJvm) {
+				runInPooledJvm(configuration, runner, runConfig, launch, monitor);
+			} else {
+				runner.run(runConfig, launch, monitor);
+			}
+			launched = true;
 		} finally {
+			if (launched) {
+				// the transport is now owned by the test run session
+				fPort = -1;
+				fMappedFile = null;
+			} else {
+				releaseTransport();
+			}
 			fTestElements = null;
 			monitor.done();
 		}
 	}
 
+	/**
+	 * Runs the tests in the pooled test JVM of the project, which is started if
+	 * it isn't idle or has been started with another configuration
+	 *
+	 * @param configuration the launch configuration
+	 * @param runner        the runner of the JVM
+	 * @param runConfig     the configuration of a test JVM of the launch
+	 * @param launch        the launch
+	 * @param monitor       the progress monitor
+	 * @throws CoreException if the tests cannot be run
+	 */
+	private void runInPooledJvm(ILaunchConfiguration configuration, IVMRunner runner, VMRunnerConfiguration runConfig,
+			ILaunch launch, IProgressMonitor monitor) throws CoreException {
+		TestJvmPool pool = TestJvmPool.getDefault();
+		String projectName = getJavaProjectName(configuration);
+		String key = getPooledJvmKey(configuration, runConfig);
+		PooledTestJvm jvm = pool.acquire(projectName, key);
+		try {
+			if (jvm == null) {
+				jvm = pool.create(projectName, key);
+				VMRunnerConfiguration jvmConfig = new VMRunnerConfiguration(PooledTestRunner.class.getName(),
+						new String[] { getBundleClasspathEntry() });
+				jvmConfig.setVMArguments(runConfig.getVMArguments());
+				jvmConfig.setProgramArguments(new String[] { PooledTestRunner.POOL_PORT_ARGUMENT,
+						String.valueOf(jvm.getPort()) });
+				jvmConfig.setEnvironment(runConfig.getEnvironment());
+				jvmConfig.setWorkingDirectory(runConfig.getWorkingDirectory());
+				jvmConfig.setVMSpecificAttributesMap(runConfig.getVMSpecificAttributesMap());
+				jvmConfig.setPreviewEnabled(runConfig.isPreviewEnabled());
+				jvmConfig.setBootClassPath(runConfig.getBootClassPath());
+				// the test JVM outlives the launch, its process and its console belong to a
+				// launch of their own
+				ILaunch jvmLaunch = new Launch(null, ILaunchManager.RUN_MODE, null);
+				jvmLaunch.setAttribute(DebugPlugin.ATTR_CONSOLE_ENCODING,
+						launch.getAttribute(DebugPlugin.ATTR_CONSOLE_ENCODING));
+				DebugPlugin.getDefault().getLaunchManager().addLaunch(jvmLaunch);
+				runner.run(jvmConfig, jvmLaunch, monitor);
+				jvm.started(jvmLaunch);
+			}
+			jvm.run(launch, runConfig.getClassToLaunch(), runConfig.getClassPath(), runConfig.getProgramArguments());
+		} catch (IOException e) {
+			if (jvm != null) {
+				jvm.dispose();
+			}
+			abort(JUnitMessages.JUnitLaunchConfigurationDelegate_error_pooled_jvm, e,
+					IJavaLaunchConfigurationConstants.ERR_INTERNAL_ERROR);
+		} catch (CoreException | RuntimeException e) {
+			if (jvm != null) {
+				jvm.dispose();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the key of the pooled test JVM which can run the tests of a launch:
+	 * the JRE and everything its process depends on, except the program arguments
+	 * selecting the tests
+	 *
+	 * @param configuration the launch configuration
+	 * @param runConfig     the configuration of a test JVM of the launch
+	 * @return the key
+	 * @throws CoreException if the JRE cannot be found
+	 */
+	private String getPooledJvmKey(ILaunchConfiguration configuration, VMRunnerConfiguration runConfig)
+			throws CoreException {
+		StringBuilder key = new StringBuilder(verifyVMInstall(configuration).getId());
+		for (String[] strings : new String[][] { runConfig.getClassPath(), runConfig.getBootClassPath(),
+				runConfig.getVMArguments(), runConfig.getEnvironment() }) {
+			key.append('\n').append(strings != null ? String.join("\0", strings) : ""); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		key.append('\n').append(runConfig.getWorkingDirectory());
+		key.append('\n').append(runConfig.getVMSpecificAttributesMap());
+		key.append('\n').append(runConfig.isPreviewEnabled());
+		return key.toString();
+	}
+
+	/**
+	 * Returns the classpath entry of this bundle, which contains the reporters
+	 * and the main classes of the test JVM
+	 *
+	 * @return the localized classpath entry
+	 * @throws CoreException if the bundle cannot be localized
+	 */
+	private String getBundleClasspathEntry() throws CoreException {
+		try {
+			JUnitRuntimeClasspathEntry entry = new JUnitRuntimeClasspathEntry(JUnitTestPlugin.PLUGIN_ID, null);
+			return new ClasspathLocalizer(Platform.inDevelopmentMode()).entryString(entry);
+		} catch (IOException | URISyntaxException e) {
+			throw new CoreException(new Status(IStatus.ERROR, JUnitTestPlugin.PLUGIN_ID, IStatus.ERROR, "", e)); //$NON-NLS-1$
+		}
+	}
+
 	private int evaluatePort() throws CoreException {
-		int port = SocketUtil.findFreePort();
-		if (port == -1) {
-			abort(JUnitMessages.JUnitLaunchConfigurationDelegate_error_no_socket, null,
+		try {
+			return RemoteTestRunnerAcceptor.getDefault().reserve();
+		} catch (IOException e) {
+			abort(JUnitMessages.JUnitLaunchConfigurationDelegate_error_no_socket, e,
 					IJavaLaunchConfigurationConstants.ERR_NO_SOCKET_AVAILABLE);
+			return -1;
+		}
+	}
+
+	/**
+	 * Creates the ring buffer file through which a local test JVM sends its
+	 * messages without a system call per message, if possible
+	 *
+	 * @param configuration the launch configuration
+	 * @return the file, or <code>null</code> to use a socket
+	 */
+	private File createMappedFile(ILaunchConfiguration configuration) {
+		if (fKeepAlive) {
+			// the RemoteTestRunner reads the rerun requests of kept alive runs from the socket
+			return null;
+		}
+		if (!isJava11(configuration)) {
+			// the reporter is compiled for Java 11
+			return null;
+		}
+		try {
+			// deleted by the MappedFileTransport
+			File file = File.createTempFile("testEvents", ".ring"); //$NON-NLS-1$ //$NON-NLS-2$
+			MappedFileRing.create(file, MappedFileTransport.CAPACITY);
+			return file;
+		} catch (IOException e) {
+			JUnitTestPlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Tells whether the test JVM can run the reporters of this bundle, which are
+	 * compiled for Java 11
+	 *
+	 * @param configuration the launch configuration
+	 * @return <code>true</code> if the VM of the configuration is a Java 11 VM or
+	 *         newer
+	 */
+	private boolean isJava11(ILaunchConfiguration configuration) {
+		try {
+			IVMInstall vm = verifyVMInstall(configuration);
+			String javaVersion = vm instanceof IVMInstall2 ? ((IVMInstall2) vm).getJavaVersion() : null;
+			return javaVersion != null && JavaCore.compareJavaVersions(javaVersion, JavaCore.VERSION_11) >= 0;
+		} catch (CoreException e) {
+			JUnitTestPlugin.log(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Releases the port reserved by {@link #evaluatePort()} and deletes the file
+	 * created by {@link #createMappedFile(ILaunchConfiguration)} if no test run
+	 * will use them
+	 */
+	private void releaseTransport() {
+		if (fPort != -1) {
+			RemoteTestRunnerAcceptor.getDefault().release(fPort);
+			fPort = -1;
+		}
+		if (fMappedFile != null) {
+			fMappedFile.delete();
+			fMappedFile = null;
 		}
-		return port;
 	}
 
 	/**
@@ -470,7 +710,14 @@ public class JUnitLaunchConfigurationDelegate extends AbstractJavaLaunchConfigur
 		programArguments.add("3"); //$NON-NLS-1$
 
 		programArguments.add("-port"); //$NON-NLS-1$
-		programArguments.add(String.valueOf(fPort));
+		if (fMappedFile != null) {
+			// required by the RemoteTestRunner, but unused
+			programArguments.add("0"); //$NON-NLS-1$
+			programArguments.add(MappedFileRemoteTestRunner.MAPPED_FILE_ARGUMENT);
+			programArguments.add(fMappedFile.getAbsolutePath());
+		} else {
+			programArguments.add(String.valueOf(fPort));
+		}
 
 		if (fKeepAlive)
 			programArguments.add(0, "-keepalive"); //$NON-NLS-1$
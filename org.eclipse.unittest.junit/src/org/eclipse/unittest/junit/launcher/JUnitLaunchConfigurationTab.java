@@ -144,6 +144,10 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 
 	private Button fKeepRunning;
 
+	private Button fReuseTestJvm;
+
+	private Button fUseBinaryProtocol;
+
 	// Test class UI widgets
 	private Text fTestText;
 
@@ -438,6 +442,26 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		gd.horizontalAlignment = GridData.FILL;
 		gd.horizontalSpan = 2;
 		fKeepRunning.setLayoutData(gd);
+
+		fReuseTestJvm = new Button(comp, SWT.CHECK);
+		fReuseTestJvm.addSelectionListener(SelectionListener.widgetSelectedAdapter(e -> {
+			updateLaunchConfigurationDialog();
+		}));
+		fReuseTestJvm.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_reuseTestJvm);
+		gd = new GridData();
+		gd.horizontalAlignment = GridData.FILL;
+		gd.horizontalSpan = 2;
+		fReuseTestJvm.setLayoutData(gd);
+
+		fUseBinaryProtocol = new Button(comp, SWT.CHECK);
+		fUseBinaryProtocol.addSelectionListener(SelectionListener.widgetSelectedAdapter(e -> {
+			updateLaunchConfigurationDialog();
+		}));
+		fUseBinaryProtocol.setText(JUnitMessages.JUnitLaunchConfigurationTab_label_useBinaryProtocol);
+		gd = new GridData();
+		gd.horizontalAlignment = GridData.FILL;
+		gd.horizontalSpan = 2;
+		fUseBinaryProtocol.setLayoutData(gd);
 	}
 
 	private static Image createImage(String path) {
@@ -494,6 +518,18 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 		} catch (CoreException ce) {
 		}
 		fKeepRunning.setSelection(running);
+		boolean reuse = false;
+		try {
+			reuse = config.getAttribute(JUnitLaunchConfigurationDelegate.ATTR_REUSE_TEST_JVM, false);
+		} catch (CoreException ce) {
+		}
+		fReuseTestJvm.setSelection(reuse);
+		boolean binary = false;
+		try {
+			binary = config.getAttribute(JUnitLaunchConfigurationDelegate.ATTR_USE_BINARY_PROTOCOL, false);
+		} catch (CoreException ce) {
+		}
+		fUseBinaryProtocol.setSelection(binary);
 	}
 
 	private void updateProjectFromConfig(ILaunchConfiguration config) {
@@ -562,6 +598,9 @@ public class JUnitLaunchConfigurationTab extends AbstractLaunchConfigurationTab
 
 		new ConfigureViewerSupport(JUnitTestPlugin.UNIT_TEST_VIEW_SUPPORT_ID).apply(config);
 		config.setAttribute(JUnitLaunchConfigurationConstants.ATTR_KEEPRUNNING, fKeepRunning.getSelection());
+		config.setAttribute(JUnitLaunchConfigurationDelegate.ATTR_REUSE_TEST_JVM, fReuseTestJvm.getSelection());
+		config.setAttribute(JUnitLaunchConfigurationDelegate.ATTR_USE_BINARY_PROTOCOL,
+				fUseBinaryProtocol.getSelection());
 		try {
 			mapResources(config);
 		} catch (CoreException e) {
@@ -16,10 +16,13 @@
 package org.eclipse.unittest.junit.launcher;
 
 import java.time.Duration;
-import java.util.Arrays;
 
+import org.eclipse.unittest.internal.trace.BoundedTextBuffer;
 import org.eclipse.unittest.junit.JUnitTestPlugin;
+import org.eclipse.unittest.junit.internal.launcher.MessageFieldScanner;
+import org.eclipse.unittest.junit.internal.launcher.MessageHeaderTable;
 import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerClient;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerTransport;
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestElement;
 import org.eclipse.unittest.model.ITestElement.FailureTrace;
@@ -42,6 +45,12 @@ import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
 public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	public JUnitRemoteTestRunnerClient(int port, ITestRunSession session) {
 		super(port, session);
+		registerMessageHandlers();
+	}
+
+	public JUnitRemoteTestRunnerClient(RemoteTestRunnerTransport transport, ITestRunSession session) {
+		super(transport, session);
+		registerMessageHandlers();
 	}
 
 	public abstract class ListenerSafeRunnable implements ISafeRunnable {
@@ -55,116 +64,142 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	 * A simple state machine to process requests from the RemoteTestRunner
 	 */
 	abstract class ProcessingState {
-		abstract ProcessingState readMessage(String message);
+		abstract ProcessingState readMessage(CharSequence message);
+	}
+
+	/**
+	 * Handles a message of the default processing state
+	 */
+	@FunctionalInterface
+	interface MessageHandler {
+		/**
+		 * Handles a message
+		 *
+		 * @param message the message, starting with the header of the handler
+		 * @return the next processing state
+		 */
+		ProcessingState handle(CharSequence message);
 	}
 
 	class DefaultProcessingState extends ProcessingState {
 		@Override
-		ProcessingState readMessage(String message) {
+		ProcessingState readMessage(CharSequence message) {
 			if (fDebug) {
 				System.out.println("JUnitRemoteTestRunnerClient.DefaultProcessingState.readMessage: " + message); //$NON-NLS-1$
 			}
-
-			if (message.startsWith(MessageIds.TRACE_START)) {
-				fFailedTrace.setLength(0);
-				return fTraceState;
-			}
-			if (message.startsWith(MessageIds.EXPECTED_START)) {
-				fExpectedResult.setLength(0);
-				return fExpectedState;
-			}
-			if (message.startsWith(MessageIds.ACTUAL_START)) {
-				fActualResult.setLength(0);
-				return fActualState;
-			}
-			if (message.startsWith(MessageIds.RTRACE_START)) {
-				fFailedRerunTrace.setLength(0);
-				return fRerunState;
-			}
-			String arg = message.substring(MessageIds.MSG_HEADER_LENGTH);
-			if (message.startsWith(MessageIds.TEST_RUN_START)) {
-				// version < 2 format: count
-				// version >= 2 format: count+" "+version
-				int count = 0;
-				int v = arg.indexOf(' ');
-				if (v == -1) {
-					fVersion = "v1"; //$NON-NLS-1$
-					count = Integer.parseInt(arg);
-				} else {
-					fVersion = arg.substring(v + 1);
-					String sc = arg.substring(0, v);
-					count = Integer.parseInt(sc);
-				}
-				fTestRunSession.notifyTestSessionStarted(count);
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_START)) {
-				String s[] = extractTestId(arg);
-				ITestElement test = fTestRunSession.getTestElement(s[0]);
-				fTestRunSession.notifyTestStarted(test);
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_END)) {
-				String s[] = extractTestId(arg);
-				boolean isIgnored = s[1].startsWith(MessageIds.IGNORED_TEST_PREFIX);
-				ITestElement testElement = fTestRunSession.getTestElement(s[0]);
-				fTestRunSession.notifyTestEnded(testElement, isIgnored);
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_ERROR)) {
-				String s[] = extractTestId(arg);
-				ITestElement testElement = fTestRunSession.getTestElement(s[0]);
-				boolean isAssumptionFailed = s[1].startsWith(MessageIds.ASSUMPTION_FAILED_TEST_PREFIX);
-				extractFailure(testElement, Result.ERROR, isAssumptionFailed);
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_FAILED)) {
-				String s[] = extractTestId(arg);
-				ITestElement testElement = fTestRunSession.getTestElement(s[0]);
-				boolean isAssumptionFailed = s[1].startsWith(MessageIds.ASSUMPTION_FAILED_TEST_PREFIX);
-				extractFailure(testElement, Result.FAILURE, isAssumptionFailed);
+			if (fLineContinued) {
+				// the rest of an overlong unexpected line
 				return this;
 			}
-			if (message.startsWith(MessageIds.TEST_RUN_END)) {
-				fTestRunSession.notifyTestSessionCompleted(Duration.ofMillis(Long.parseLong(arg)));
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_STOPPED)) {
-				fTestRunSession.notifyTestSessionAborted(Duration.ofMillis(Long.parseLong(arg)), null);
-				shutDown();
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_TREE)) {
-				notifyTestTreeEntry(arg);
-				return this;
-			}
-			if (message.startsWith(MessageIds.TEST_RERAN)) {
-				if (hasTestId())
-					scanReranMessage(arg);
-				else
-					scanOldReranMessage(arg);
-				return this;
-			}
-			return this;
+
+			MessageHandler handler = fMessageHandlers.get(message);
+			return handler != null ? handler.handle(message) : this;
 		}
 	}
 
+	/**
+	 * Registers the handlers of the messages of the default processing state
+	 */
+	private void registerMessageHandlers() {
+		fMessageHandlers.put(MessageIds.TRACE_START, message -> {
+			fFailedTrace.clear();
+			return fTraceState;
+		});
+		fMessageHandlers.put(MessageIds.EXPECTED_START, message -> {
+			fExpectedResult.clear();
+			return fExpectedState;
+		});
+		fMessageHandlers.put(MessageIds.ACTUAL_START, message -> {
+			fActualResult.clear();
+			return fActualState;
+		});
+		fMessageHandlers.put(MessageIds.RTRACE_START, message -> {
+			fFailedRerunTrace.clear();
+			return fRerunState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_RUN_START, message -> {
+			// version < 2 format: count
+			// version >= 2 format: count+" "+version
+			String arg = getArgument(message);
+			int count = 0;
+			int v = arg.indexOf(' ');
+			if (v == -1) {
+				fVersion = "v1"; //$NON-NLS-1$
+				count = Integer.parseInt(arg);
+			} else {
+				fVersion = arg.substring(v + 1);
+				String sc = arg.substring(0, v);
+				count = Integer.parseInt(sc);
+			}
+			fTestRunSession.notifyTestSessionStarted(count);
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_START, message -> {
+			int idEnd = getTestIdEnd(message);
+			fTestRunSession.notifyTestStarted(getTestElement(message, idEnd));
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_END, message -> {
+			int idEnd = getTestIdEnd(message);
+			boolean isIgnored = startsWith(message, getTestNameStart(idEnd), MessageIds.IGNORED_TEST_PREFIX);
+			fTestRunSession.notifyTestEnded(getTestElement(message, idEnd), isIgnored);
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_ERROR, message -> {
+			int idEnd = getTestIdEnd(message);
+			boolean isAssumptionFailed = startsWith(message, getTestNameStart(idEnd),
+					MessageIds.ASSUMPTION_FAILED_TEST_PREFIX);
+			extractFailure(getTestElement(message, idEnd), Result.ERROR, isAssumptionFailed);
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_FAILED, message -> {
+			int idEnd = getTestIdEnd(message);
+			boolean isAssumptionFailed = startsWith(message, getTestNameStart(idEnd),
+					MessageIds.ASSUMPTION_FAILED_TEST_PREFIX);
+			extractFailure(getTestElement(message, idEnd), Result.FAILURE, isAssumptionFailed);
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_RUN_END, message -> {
+			fTestRunSession.notifyTestSessionCompleted(Duration.ofMillis(
+					Long.parseLong(message, MessageIds.MSG_HEADER_LENGTH, message.length(), 10)));
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_STOPPED, message -> {
+			fTestRunSession.notifyTestSessionAborted(
+					Duration.ofMillis(Long.parseLong(message, MessageIds.MSG_HEADER_LENGTH, message.length(), 10)),
+					null);
+			shutDown();
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_TREE, message -> {
+			notifyTestTreeEntry(message);
+			return fDefaultState;
+		});
+		fMessageHandlers.put(MessageIds.TEST_RERAN, message -> {
+			if (hasTestId())
+				scanReranMessage(getArgument(message));
+			else
+				scanOldReranMessage(getArgument(message));
+			return fDefaultState;
+		});
+	}
+
 	/**
 	 * Base class for states in which messages are appended to an internal string
 	 * buffer until an end message is read.
 	 */
 	class AppendingProcessingState extends ProcessingState {
-		private final StringBuilder fBuffer;
+		private final BoundedTextBuffer fBuffer;
 		private String fEndString;
 
-		AppendingProcessingState(StringBuilder buffer, String endString) {
+		AppendingProcessingState(BoundedTextBuffer buffer, String endString) {
 			this.fBuffer = buffer;
 			this.fEndString = endString;
 		}
 
 		@Override
-		ProcessingState readMessage(String message) {
-			if (message.startsWith(fEndString)) {
+		ProcessingState readMessage(CharSequence message) {
+			if (!fLineContinued && startsWith(message, fEndString)) {
 				entireStringRead();
 				return fDefaultState;
 			}
@@ -189,20 +224,20 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 
 		@Override
 		void entireStringRead() {
-			fTestRunSession.notifyTestFailed(fFailedTest, fFailureKind, fFailedAssumption, new FailureTrace(
-					fFailedTrace.toString(), nullifyEmpty(fExpectedResult), nullifyEmpty(fActualResult)));
-			fExpectedResult.setLength(0);
-			fActualResult.setLength(0);
+			fTestRunSession.notifyTestFailed(fFailedTest, fFailureKind, fFailedAssumption,
+					newFailureTrace(fFailedTrace));
+			fExpectedResult.clear();
+			fActualResult.clear();
 		}
 
 		@Override
-		ProcessingState readMessage(String message) {
-			if (message.startsWith(MessageIds.TRACE_END)) {
-				fTestRunSession.notifyTestFailed(fFailedTest, fFailureKind, fFailedAssumption, new FailureTrace(
-						fFailedTrace.toString(), nullifyEmpty(fExpectedResult), nullifyEmpty(fActualResult)));
-				fFailedTrace.setLength(0);
-				fActualResult.setLength(0);
-				fExpectedResult.setLength(0);
+		ProcessingState readMessage(CharSequence message) {
+			if (!fLineContinued && startsWith(message, MessageIds.TRACE_END)) {
+				fTestRunSession.notifyTestFailed(fFailedTest, fFailureKind, fFailedAssumption,
+						newFailureTrace(fFailedTrace));
+				fFailedTrace.clear();
+				fActualResult.clear();
+				fExpectedResult.clear();
 				return fDefaultState;
 			}
 			fFailedTrace.append(message);
@@ -232,20 +267,30 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	/**
 	 * The failed trace that is currently reported from the RemoteTestRunner
 	 */
-	private final StringBuilder fFailedTrace = new StringBuilder();
+	private final BoundedTextBuffer fFailedTrace = BoundedTextBuffer.forFailureTrace();
 	/**
 	 * The expected test result
 	 */
-	private final StringBuilder fExpectedResult = new StringBuilder();
+	private final BoundedTextBuffer fExpectedResult = BoundedTextBuffer.forComparisonResult();
 	/**
 	 * The actual test result
 	 */
-	private final StringBuilder fActualResult = new StringBuilder();
+	private final BoundedTextBuffer fActualResult = BoundedTextBuffer.forComparisonResult();
 	/**
 	 * The failed trace of a reran test
 	 */
-	private final StringBuilder fFailedRerunTrace = new StringBuilder();
+	private final BoundedTextBuffer fFailedRerunTrace = BoundedTextBuffer.forFailureTrace();
 	private ITestSuiteElement currentSuite;
+	/**
+	 * The scanner of the test tree entries, reused for all the entries
+	 */
+	private final MessageFieldScanner fTreeEntryScanner = new MessageFieldScanner();
+
+	/**
+	 * The handlers of the messages of the default processing state, by header
+	 */
+	private final MessageHeaderTable<MessageHandler> fMessageHandlers = new MessageHeaderTable<>(
+			MessageIds.MSG_HEADER_LENGTH, 16);
 
 	ProcessingState fDefaultState = new DefaultProcessingState();
 	ProcessingState fTraceState = new TraceProcessingState();
@@ -279,8 +324,7 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	 */
 	@Override
 	public synchronized void stopTest() {
-		fWriter.println(MessageIds.TEST_STOP);
-		fWriter.flush();
+		sendMessage(MessageIds.TEST_STOP);
 		ILaunch launch = fTestRunSession.getLaunch();
 		try {
 			launch.terminate();
@@ -290,10 +334,59 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	}
 
 	@Override
-	public void receiveMessage(String message) {
+	public void receiveMessage(CharSequence message) {
 		fCurrentState = fCurrentState.readMessage(message);
 	}
 
+	private static boolean startsWith(CharSequence message, String prefix) {
+		return startsWith(message, 0, prefix);
+	}
+
+	private static boolean startsWith(CharSequence message, int offset, String prefix) {
+		int length = prefix.length();
+		if (offset < 0 || message.length() - offset < length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (message.charAt(offset + i) != prefix.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String getArgument(CharSequence message) {
+		return message.subSequence(MessageIds.MSG_HEADER_LENGTH, message.length()).toString();
+	}
+
+	/**
+	 * Returns the end of the test id of a test message, whose argument is
+	 * <code>testId","testName</code>, or only <code>testName</code> for the
+	 * protocol version 1 in which the test name is the test id
+	 *
+	 * @param message a test message
+	 * @return the offset after the last character of the test id
+	 */
+	private int getTestIdEnd(CharSequence message) {
+		int length = message.length();
+		if (hasTestId()) {
+			for (int i = MessageIds.MSG_HEADER_LENGTH; i < length; i++) {
+				if (message.charAt(i) == ',') {
+					return i;
+				}
+			}
+		}
+		return length;
+	}
+
+	private int getTestNameStart(int idEnd) {
+		return hasTestId() ? idEnd + 1 : MessageIds.MSG_HEADER_LENGTH;
+	}
+
+	private ITestElement getTestElement(CharSequence message, int idEnd) {
+		return fTestRunSession.getTestElement(message, MessageIds.MSG_HEADER_LENGTH, idEnd);
+	}
+
 	private void scanOldReranMessage(String arg) {
 		// OLD V1 format
 		// format: className" "testName" "status
@@ -379,73 +472,58 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 	 * statusCode, trace, nullifyEmpty(fExpectedResult),
 	 * nullifyEmpty(fActualResult)); } }); } }
 	 */
-	private void notifyTestTreeEntry(final String treeEntry) {
+	private void notifyTestTreeEntry(CharSequence message) {
 		// format:
 		// testId","testName","isSuite","testcount","isDynamicTest","parentId","displayName","parameterTypes","uniqueId
-		String fixedTreeEntry = hasTestId() ? treeEntry : fakeTestId(treeEntry);
-
-		int index0 = fixedTreeEntry.indexOf(',');
-		String id = fixedTreeEntry.substring(0, index0);
-
-		StringBuilder testNameBuffer = new StringBuilder(100);
-		int index1 = scanTestName(fixedTreeEntry, index0 + 1, testNameBuffer);
-		String testName = testNameBuffer.toString().trim();
-
-		int index2 = fixedTreeEntry.indexOf(',', index1 + 1);
-		boolean isSuite = fixedTreeEntry.substring(index1 + 1, index2).equals("true"); //$NON-NLS-1$
-
-		int testCount;
-		boolean isDynamicTest;
-		String parentId;
-		String displayName;
-		StringBuilder displayNameBuffer = new StringBuilder(100);
-		String[] parameterTypes;
-		StringBuilder parameterTypesBuffer = new StringBuilder(200);
-		String uniqueId;
-		StringBuilder uniqueIdBuffer = new StringBuilder(200);
-		int index3 = fixedTreeEntry.indexOf(',', index2 + 1);
-		if (index3 == -1) {
-			testCount = Integer.parseInt(fixedTreeEntry.substring(index2 + 1));
-			isDynamicTest = false;
-			parentId = null;
-			displayName = null;
-			parameterTypes = null;
-			uniqueId = null;
+		MessageFieldScanner fields = fTreeEntryScanner;
+		fields.reset(message, MessageIds.MSG_HEADER_LENGTH);
+		String id;
+		if (hasTestId()) {
+			fields.next();
+			id = fields.getString();
 		} else {
-			testCount = Integer.parseInt(fixedTreeEntry.substring(index2 + 1, index3));
+			// the test name is the test id
+			fields.next();
+			id = fields.getString().trim();
+			fields.reset(message, MessageIds.MSG_HEADER_LENGTH);
+		}
 
-			int index4 = fixedTreeEntry.indexOf(',', index3 + 1);
-			isDynamicTest = Boolean.parseBoolean(fixedTreeEntry.substring(index3 + 1, index4));
+		fields.nextEscaped();
+		String testName = fields.getString();
 
-			int index5 = fixedTreeEntry.indexOf(',', index4 + 1);
-			parentId = fixedTreeEntry.substring(index4 + 1, index5);
-			if (parentId.equals("-1")) { //$NON-NLS-1$
-				parentId = null;
-			}
+		fields.next();
+		boolean isSuite = fields.fieldEquals("true"); //$NON-NLS-1$
+
+		fields.next();
+		int testCount = fields.getInt();
 
-			int index6 = scanTestName(fixedTreeEntry, index5 + 1, displayNameBuffer);
-			displayName = displayNameBuffer.toString().trim();
-			if (displayName.equals(testName)) {
-				displayName = null;
+		ITestSuiteElement parent = null;
+		String displayName = null;
+		String uniqueId = null;
+		if (fields.hasNext()) {
+			fields.next(); // isDynamicTest
+
+			fields.next();
+			if (!fields.fieldEquals("-1")) { //$NON-NLS-1$
+				ITestElement element = fTestRunSession.getTestElement(message, fields.getStart(), fields.getEnd());
+				if (element instanceof ITestSuiteElement) {
+					parent = (ITestSuiteElement) element;
+				}
 			}
 
-			int index7 = scanTestName(fixedTreeEntry, index6 + 1, parameterTypesBuffer);
-			String parameterTypesString = parameterTypesBuffer.toString().trim();
-			if (parameterTypesString.isEmpty()) {
-				parameterTypes = null;
-			} else {
-				parameterTypes = parameterTypesString.split(","); //$NON-NLS-1$
-				Arrays.parallelSetAll(parameterTypes, i -> parameterTypes[i].trim());
+			fields.nextEscaped();
+			if (!fields.fieldEquals(testName)) {
+				displayName = fields.getString();
 			}
 
-			scanTestName(fixedTreeEntry, index7 + 1, uniqueIdBuffer);
-			uniqueId = uniqueIdBuffer.toString().trim();
-			if (uniqueId.isEmpty()) {
-				uniqueId = null;
+			fields.nextEscaped(); // parameterTypes
+
+			fields.nextEscaped();
+			if (!fields.isEmpty()) {
+				uniqueId = fields.getString();
 			}
 		}
 
-		ITestSuiteElement parent = getTestSuite(parentId);
 		if (parent == null && currentSuite != null) {
 			parent = currentSuite;
 		}
@@ -457,46 +535,6 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 		}
 	}
 
-	private ITestSuiteElement getTestSuite(String parentId) {
-		ITestElement element = fTestRunSession.getTestElement(parentId);
-		return element instanceof ITestSuiteElement ? (ITestSuiteElement) element : null;
-	}
-
-	/**
-	 * Append the test name from <code>s</code> to <code>testName</code>.
-	 *
-	 * @param s        the string to scan
-	 * @param start    the offset of the first character in <code>s</code>
-	 * @param testName the result
-	 *
-	 * @return the index of the next ','
-	 */
-	private int scanTestName(String s, int start, StringBuilder testName) {
-		boolean inQuote = false;
-		int i = start;
-		for (; i < s.length(); i++) {
-			char c = s.charAt(i);
-			if (c == '\\' && !inQuote) {
-				inQuote = true;
-				continue;
-			} else if (inQuote) {
-				inQuote = false;
-				testName.append(c);
-			} else if (c == ',')
-				break;
-			else
-				testName.append(c);
-		}
-		return i;
-	}
-
-	private String fakeTestId(String treeEntry) {
-		// extract the test name and add it as the testId
-		int index0 = treeEntry.indexOf(',');
-		String testName = treeEntry.substring(0, index0).trim();
-		return testName + "," + treeEntry; //$NON-NLS-1$
-	}
-
 	private void extractFailure(ITestElement failedTest, Result status, boolean isAssumptionFailed) {
 		fFailedTest = failedTest;
 		fFailureKind = status;
@@ -511,33 +549,23 @@ public class JUnitRemoteTestRunnerClient extends RemoteTestRunnerClient {
 			statusCode = Result.ERROR;
 		}
 
-		String trace = ""; //$NON-NLS-1$
-		if (statusCode != Result.OK)
-			trace = fFailedRerunTrace.toString();
 		// assumption a rerun trace was sent before
 
 		ITestCaseElement element = fTestRunSession.newTestCase(testId, testName, null, testName, className);
 		if (statusCode != Result.OK) {
-			fTestRunSession.notifyTestFailed(element, statusCode, false,
-					new FailureTrace(trace, nullifyEmpty(fExpectedResult), nullifyEmpty(fActualResult)));
+			fTestRunSession.notifyTestFailed(element, statusCode, false, newFailureTrace(fFailedRerunTrace));
 		}
 		fTestRunSession.notifyTestEnded(element, false);
 	}
 
-	private static String nullifyEmpty(StringBuilder buf) {
-		int length = buf.length();
-		if (length == 0)
-			return null;
-
-		char last = buf.charAt(length - 1);
-		if (last == '\n') {
-			if (length > 1 && buf.charAt(length - 2) == '\r')
-				return buf.substring(0, length - 2);
-			else
-				return buf.substring(0, length - 1);
-		} else if (last == '\r') {
-			return buf.substring(0, length - 1);
-		}
-		return buf.toString();
+	/**
+	 * Creates the failure trace of the received texts, handing over the files of
+	 * the truncated ones
+	 *
+	 * @param trace the received trace
+	 * @return the failure trace
+	 */
+	private FailureTrace newFailureTrace(BoundedTextBuffer trace) {
+		return BoundedTextBuffer.toFailureTrace(trace, fExpectedResult, fActualResult);
 	}
 }
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+/**
+ * The binary protocol of the {@link BinaryTestRunner}, a compact alternative
+ * to the text lines of the RemoteTestRunner.
+ * <p>
+ * The stream is a sequence of frames, each made of its length, as a varint,
+ * followed by its type byte and its fields. A varint is an unsigned integer
+ * written 7 bits at a time, least significant group first, with the high bit
+ * set on all bytes but the last. A string is either inline, as the varint
+ * number of its UTF-8 bytes followed by the bytes, or a reference, as the
+ * varint index of a {@link #STRING} frame sent before: the names, class names
+ * and unique id segments repeated by the tests of a run are sent once.
+ * </p>
+ * <p>
+ * The tests are identified by varint ids, from 0 in the order of their
+ * {@link #TEST_TREE} frames. A parent id, and the optional references, are
+ * sent plus one, so that 0 means none. A failure trace is sent whole, inline in
+ * its {@link #TEST_FAILED} frame.
+ * </p>
+ * <p>
+ * This class is loaded in the test JVM and only depends on the JRE.
+ * </p>
+ */
+public final class BinaryProtocol {
+
+	/**
+	 * Adds a string to the string table: <i>inline string</i>. Its index is the
+	 * number of strings added before.
+	 */
+	public static final int STRING = 1;
+
+	/**
+	 * The test run has started: <i>varint number of tests</i>
+	 */
+	public static final int RUN_STARTED = 2;
+
+	/**
+	 * Adds a test or suite to the tree: <i>varint id, varint parent id + 1, byte
+	 * flags, varint number of tests, varint name reference, varint class name
+	 * reference + 1, varint display name reference + 1, varint unique id
+	 * reference + 1</i>. With a class name, the name of the test is
+	 * <code>name(className)</code>, as in the RemoteTestRunner protocol. With
+	 * {@link #TREE_RELATIVE_UNIQUE_ID}, the unique id is the unique id of the
+	 * parent followed by <code>'/'</code> and the referenced segment.
+	 */
+	public static final int TEST_TREE = 3;
+
+	/**
+	 * A test has started: <i>varint id</i>
+	 */
+	public static final int TEST_STARTED = 4;
+
+	/**
+	 * A test has ended: <i>varint id, byte 1 if the test has been ignored or
+	 * 0</i>
+	 */
+	public static final int TEST_ENDED = 5;
+
+	/**
+	 * A test or suite has failed: <i>varint id, byte flags, inline trace</i>,
+	 * followed by <i>inline expected, inline actual</i> with
+	 * {@link #FAILURE_COMPARISON}
+	 */
+	public static final int TEST_FAILED = 6;
+
+	/**
+	 * The test run has ended: <i>varint elapsed milliseconds</i>
+	 */
+	public static final int RUN_ENDED = 7;
+
+	/**
+	 * {@link #TEST_TREE} flag of a suite
+	 */
+	public static final int TREE_SUITE = 1;
+
+	/**
+	 * {@link #TEST_TREE} flag of a test added during the run, e.g. a dynamic test
+	 */
+	public static final int TREE_DYNAMIC = 2;
+
+	/**
+	 * {@link #TEST_TREE} flag of a unique id relative to the one of the parent
+	 */
+	public static final int TREE_RELATIVE_UNIQUE_ID = 4;
+
+	/**
+	 * {@link #TEST_FAILED} flag of an error, as opposed to an assertion failure
+	 */
+	public static final int FAILURE_ERROR = 1;
+
+	/**
+	 * {@link #TEST_FAILED} flag of an assumption failure
+	 */
+	public static final int FAILURE_ASSUMPTION = 2;
+
+	/**
+	 * {@link #TEST_FAILED} flag of a failure with expected and actual values
+	 */
+	public static final int FAILURE_COMPARISON = 4;
+
+	private BinaryProtocol() {
+		// constants only
+	}
+}
@@ -0,0 +1,296 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.opentest4j.AssertionFailedError;
+
+/**
+ * Reports the execution of a JUnit Platform test plan with the frames of the
+ * {@link BinaryProtocol}.
+ * <p>
+ * The test plan is sent whole when its execution starts, as the RemoteTestRunner
+ * does, with the dynamic tests added when they are registered. The frames are
+ * flushed after each event, so that the IDE shows the progress of the run.
+ * </p>
+ */
+public class BinaryTestReporter implements TestExecutionListener {
+
+	private final FrameWriter fWriter;
+
+	/**
+	 * The protocol ids of the tests, by unique id
+	 */
+	private final Map<String, Integer> fIds = new HashMap<>();
+
+	/**
+	 * The number of tests of the containers of the test plan, by unique id
+	 */
+	private final Map<String, Integer> fTestCounts = new HashMap<>();
+
+	private TestPlan fTestPlan;
+	private long fStartTime;
+	private boolean fFailed;
+
+	/**
+	 * Constructs a reporter
+	 *
+	 * @param writer the writer of the frames
+	 */
+	BinaryTestReporter(FrameWriter writer) {
+		fWriter = writer;
+	}
+
+	@Override
+	public void testPlanExecutionStarted(TestPlan testPlan) {
+		fTestPlan = testPlan;
+		fStartTime = System.currentTimeMillis();
+		try {
+			fWriter.begin(BinaryProtocol.RUN_STARTED);
+			fWriter.putVarint(testPlan.countTestIdentifiers(TestIdentifier::isTest));
+			fWriter.end();
+			for (TestIdentifier root : testPlan.getRoots()) {
+				countTests(root);
+				sendTree(root, false);
+			}
+			fWriter.flush();
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	@Override
+	public void testPlanExecutionFinished(TestPlan testPlan) {
+		if (fFailed) {
+			return;
+		}
+		try {
+			fWriter.begin(BinaryProtocol.RUN_ENDED);
+			fWriter.putVarint(System.currentTimeMillis() - fStartTime);
+			fWriter.end();
+			fWriter.flush();
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	@Override
+	public void dynamicTestRegistered(TestIdentifier testIdentifier) {
+		try {
+			sendTree(testIdentifier, true);
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	@Override
+	public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+		try {
+			sendSkipped(testIdentifier);
+			fWriter.flush();
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	@Override
+	public void executionStarted(TestIdentifier testIdentifier) {
+		if (!testIdentifier.isTest()) {
+			return;
+		}
+		try {
+			if (sendId(BinaryProtocol.TEST_STARTED, testIdentifier)) {
+				fWriter.end();
+				fWriter.flush();
+			}
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	@Override
+	public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+		try {
+			Status status = testExecutionResult.getStatus();
+			Optional<Throwable> throwable = testExecutionResult.getThrowable();
+			if (status != Status.SUCCESSFUL && throwable.isPresent()) {
+				sendFailure(testIdentifier, status, throwable.get());
+			}
+			if (testIdentifier.isTest() && sendId(BinaryProtocol.TEST_ENDED, testIdentifier)) {
+				fWriter.putByte(0);
+				fWriter.end();
+			}
+			fWriter.flush();
+		} catch (IOException e) {
+			failed(e);
+		}
+	}
+
+	private int countTests(TestIdentifier identifier) {
+		int count = identifier.isTest() ? 1 : 0;
+		for (TestIdentifier child : fTestPlan.getChildren(identifier)) {
+			count += countTests(child);
+		}
+		fTestCounts.put(identifier.getUniqueId(), Integer.valueOf(count));
+		return count;
+	}
+
+	private void sendTree(TestIdentifier identifier, boolean dynamic) throws IOException {
+		if (fFailed) {
+			return;
+		}
+		String name;
+		String className = null;
+		TestSource source = identifier.getSource().orElse(null);
+		if (source instanceof MethodSource) {
+			name = ((MethodSource) source).getMethodName();
+			className = ((MethodSource) source).getClassName();
+		} else if (source instanceof ClassSource) {
+			name = ((ClassSource) source).getClassName();
+		} else {
+			name = identifier.getDisplayName();
+		}
+		String testName = className != null ? name + '(' + className + ')' : name;
+		String displayName = identifier.getDisplayName();
+
+		int parentId = -1;
+		String uniqueId = identifier.getUniqueId();
+		int flags = (identifier.isContainer() ? BinaryProtocol.TREE_SUITE : 0)
+				| (dynamic ? BinaryProtocol.TREE_DYNAMIC : 0);
+		String parentUniqueId = identifier.getParentId().orElse(null);
+		if (parentUniqueId != null) {
+			Integer parent = fIds.get(parentUniqueId);
+			if (parent != null) {
+				parentId = parent.intValue();
+				if (uniqueId.length() > parentUniqueId.length() + 1 && uniqueId.startsWith(parentUniqueId)
+						&& uniqueId.charAt(parentUniqueId.length()) == '/') {
+					// the segments of the unique ids are repeated, unlike the unique ids
+					uniqueId = uniqueId.substring(parentUniqueId.length() + 1);
+					flags |= BinaryProtocol.TREE_RELATIVE_UNIQUE_ID;
+				}
+			}
+		}
+		Integer testCount = fTestCounts.get(identifier.getUniqueId());
+
+		// the strings are sent before the frame which references them
+		int nameRef = fWriter.reference(name);
+		int classNameRef = className != null ? fWriter.reference(className) : -1;
+		int displayNameRef = !displayName.equals(testName) ? fWriter.reference(displayName) : -1;
+		int uniqueIdRef = fWriter.reference(uniqueId);
+
+		int id = fIds.size();
+		fIds.put(identifier.getUniqueId(), Integer.valueOf(id));
+		fWriter.begin(BinaryProtocol.TEST_TREE);
+		fWriter.putVarint(id);
+		fWriter.putVarint(parentId + 1);
+		fWriter.putByte(flags);
+		fWriter.putVarint(testCount != null ? testCount.intValue() : identifier.isTest() ? 1 : 0);
+		fWriter.putVarint(nameRef);
+		fWriter.putVarint(classNameRef + 1);
+		fWriter.putVarint(displayNameRef + 1);
+		fWriter.putVarint(uniqueIdRef + 1);
+		fWriter.end();
+
+		if (!dynamic) {
+			for (TestIdentifier child : fTestPlan.getChildren(identifier)) {
+				sendTree(child, false);
+			}
+		}
+	}
+
+	/**
+	 * Reports the tests of a skipped test or container as ignored
+	 */
+	private void sendSkipped(TestIdentifier identifier) throws IOException {
+		if (identifier.isTest() && sendId(BinaryProtocol.TEST_STARTED, identifier)) {
+			fWriter.end();
+			sendId(BinaryProtocol.TEST_ENDED, identifier);
+			fWriter.putByte(1);
+			fWriter.end();
+		}
+		for (TestIdentifier child : fTestPlan.getChildren(identifier)) {
+			sendSkipped(child);
+		}
+	}
+
+	private void sendFailure(TestIdentifier identifier, Status status, Throwable throwable) throws IOException {
+		int flags;
+		if (status == Status.ABORTED) {
+			flags = BinaryProtocol.FAILURE_ASSUMPTION;
+		} else if (throwable instanceof AssertionError) {
+			flags = 0;
+		} else {
+			flags = BinaryProtocol.FAILURE_ERROR;
+		}
+		String expected = null;
+		String actual = null;
+		if (throwable instanceof AssertionFailedError) {
+			AssertionFailedError failure = (AssertionFailedError) throwable;
+			if (failure.isExpectedDefined() && failure.isActualDefined()) {
+				expected = failure.getExpected().getStringRepresentation();
+				actual = failure.getActual().getStringRepresentation();
+				flags |= BinaryProtocol.FAILURE_COMPARISON;
+			}
+		}
+		StringWriter trace = new StringWriter();
+		throwable.printStackTrace(new PrintWriter(trace));
+
+		if (!sendId(BinaryProtocol.TEST_FAILED, identifier)) {
+			return;
+		}
+		fWriter.putByte(flags);
+		fWriter.putString(trace.toString());
+		if (expected != null) {
+			fWriter.putString(expected);
+			fWriter.putString(actual);
+		}
+		fWriter.end();
+	}
+
+	/**
+	 * Starts a frame with the id of a test
+	 *
+	 * @return <code>false</code> if the frame cannot be sent
+	 */
+	private boolean sendId(int type, TestIdentifier identifier) {
+		Integer id = fIds.get(identifier.getUniqueId());
+		if (fFailed || id == null) {
+			return false;
+		}
+		fWriter.begin(type);
+		fWriter.putVarint(id.intValue());
+		return true;
+	}
+
+	private void failed(IOException e) {
+		if (!fFailed) {
+			fFailed = true;
+			e.printStackTrace();
+		}
+	}
+}
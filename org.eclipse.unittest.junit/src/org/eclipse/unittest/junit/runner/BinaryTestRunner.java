@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.platform.engine.DiscoverySelector;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.TagFilter;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+
+/**
+ * Runs the tests of the JUnit Platform and reports them to the IDE with a
+ * {@link BinaryTestReporter}, through a socket or, when launched with
+ * <code>-mappedFile</code> <i>path</i>, a {@link MappedFileRing}.
+ * <p>
+ * This class is the main class of the test JVM. It accepts the program
+ * arguments of the RemoteTestRunner which select the tests, and only depends on
+ * the JRE and the JUnit Platform launcher.
+ * </p>
+ */
+public final class BinaryTestRunner {
+
+	private static final String DEFAULT_PACKAGE = "<default>"; //$NON-NLS-1$
+
+	private int fPort = -1;
+	private File fMappedFile;
+	private String fUniqueId;
+	private final List<String> fClassNames = new ArrayList<>();
+	private final List<String> fTestNames = new ArrayList<>();
+	private final List<String> fPackageNames = new ArrayList<>();
+	private final List<String> fIncludeTags = new ArrayList<>();
+	private final List<String> fExcludeTags = new ArrayList<>();
+
+	public static void main(String[] args) {
+		try {
+			runTests(args);
+		} finally {
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * Runs the tests selected by the program arguments without exiting, e.g. in
+	 * a {@link PooledTestRunner}
+	 *
+	 * @param args the program arguments of the RemoteTestRunner
+	 */
+	public static void runTests(String[] args) {
+		try {
+			BinaryTestRunner runner = new BinaryTestRunner();
+			runner.init(args);
+			runner.run();
+		} catch (Throwable e) {
+			e.printStackTrace(); // don't allow System.exit(0) to swallow exceptions
+		}
+	}
+
+	private void init(String[] args) throws IOException {
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if ("-port".equals(arg)) { //$NON-NLS-1$
+				fPort = Integer.parseInt(args[++i]);
+			} else if (MappedFileRemoteTestRunner.MAPPED_FILE_ARGUMENT.equals(arg)) {
+				fMappedFile = new File(args[++i]);
+			} else if ("-classNames".equalsIgnoreCase(arg)) { //$NON-NLS-1$
+				while (i + 1 < args.length && !args[i + 1].startsWith("-")) { //$NON-NLS-1$
+					fClassNames.add(args[++i]);
+				}
+			} else if ("-test".equals(arg)) { //$NON-NLS-1$
+				fTestNames.add(args[++i]);
+			} else if ("-testNameFile".equals(arg)) { //$NON-NLS-1$
+				fClassNames.addAll(readLines(args[++i]));
+			} else if ("-packageNameFile".equals(arg)) { //$NON-NLS-1$
+				fPackageNames.addAll(readLines(args[++i]));
+			} else if ("-uniqueId".equals(arg)) { //$NON-NLS-1$
+				fUniqueId = args[++i];
+			} else if ("--include-tag".equals(arg)) { //$NON-NLS-1$
+				fIncludeTags.add(args[++i]);
+			} else if ("--exclude-tag".equals(arg)) { //$NON-NLS-1$
+				fExcludeTags.add(args[++i]);
+			}
+		}
+	}
+
+	private void run() throws IOException, ClassNotFoundException {
+		LauncherDiscoveryRequestBuilder request = LauncherDiscoveryRequestBuilder.request()
+				.selectors(getSelectors());
+		if (!fIncludeTags.isEmpty()) {
+			request.filters(TagFilter.includeTags(fIncludeTags));
+		}
+		if (!fExcludeTags.isEmpty()) {
+			request.filters(TagFilter.excludeTags(fExcludeTags));
+		}
+		Launcher launcher = LauncherFactory.create();
+		try (OutputStream out = connect()) {
+			launcher.execute(request.build(), new BinaryTestReporter(new FrameWriter(out)));
+		}
+	}
+
+	private List<DiscoverySelector> getSelectors() throws ClassNotFoundException {
+		List<DiscoverySelector> selectors = new ArrayList<>();
+		if (fUniqueId != null) {
+			// reruns a single test, e.g. a dynamic one
+			selectors.add(DiscoverySelectors.selectUniqueId(fUniqueId));
+			return selectors;
+		}
+		for (String className : fClassNames) {
+			selectors.add(DiscoverySelectors.selectClass(className));
+		}
+		for (String packageName : fPackageNames) {
+			selectors.add(DiscoverySelectors.selectPackage(DEFAULT_PACKAGE.equals(packageName) ? "" : packageName)); //$NON-NLS-1$
+		}
+		for (String testName : fTestNames) {
+			int index = testName.indexOf(':');
+			Class<?> testClass = Class.forName(testName.substring(0, index), false,
+					BinaryTestRunner.class.getClassLoader());
+			String methodName = testName.substring(index + 1);
+			// the method is named without its parameter types, select all its overloads
+			for (Class<?> type = testClass; type != null; type = type.getSuperclass()) {
+				for (Method method : type.getDeclaredMethods()) {
+					if (method.getName().equals(methodName)) {
+						selectors.add(DiscoverySelectors.selectMethod(testClass, method));
+					}
+				}
+			}
+		}
+		return selectors;
+	}
+
+	private OutputStream connect() throws IOException {
+		if (fMappedFile != null) {
+			MappedFileRing ring = MappedFileRing.open(fMappedFile);
+			ring.attach();
+			return new OutputStream() {
+				@Override
+				public void write(int b) {
+					write(new byte[] { (byte) b }, 0, 1);
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+					ring.write(b, off, len);
+				}
+
+				@Override
+				public void close() {
+					ring.closeWriter();
+				}
+			};
+		}
+		Socket socket = new Socket(InetAddress.getLoopbackAddress(), fPort);
+		socket.setTcpNoDelay(true);
+		return new BufferedOutputStream(socket.getOutputStream(), 1 << 16);
+	}
+
+	private static List<String> readLines(String fileName) throws IOException {
+		List<String> lines = new ArrayList<>();
+		for (String line : Files.readAllLines(new File(fileName).toPath(), StandardCharsets.UTF_8)) {
+			if (!line.trim().isEmpty()) {
+				lines.add(line.trim());
+			}
+		}
+		return lines;
+	}
+}
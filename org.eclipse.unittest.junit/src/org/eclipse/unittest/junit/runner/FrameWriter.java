@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes the frames of the {@link BinaryProtocol}. A frame is built in a
+ * reusable array, between {@link #begin(int)} and {@link #end()}, and written
+ * with its length in a single call to the stream.
+ */
+final class FrameWriter {
+
+	private final OutputStream fOut;
+	private final Map<String, Integer> fStrings = new HashMap<>();
+	private final byte[] fLength = new byte[5];
+	private byte[] fFrame = new byte[256];
+	private int fSize;
+
+	/**
+	 * Constructs a writer of frames
+	 *
+	 * @param out the stream to write the frames to
+	 */
+	FrameWriter(OutputStream out) {
+		fOut = out;
+	}
+
+	/**
+	 * Returns the index of a string in the string table, sending the string if it
+	 * has not been sent before. Must not be called while building a frame.
+	 *
+	 * @param string the string
+	 * @return the index of the string
+	 * @throws IOException if the string cannot be sent
+	 */
+	int reference(String string) throws IOException {
+		Integer index = fStrings.get(string);
+		if (index != null) {
+			return index.intValue();
+		}
+		int newIndex = fStrings.size();
+		fStrings.put(string, Integer.valueOf(newIndex));
+		begin(BinaryProtocol.STRING);
+		putString(string);
+		end();
+		return newIndex;
+	}
+
+	/**
+	 * Starts building a frame
+	 *
+	 * @param type the type of the frame
+	 */
+	void begin(int type) {
+		fSize = 0;
+		putByte(type);
+	}
+
+	void putByte(int value) {
+		ensureCapacity(1);
+		fFrame[fSize++] = (byte) value;
+	}
+
+	void putVarint(long value) {
+		ensureCapacity(10);
+		while ((value & ~0x7FL) != 0) {
+			fFrame[fSize++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		fFrame[fSize++] = (byte) value;
+	}
+
+	/**
+	 * Appends an inline string
+	 *
+	 * @param string the string
+	 */
+	void putString(String string) {
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		putVarint(bytes.length);
+		ensureCapacity(bytes.length);
+		System.arraycopy(bytes, 0, fFrame, fSize, bytes.length);
+		fSize += bytes.length;
+	}
+
+	/**
+	 * Writes the frame built since {@link #begin(int)}
+	 *
+	 * @throws IOException if the frame cannot be written
+	 */
+	void end() throws IOException {
+		int lengthSize = 0;
+		int value = fSize;
+		while ((value & ~0x7F) != 0) {
+			fLength[lengthSize++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		fLength[lengthSize++] = (byte) value;
+		fOut.write(fLength, 0, lengthSize);
+		fOut.write(fFrame, 0, fSize);
+	}
+
+	void flush() throws IOException {
+		fOut.flush();
+	}
+
+	private void ensureCapacity(int count) {
+		if (fSize + count > fFrame.length) {
+			fFrame = Arrays.copyOf(fFrame, Math.max(fSize + count, fFrame.length * 2));
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jdt.internal.junit.runner.RemoteTestRunner;
+
+/**
+ * A RemoteTestRunner sending its messages through a {@link MappedFileRing}
+ * instead of a socket, when launched with <code>-mappedFile</code>
+ * <i>path</i>. The stop requests of the IDE are read from the ring as well,
+ * before each message.
+ * <p>
+ * This class is the main class of the test JVM, in which only the JRE and the
+ * RemoteTestRunner are available.
+ * </p>
+ */
+@SuppressWarnings("restriction")
+public class MappedFileRemoteTestRunner extends RemoteTestRunner {
+
+	/**
+	 * The program argument followed by the path of the ring buffer file
+	 */
+	public static final String MAPPED_FILE_ARGUMENT = "-mappedFile"; //$NON-NLS-1$
+
+	private File fMappedFile;
+	private MappedFileRing fRing;
+	private boolean fStopRequested;
+
+	public static void main(String[] args) {
+		try {
+			runTests(args);
+		} finally {
+			// fix for 14434
+			System.exit(0);
+		}
+	}
+
+	/**
+	 * Runs the tests selected by the program arguments without exiting, e.g. in
+	 * a {@link PooledTestRunner}
+	 *
+	 * @param args the program arguments of the RemoteTestRunner
+	 */
+	public static void runTests(String[] args) {
+		MappedFileRemoteTestRunner testRunServer = new MappedFileRemoteTestRunner();
+		try {
+			testRunServer.init(args);
+			testRunServer.run();
+		} catch (Throwable e) {
+			e.printStackTrace(); // don't allow System.exit(0) to swallow exceptions
+		} finally {
+			testRunServer.close();
+		}
+	}
+
+	@Override
+	protected void init(String[] args) {
+		for (int i = 0; i < args.length - 1; i++) {
+			if (MAPPED_FILE_ARGUMENT.equals(args[i])) {
+				fMappedFile = new File(args[i + 1]);
+			}
+		}
+		super.init(args);
+	}
+
+	@Override
+	protected boolean connect() {
+		if (fMappedFile == null) {
+			return super.connect();
+		}
+		try {
+			fRing = MappedFileRing.open(fMappedFile);
+			fRing.attach();
+			return true;
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	@Override
+	public void sendMessage(String msg) {
+		if (fRing == null) {
+			super.sendMessage(msg);
+			return;
+		}
+		if (!fStopRequested && fRing.isStopRequested()) {
+			fStopRequested = true;
+			stop();
+		}
+		byte[] bytes = (msg + '\n').getBytes(StandardCharsets.UTF_8);
+		fRing.write(bytes, 0, bytes.length);
+	}
+
+	@Override
+	public void flush() {
+		if (fRing == null) {
+			super.flush();
+		}
+		// the ring publishes each message as soon as it is written
+	}
+
+	private void close() {
+		if (fRing != null) {
+			fRing.closeWriter();
+		}
+	}
+}
@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A single-producer single-consumer ring buffer of bytes in a memory-mapped
+ * file, shared by the test JVM, which writes the messages of its test runner,
+ * and the IDE, which reads them.
+ * <p>
+ * The positions of the writer and of the reader grow monotonically and are
+ * published with release/acquire semantics in the header of the file, each on
+ * its own cache line: exchanging bytes costs a copy and a memory fence, and no
+ * system call. The states of both sides are also in the header: the writer
+ * tells when it has attached and closed, the reader when it requests the test
+ * run to stop and when it has closed.
+ * </p>
+ * <p>
+ * This class is loaded in the test JVM and only depends on the JRE.
+ * </p>
+ */
+public final class MappedFileRing {
+
+	private static final int MAGIC = 0x55545242; // "UTRB"
+	private static final int VERSION = 1;
+
+	private static final int MAGIC_OFFSET = 0;
+	private static final int VERSION_OFFSET = 4;
+	private static final int CAPACITY_OFFSET = 8;
+	private static final int WRITE_POSITION_OFFSET = 64;
+	private static final int READ_POSITION_OFFSET = 128;
+	private static final int WRITER_STATE_OFFSET = 192;
+	private static final int READER_STATE_OFFSET = 256;
+	private static final int DATA_OFFSET = 320;
+
+	private static final long WRITER_ATTACHED = 1;
+	private static final long WRITER_CLOSED = 2;
+	private static final long READER_STOP_REQUESTED = 1;
+	private static final long READER_CLOSED = 2;
+
+	/**
+	 * The longest pause of a writer waiting for free space, in nanoseconds
+	 */
+	private static final long MAX_PARK_NANOS = 1_000_000L;
+
+	private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+			ByteOrder.nativeOrder());
+
+	private final MappedByteBuffer fBuffer;
+	private final int fCapacity;
+	private final int fMask;
+
+	private MappedFileRing(MappedByteBuffer buffer) throws IOException {
+		fBuffer = buffer;
+		fBuffer.order(ByteOrder.nativeOrder());
+		if (fBuffer.getInt(MAGIC_OFFSET) != MAGIC || fBuffer.getInt(VERSION_OFFSET) != VERSION) {
+			throw new IOException("Not a ring buffer file"); //$NON-NLS-1$
+		}
+		fCapacity = fBuffer.getInt(CAPACITY_OFFSET);
+		if (Integer.bitCount(fCapacity) != 1 || DATA_OFFSET + fCapacity > fBuffer.capacity()) {
+			throw new IOException("Invalid ring buffer capacity: " + fCapacity); //$NON-NLS-1$
+		}
+		fMask = fCapacity - 1;
+	}
+
+	/**
+	 * Creates a ring buffer file, overwriting its previous content
+	 *
+	 * @param file     the file
+	 * @param capacity the number of bytes of the ring, a power of 2
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void create(File file, int capacity) throws IOException {
+		if (Integer.bitCount(capacity) != 1) {
+			throw new IllegalArgumentException("Capacity is not a power of 2: " + capacity); //$NON-NLS-1$
+		}
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+			raf.setLength(0);
+			raf.setLength(DATA_OFFSET + capacity);
+			raf.seek(MAGIC_OFFSET);
+			ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.nativeOrder());
+			header.putInt(MAGIC).putInt(VERSION).putInt(capacity).flip();
+			raf.getChannel().write(header, MAGIC_OFFSET);
+		}
+	}
+
+	/**
+	 * Maps a ring buffer file created by {@link #create(File, int)}
+	 *
+	 * @param file the file
+	 * @return the ring buffer
+	 * @throws IOException if the file cannot be mapped or is not a ring buffer
+	 */
+	public static MappedFileRing open(File file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+				FileChannel channel = raf.getChannel()) {
+			// the mapping stays valid after the channel is closed
+			return new MappedFileRing(channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Tells the reader that the writer has attached to the ring
+	 */
+	public void attach() {
+		LONGS.setRelease(fBuffer, WRITER_STATE_OFFSET, WRITER_ATTACHED);
+	}
+
+	/**
+	 * Writes bytes, waiting while the ring is full. The bytes are dropped if the
+	 * reader has closed.
+	 *
+	 * @param bytes  the bytes to write
+	 * @param offset the offset of the first byte
+	 * @param length the number of bytes to write
+	 */
+	public void write(byte[] bytes, int offset, int length) {
+		long write = (long) LONGS.getOpaque(fBuffer, WRITE_POSITION_OFFSET);
+		long parkNanos = 1_000L;
+		while (length > 0) {
+			long free = fCapacity - (write - (long) LONGS.getAcquire(fBuffer, READ_POSITION_OFFSET));
+			if (free == 0) {
+				if ((long) LONGS.getAcquire(fBuffer, READER_STATE_OFFSET) == READER_CLOSED) {
+					return;
+				}
+				LockSupport.parkNanos(parkNanos);
+				parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+				continue;
+			}
+			int index = (int) (write & fMask);
+			int count = (int) Math.min(Math.min(free, length), fCapacity - index);
+			ByteBuffer data = fBuffer.duplicate();
+			data.position(DATA_OFFSET + index);
+			data.put(bytes, offset, count);
+			offset += count;
+			length -= count;
+			write += count;
+			LONGS.setRelease(fBuffer, WRITE_POSITION_OFFSET, write);
+			parkNanos = 1_000L;
+		}
+	}
+
+	/**
+	 * Tells the reader that the writer won't write anymore
+	 */
+	public void closeWriter() {
+		LONGS.setRelease(fBuffer, WRITER_STATE_OFFSET, WRITER_CLOSED);
+	}
+
+	/**
+	 * Tells whether the reader has requested the test run to stop
+	 *
+	 * @return <code>true</code> if the test run should stop
+	 */
+	public boolean isStopRequested() {
+		return (long) LONGS.getAcquire(fBuffer, READER_STATE_OFFSET) != 0;
+	}
+
+	/**
+	 * Tells whether the writer has attached to the ring
+	 *
+	 * @return <code>true</code> if the writer has attached
+	 */
+	public boolean isAttached() {
+		return (long) LONGS.getAcquire(fBuffer, WRITER_STATE_OFFSET) != 0;
+	}
+
+	/**
+	 * Reads the available bytes, without waiting
+	 *
+	 * @param destination the buffer to fill
+	 * @return the number of bytes read, or <code>-1</code> if the writer has
+	 *         closed and all its bytes have been read
+	 */
+	public int read(ByteBuffer destination) {
+		// read the state first, so that no byte written before closing is missed
+		boolean closed = (long) LONGS.getAcquire(fBuffer, WRITER_STATE_OFFSET) == WRITER_CLOSED;
+		long read = (long) LONGS.getOpaque(fBuffer, READ_POSITION_OFFSET);
+		long available = (long) LONGS.getAcquire(fBuffer, WRITE_POSITION_OFFSET) - read;
+		if (available == 0) {
+			return closed ? -1 : 0;
+		}
+		int total = 0;
+		while (available > 0 && destination.hasRemaining()) {
+			int index = (int) (read & fMask);
+			int count = (int) Math.min(Math.min(available, destination.remaining()), fCapacity - index);
+			ByteBuffer data = fBuffer.duplicate();
+			data.limit(DATA_OFFSET + index + count).position(DATA_OFFSET + index);
+			destination.put(data);
+			read += count;
+			available -= count;
+			total += count;
+		}
+		LONGS.setRelease(fBuffer, READ_POSITION_OFFSET, read);
+		return total;
+	}
+
+	/**
+	 * Requests the writer to stop the test run
+	 */
+	public void requestStop() {
+		LONGS.compareAndSet(fBuffer, READER_STATE_OFFSET, 0L, READER_STOP_REQUESTED);
+	}
+
+	/**
+	 * Tells the writer that the reader won't read anymore, so that it never waits
+	 * for free space
+	 */
+	public void closeReader() {
+		LONGS.setRelease(fBuffer, READER_STATE_OFFSET, READER_CLOSED);
+	}
+}
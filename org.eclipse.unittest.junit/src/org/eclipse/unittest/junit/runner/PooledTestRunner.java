@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.junit.runner;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+/**
+ * The main class of a test JVM kept alive by the IDE to run the tests of
+ * several launches, when launched with <code>-poolPort</code> <i>port</i>.
+ * <p>
+ * The test JVM connects to the control socket of the IDE and then runs the
+ * requests it reads from it, one at a time. A request is made of the main
+ * class of a test runner, e.g. the {@link MappedFileRemoteTestRunner} or the
+ * {@link BinaryTestRunner}, of the classpath of the tests and of the program
+ * arguments of the runner, which reports the test run through its own
+ * transport as in a test JVM of its own. The IDE is told when a run is done
+ * by a single byte.
+ * </p>
+ * <p>
+ * The classes of each run are loaded by a new class loader over the classpath
+ * of the request, closed after the run, so that the classes changed since the
+ * previous run are reloaded. The JVM itself, the classes of the JRE and their
+ * compiled code are kept: the IDE starts a new test JVM when the JVM options or
+ * the classpath change. The system properties and the threads left by the
+ * tests are not reset.
+ * </p>
+ * <p>
+ * This class is loaded in the test JVM and only depends on the JRE.
+ * </p>
+ */
+public final class PooledTestRunner {
+
+	/**
+	 * The program argument followed by the port of the control socket of the
+	 * IDE
+	 */
+	public static final String POOL_PORT_ARGUMENT = "-poolPort"; //$NON-NLS-1$
+
+	/**
+	 * The byte sent to the IDE when the tests of a request have been run
+	 */
+	public static final int RUN_DONE = 1;
+
+	/**
+	 * The name of the static method of the test runners which runs the tests
+	 * selected by its program arguments without exiting
+	 */
+	private static final String RUN_TESTS_METHOD = "runTests"; //$NON-NLS-1$
+
+	public static void main(String[] args) {
+		try {
+			int port = -1;
+			for (int i = 0; i < args.length - 1; i++) {
+				if (POOL_PORT_ARGUMENT.equals(args[i])) {
+					port = Integer.parseInt(args[i + 1]);
+				}
+			}
+			try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+				DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+				DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+				while (true) {
+					String mainType = in.readUTF();
+					URL[] classpath = new URL[in.readInt()];
+					for (int i = 0; i < classpath.length; i++) {
+						classpath[i] = new File(in.readUTF()).toURI().toURL();
+					}
+					String[] programArguments = new String[in.readInt()];
+					for (int i = 0; i < programArguments.length; i++) {
+						programArguments[i] = in.readUTF();
+					}
+					runTests(mainType, classpath, programArguments);
+					out.write(RUN_DONE);
+					out.flush();
+				}
+			}
+		} catch (EOFException e) {
+			// the IDE has released the test JVM
+		} catch (Throwable e) {
+			e.printStackTrace(); // don't allow System.exit(0) to swallow exceptions
+		} finally {
+			System.exit(0);
+		}
+	}
+
+	private static void runTests(String mainType, URL[] classpath, String[] programArguments) throws IOException {
+		Thread thread = Thread.currentThread();
+		ClassLoader contextClassLoader = thread.getContextClassLoader();
+		try (URLClassLoader loader = new URLClassLoader(classpath, ClassLoader.getPlatformClassLoader())) {
+			// the JUnit Platform loads the test classes with the context class loader
+			thread.setContextClassLoader(loader);
+			Class.forName(mainType, true, loader).getMethod(RUN_TESTS_METHOD, String[].class).invoke(null,
+					(Object) programArguments);
+		} catch (InvocationTargetException e) {
+			e.getCause().printStackTrace();
+		} catch (ReflectiveOperationException e) {
+			e.printStackTrace();
+		} finally {
+			thread.setContextClassLoader(contextClassLoader);
+		}
+	}
+}
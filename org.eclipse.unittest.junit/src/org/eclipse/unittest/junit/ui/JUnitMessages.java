@@ -140,6 +140,10 @@ public final class JUnitMessages extends NLS {
 
 	public static String JUnitLaunchConfigurationTab_label_keeprunning;
 
+	public static String JUnitLaunchConfigurationTab_label_reuseTestJvm;
+
+	public static String JUnitLaunchConfigurationTab_label_useBinaryProtocol;
+
 	public static String JUnitLaunchConfigurationTab_label_method;
 
 	public static String JUnitLaunchConfigurationTab_label_oneTest;
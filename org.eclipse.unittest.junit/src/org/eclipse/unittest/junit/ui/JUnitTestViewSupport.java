@@ -10,6 +10,7 @@
  *******************************************************************************/
 package org.eclipse.unittest.junit.ui;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -18,6 +19,10 @@ import java.util.stream.Collectors;
 
 import org.eclipse.unittest.junit.JUnitTestPlugin;
 import org.eclipse.unittest.junit.JUnitTestPlugin.JUnitVersion;
+import org.eclipse.unittest.junit.internal.launcher.MappedFileTransport;
+import org.eclipse.unittest.junit.internal.launcher.RemoteTestRunnerTransport;
+import org.eclipse.unittest.junit.internal.launcher.SocketTransport;
+import org.eclipse.unittest.junit.launcher.BinaryTestRunnerClient;
 import org.eclipse.unittest.junit.launcher.JUnitLaunchConfigurationDelegate;
 import org.eclipse.unittest.junit.launcher.JUnitRemoteTestRunnerClient;
 import org.eclipse.unittest.launcher.ITestRunnerClient;
@@ -246,8 +251,19 @@ public class JUnitTestViewSupport implements ITestViewSupport {
 
 	@Override
 	public ITestRunnerClient newTestRunnerClient(ITestRunSession session) {
-		String portAsString = session.getLaunch().getAttribute(JUnitLaunchConfigurationDelegate.ATTR_PORT);
-		return new JUnitRemoteTestRunnerClient(portAsString != null ? Integer.parseInt(portAsString) : -1, session);
+		ILaunch launch = session.getLaunch();
+		String mappedFile = launch.getAttribute(JUnitLaunchConfigurationDelegate.ATTR_MAPPED_FILE);
+		RemoteTestRunnerTransport transport;
+		if (mappedFile != null) {
+			transport = new MappedFileTransport(new File(mappedFile), launch::isTerminated);
+		} else {
+			String portAsString = launch.getAttribute(JUnitLaunchConfigurationDelegate.ATTR_PORT);
+			transport = new SocketTransport(portAsString != null ? Integer.parseInt(portAsString) : -1);
+		}
+		if (Boolean.parseBoolean(launch.getAttribute(JUnitLaunchConfigurationDelegate.ATTR_BINARY_PROTOCOL))) {
+			return new BinaryTestRunnerClient(transport, session);
+		}
+		return new JUnitRemoteTestRunnerClient(transport, session);
 	}
 
 	/**
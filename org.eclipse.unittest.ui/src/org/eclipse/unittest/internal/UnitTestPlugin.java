@@ -15,6 +15,7 @@ package org.eclipse.unittest.internal;
 
 import org.osgi.framework.BundleContext;
 
+import org.eclipse.unittest.internal.metrics.MetricsMBean;
 import org.eclipse.unittest.internal.model.UnitTestLaunchListener;
 import org.eclipse.unittest.internal.model.UnitTestModel;
 import org.eclipse.unittest.internal.ui.history.History;
@@ -80,6 +81,8 @@ public class UnitTestPlugin extends AbstractUIPlugin {
 	public void start(BundleContext context) throws Exception {
 		super.start(context);
 		UnitTestModel.getInstance().start();
+		MetricsMBean.register();
+		History.INSTANCE.scheduleRecovery();
 		DebugPlugin.getDefault().getLaunchManager().addLaunchListener(fLaunchListener);
 	}
 
@@ -88,6 +91,7 @@ public class UnitTestPlugin extends AbstractUIPlugin {
 		try {
 			InstanceScope.INSTANCE.getNode(UnitTestPlugin.PLUGIN_ID).flush();
 			UnitTestModel.getInstance().stop();
+			MetricsMBean.unregister();
 			DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(fLaunchListener);
 			History.INSTANCE.clear();
 		} finally {
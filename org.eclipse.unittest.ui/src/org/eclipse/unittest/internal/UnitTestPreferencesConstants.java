@@ -41,6 +41,27 @@ public class UnitTestPreferencesConstants {
 	 */
 	public static final String MAX_TEST_RUNS = UnitTestPlugin.PLUGIN_ID + ".max_test_runs"; //$NON-NLS-1$
 
+	/**
+	 * Maximum estimated heap size, in bytes, of the remembered test runs kept in
+	 * memory. Beyond it, the least recently viewed stopped test runs are swapped
+	 * out to the history.
+	 */
+	public static final String MAX_TEST_RUNS_HEAP_SIZE = UnitTestPlugin.PLUGIN_ID + ".max_test_runs_heap_size"; //$NON-NLS-1$
+
+	/**
+	 * Maximum size, in UTF-8 bytes, of a failure trace kept in memory. Beyond it,
+	 * the whole trace is written to a file, in which it can be paged through.
+	 */
+	public static final String MAX_FAILURE_TRACE_SIZE = UnitTestPlugin.PLUGIN_ID + ".max_failure_trace_size"; //$NON-NLS-1$
+
+	/**
+	 * Maximum size, in UTF-8 bytes, of an expected or actual result kept in
+	 * memory. Beyond it, the whole result is written to a file, in which it can be
+	 * paged through.
+	 */
+	public static final String MAX_COMPARISON_RESULT_SIZE = UnitTestPlugin.PLUGIN_ID
+			+ ".max_comparison_result_size"; //$NON-NLS-1$
+
 	private UnitTestPreferencesConstants() {
 		// no instance
 	}
@@ -178,12 +178,14 @@ public class TestRunHandler extends DefaultHandler {
 			break;
 		}
 		case IXMLTags.NODE_ERROR:
-			// TODO: multiple failures: https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
+			// multiple failures are recorded one by one, see
+			// https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
 			fStatus = Result.ERROR;
 			fFailureBuffer = new StringBuilder();
 			break;
 		case IXMLTags.NODE_FAILURE:
-			// TODO: multiple failures: https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
+			// multiple failures are recorded one by one, see
+			// https://bugs.eclipse.org/bugs/show_bug.cgi?id=125296
 			fStatus = Result.FAILURE;
 			fFailureBuffer = new StringBuilder();
 			break;
@@ -15,6 +15,8 @@
 package org.eclipse.unittest.internal.junitXmlReport;
 
 import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.List;
 
 import org.xml.sax.Attributes;
 import org.xml.sax.ContentHandler;
@@ -26,6 +28,7 @@ import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.AttributesImpl;
 
+import org.eclipse.unittest.internal.model.ModelMessages;
 import org.eclipse.unittest.internal.model.ProgressState;
 import org.eclipse.unittest.internal.model.TestCaseElement;
 import org.eclipse.unittest.internal.model.TestElement;
@@ -163,37 +166,45 @@ public class TestRunSessionSerializer implements XMLReader {
 	}
 
 	private void addFailure(TestElement testElement) throws SAXException {
-		FailureTrace failureTrace = testElement.getFailureTrace();
+		// the traces are only read back from the spill file here
+		List<FailureTrace> failureTraces = testElement.getFailureTraces();
 
 		if (testElement.isAssumptionFailure()) {
 			startElement(IXMLTags.NODE_SKIPPED, NO_ATTS);
-			if (failureTrace != null) {
+			for (FailureTrace failureTrace : failureTraces) {
 				addCharacters(failureTrace.getTrace());
 			}
 			endElement(IXMLTags.NODE_SKIPPED);
 
-		} else if (failureTrace != null) {
-			AttributesImpl failureAtts = new AttributesImpl();
-//				addCDATA(failureAtts, IXMLTags.ATTR_MESSAGE, xx);
-//				addCDATA(failureAtts, IXMLTags.ATTR_TYPE, xx);
+		} else {
 			String failureKind = testElement.getTestResult(false) == Result.ERROR ? IXMLTags.NODE_ERROR
 					: IXMLTags.NODE_FAILURE;
-			startElement(failureKind, failureAtts);
-			String expected = failureTrace.getExpected();
-			String actual = failureTrace.getActual();
-			if (expected != null) {
-				startElement(IXMLTags.NODE_EXPECTED, NO_ATTS);
-				addCharacters(expected);
-				endElement(IXMLTags.NODE_EXPECTED);
-			}
-			if (actual != null) {
-				startElement(IXMLTags.NODE_ACTUAL, NO_ATTS);
-				addCharacters(actual);
-				endElement(IXMLTags.NODE_ACTUAL);
+			for (int i = 0; i < failureTraces.size(); i++) {
+				FailureTrace failureTrace = failureTraces.get(i);
+				AttributesImpl failureAtts = new AttributesImpl();
+//					addCDATA(failureAtts, IXMLTags.ATTR_MESSAGE, xx);
+//					addCDATA(failureAtts, IXMLTags.ATTR_TYPE, xx);
+				startElement(failureKind, failureAtts);
+				String expected = failureTrace.getExpected();
+				String actual = failureTrace.getActual();
+				if (expected != null) {
+					startElement(IXMLTags.NODE_EXPECTED, NO_ATTS);
+					addCharacters(expected);
+					endElement(IXMLTags.NODE_EXPECTED);
+				}
+				if (actual != null) {
+					startElement(IXMLTags.NODE_ACTUAL, NO_ATTS);
+					addCharacters(actual);
+					endElement(IXMLTags.NODE_ACTUAL);
+				}
+				String trace = failureTrace.getTrace();
+				if (i == failureTraces.size() - 1 && testElement.getOmittedFailureCount() > 0) {
+					trace += MessageFormat.format(ModelMessages.TestElement_failures_omitted,
+							Integer.valueOf(testElement.getOmittedFailureCount()));
+				}
+				addCharacters(trace);
+				endElement(failureKind);
 			}
-			String trace = failureTrace.getTrace();
-			addCharacters(trace);
-			endElement(failureKind);
 		}
 	}
 
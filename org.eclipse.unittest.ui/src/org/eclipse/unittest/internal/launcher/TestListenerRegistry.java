@@ -13,14 +13,23 @@
  *******************************************************************************/
 package org.eclipse.unittest.internal.launcher;
 
-import org.eclipse.unittest.internal.ui.UITestRunListener;
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.launcher.TestRunListener;
 
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
 
 /**
- * Test View Support registry
+ * Test Run Listener registry
  */
 public class TestListenerRegistry {
+	/**
+	 * An identifier of Test Run Listeners extension point
+	 */
+	public static final String ID_EXTENSION_POINT_TEST_RUN_LISTENERS = UnitTestPlugin.PLUGIN_ID + "." //$NON-NLS-1$
+			+ "testRunListeners"; //$NON-NLS-1$
 
 	/**
 	 * Returns a {@link TestListenerRegistry} object instance
@@ -41,6 +50,7 @@ public class TestListenerRegistry {
 	 * List storing the registered test run listeners
 	 */
 	private ListenerList<TestRunListener> fUnitTestRunListeners = new ListenerList<>();
+	private boolean fLoaded;
 
 	private TestListenerRegistry() {
 	}
@@ -54,13 +64,22 @@ public class TestListenerRegistry {
 	}
 
 	/**
-	 * Initializes TestRun Listener extensions
+	 * Initializes TestRun Listener extensions. The contributed listeners are only
+	 * instantiated when they are notified for the first time.
 	 */
 	private synchronized void loadUnitTestRunListeners() {
-		if (!fUnitTestRunListeners.isEmpty()) {
+		if (fLoaded) {
 			return;
 		}
-		fUnitTestRunListeners.add(new UITestRunListener());
+		fLoaded = true;
+		IExtensionPoint point = Platform.getExtensionRegistry()
+				.getExtensionPoint(ID_EXTENSION_POINT_TEST_RUN_LISTENERS);
+		if (point == null) {
+			return;
+		}
+		for (IConfigurationElement element : point.getConfigurationElements()) {
+			fUnitTestRunListeners.add(new TestRunListenerProxy(element));
+		}
 	}
 
 }
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.launcher;
+
+import java.util.function.Consumer;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.launcher.TestRunEvent;
+import org.eclipse.unittest.launcher.TestRunListener;
+import org.eclipse.unittest.model.ITestCaseElement;
+import org.eclipse.unittest.model.ITestRunSession;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IConfigurationElement;
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.SafeRunner;
+
+/**
+ * A test run listener contributed to the <code>testRunListeners</code> extension
+ * point. The contributed class, and thereby its bundle, is only loaded when the
+ * first notification is sent.
+ */
+final class TestRunListenerProxy extends TestRunListener {
+
+	private static final String CLASS = "class"; //$NON-NLS-1$
+
+	private final IConfigurationElement fElement;
+	private TestRunListener fListener;
+	private boolean fFailed;
+
+	/**
+	 * Constructs a proxy for a contributed test run listener
+	 *
+	 * @param element the <code>testRunListener</code> configuration element
+	 */
+	TestRunListenerProxy(IConfigurationElement element) {
+		fElement = element;
+	}
+
+	private synchronized TestRunListener getListener() {
+		if (fListener == null && !fFailed) {
+			try {
+				fListener = (TestRunListener) fElement.createExecutableExtension(CLASS);
+			} catch (CoreException | ClassCastException e) {
+				// do not retry on every notification
+				fFailed = true;
+				UnitTestPlugin.log(e);
+			}
+		}
+		return fListener;
+	}
+
+	/**
+	 * Notifies the contributed listener, logging what it throws
+	 *
+	 * @param notification the call of the listener
+	 */
+	private void notifyListener(Consumer<TestRunListener> notification) {
+		TestRunListener listener = getListener();
+		if (listener != null) {
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void run() throws Exception {
+					notification.accept(listener);
+				}
+
+				@Override
+				public void handleException(Throwable exception) {
+					UnitTestPlugin.log(exception);
+				}
+			});
+		}
+	}
+
+	@Override
+	public void sessionLaunched(ITestRunSession session) {
+		notifyListener(listener -> listener.sessionLaunched(session));
+	}
+
+	@Override
+	public void sessionStarted(ITestRunSession session) {
+		notifyListener(listener -> listener.sessionStarted(session));
+	}
+
+	@Override
+	public void sessionFinished(ITestRunSession session) {
+		notifyListener(listener -> listener.sessionFinished(session));
+	}
+
+	@Override
+	public void testCaseStarted(ITestCaseElement testCaseElement) {
+		notifyListener(listener -> listener.testCaseStarted(testCaseElement));
+	}
+
+	@Override
+	public void testCaseFinished(ITestCaseElement testCaseElement) {
+		notifyListener(listener -> listener.testCaseFinished(testCaseElement));
+	}
+
+	@Override
+	public void handleEvent(TestRunEvent event) {
+		notifyListener(listener -> listener.handleEvent(event));
+	}
+
+	@Override
+	public String toString() {
+		return fElement.getAttribute(CLASS);
+	}
+}
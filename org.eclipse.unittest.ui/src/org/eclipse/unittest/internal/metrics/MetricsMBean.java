@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+
+/**
+ * Exposes the values of the {@link MetricsRegistry} as read-only attributes of
+ * the <code>org.eclipse.unittest:type=Metrics</code> MBean of the platform MBean
+ * server, e.g. to watch them with JConsole or VisualVM. The attributes follow
+ * the metrics registered when the MBean info is requested.
+ */
+public final class MetricsMBean implements DynamicMBean {
+
+	private static final String OBJECT_NAME = "org.eclipse.unittest:type=Metrics"; //$NON-NLS-1$
+
+	private final MetricsRegistry fRegistry;
+
+	private MetricsMBean(MetricsRegistry registry) {
+		fRegistry = registry;
+	}
+
+	/**
+	 * Registers the MBean of the default registry on the platform MBean server
+	 * (called by the {@link UnitTestPlugin} on startup).
+	 */
+	public static void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(new MetricsMBean(MetricsRegistry.getDefault()), name);
+			}
+		} catch (JMException | SecurityException e) {
+			UnitTestPlugin.log(e);
+		}
+	}
+
+	/**
+	 * Unregisters the MBean from the platform MBean server (called by the
+	 * {@link UnitTestPlugin} on shutdown).
+	 */
+	public static void unregister() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (server.isRegistered(name)) {
+				server.unregisterMBean(name);
+			}
+		} catch (JMException | SecurityException e) {
+			UnitTestPlugin.log(e);
+		}
+	}
+
+	@Override
+	public Object getAttribute(String attribute) throws AttributeNotFoundException {
+		Number value = fRegistry.getValues().get(attribute);
+		if (value == null) {
+			throw new AttributeNotFoundException(attribute);
+		}
+		return value;
+	}
+
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		Map<String, Number> values = fRegistry.getValues();
+		AttributeList list = new AttributeList(attributes.length);
+		for (String attribute : attributes) {
+			Number value = values.get(attribute);
+			if (value != null) {
+				list.add(new Attribute(attribute, value));
+			}
+		}
+		return list;
+	}
+
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException("Read-only attribute: " + attribute.getName()); //$NON-NLS-1$
+	}
+
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		// all the attributes are read-only
+		return new AttributeList();
+	}
+
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		Map<String, Number> values = fRegistry.getValues();
+		MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+		int i = 0;
+		for (Map.Entry<String, Number> entry : values.entrySet()) {
+			attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+					entry.getKey(), true, false, false);
+		}
+		return new MBeanInfo(getClass().getName(), "Unit test metrics", attributes, null, null, null); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A registry of named counters, timers and gauges measuring the unit test
+ * infrastructure: the events received from the test runners, the parsing of
+ * their messages, the delivery of the events to the listeners, the updates of
+ * the Test Runner view, the sessions kept in memory and the history files.
+ * <p>
+ * The metrics are cheap enough to stay enabled: counters and timers are
+ * updated without locking, gauges are only evaluated when the values are read,
+ * e.g. through the {@link MetricsMBean}.
+ * </p>
+ */
+public final class MetricsRegistry {
+
+	/**
+	 * The minimum time in nanoseconds between two samples of the rate of a
+	 * counter
+	 */
+	private static final long RATE_INTERVAL = 1_000_000_000L;
+
+	private static final MetricsRegistry fgDefault = new MetricsRegistry();
+
+	/**
+	 * A monotonic counter, which also computes the rate of its increments
+	 */
+	public static final class Counter {
+		private final LongAdder fCount = new LongAdder();
+
+		private long fSampleTime = System.nanoTime();
+		private long fSampleCount;
+		private double fRate;
+
+		/**
+		 * Increments this counter by one
+		 */
+		public void increment() {
+			fCount.increment();
+		}
+
+		/**
+		 * Increments this counter
+		 *
+		 * @param delta the value to add
+		 */
+		public void add(long delta) {
+			fCount.add(delta);
+		}
+
+		/**
+		 * Returns the value of this counter
+		 *
+		 * @return the sum of the increments
+		 */
+		public long getCount() {
+			return fCount.sum();
+		}
+
+		/**
+		 * Returns the number of increments per second, averaged since the previous
+		 * sample taken at least a second ago
+		 *
+		 * @return the rate of this counter per second
+		 */
+		public synchronized double getRate() {
+			long now = System.nanoTime();
+			long elapsed = now - fSampleTime;
+			if (elapsed >= RATE_INTERVAL) {
+				long count = getCount();
+				fRate = (count - fSampleCount) * 1e9 / elapsed;
+				fSampleCount = count;
+				fSampleTime = now;
+			}
+			return fRate;
+		}
+	}
+
+	/**
+	 * A timer, recording the number, the total and the maximum of durations
+	 */
+	public static final class Timer {
+		private final LongAdder fCount = new LongAdder();
+		private final LongAdder fTotal = new LongAdder();
+		private final AtomicLong fMax = new AtomicLong();
+
+		/**
+		 * Records a duration
+		 *
+		 * @param nanos a duration in nanoseconds
+		 */
+		public void record(long nanos) {
+			fCount.increment();
+			fTotal.add(nanos);
+			fMax.accumulateAndGet(nanos, Math::max);
+		}
+
+		/**
+		 * Records the duration elapsed since a start time
+		 *
+		 * @param startTime the {@link System#nanoTime()} at the start
+		 */
+		public void recordSince(long startTime) {
+			record(System.nanoTime() - startTime);
+		}
+
+		/**
+		 * Returns the number of recorded durations
+		 *
+		 * @return the number of recorded durations
+		 */
+		public long getCount() {
+			return fCount.sum();
+		}
+
+		/**
+		 * Returns the sum of the recorded durations
+		 *
+		 * @return the total duration in nanoseconds
+		 */
+		public long getTotalNanos() {
+			return fTotal.sum();
+		}
+
+		/**
+		 * Returns the longest recorded duration
+		 *
+		 * @return the maximum duration in nanoseconds
+		 */
+		public long getMaxNanos() {
+			return fMax.get();
+		}
+
+		/**
+		 * Returns the mean of the recorded durations
+		 *
+		 * @return the mean duration in nanoseconds, <code>0</code> if no duration
+		 *         has been recorded
+		 */
+		public double getMeanNanos() {
+			long count = getCount();
+			return count == 0 ? 0 : (double) getTotalNanos() / count;
+		}
+	}
+
+	private final Map<String, Object> fMetrics = new ConcurrentHashMap<>();
+
+	private MetricsRegistry() {
+	}
+
+	/**
+	 * Returns the registry shared by the unit test bundles
+	 *
+	 * @return the default registry
+	 */
+	public static MetricsRegistry getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Returns the counter registered under a name, registering a new one if
+	 * needed
+	 *
+	 * @param name the name of the counter
+	 * @return the counter
+	 */
+	public Counter counter(String name) {
+		return (Counter) fMetrics.computeIfAbsent(name, key -> new Counter());
+	}
+
+	/**
+	 * Returns the timer registered under a name, registering a new one if needed
+	 *
+	 * @param name the name of the timer
+	 * @return the timer
+	 */
+	public Timer timer(String name) {
+		return (Timer) fMetrics.computeIfAbsent(name, key -> new Timer());
+	}
+
+	/**
+	 * Registers a counter owned by the caller under a name, replacing the metric
+	 * previously registered under this name
+	 *
+	 * @param name    the name of the counter
+	 * @param counter the counter
+	 */
+	public void register(String name, Counter counter) {
+		fMetrics.put(name, counter);
+	}
+
+	/**
+	 * Registers a gauge under a name, replacing the metric previously registered
+	 * under this name. The gauge is evaluated whenever the metrics are read, and
+	 * should be cheap and thread-safe.
+	 *
+	 * @param name  the name of the gauge
+	 * @param gauge the supplier of the current value
+	 */
+	public void gauge(String name, LongSupplier gauge) {
+		fMetrics.put(name, gauge);
+	}
+
+	/**
+	 * Unregisters the metrics whose name starts with a prefix, e.g. the metrics
+	 * of a test run session which has been removed
+	 *
+	 * @param prefix a name prefix
+	 */
+	public void removeAll(String prefix) {
+		fMetrics.keySet().removeIf(name -> name.startsWith(prefix));
+	}
+
+	/**
+	 * Returns the current values of the registered metrics, sorted by name. A
+	 * counter <code>c</code> has the values <code>c</code> and
+	 * <code>c.rate</code>, a timer <code>t</code> has the values
+	 * <code>t.count</code>, <code>t.meanMicros</code> and
+	 * <code>t.maxMicros</code>, a gauge has a single value under its name.
+	 *
+	 * @return a new map from value names to values
+	 */
+	public Map<String, Number> getValues() {
+		Map<String, Number> values = new TreeMap<>();
+		fMetrics.forEach((name, metric) -> {
+			if (metric instanceof Counter) {
+				Counter counter = (Counter) metric;
+				values.put(name, Long.valueOf(counter.getCount()));
+				values.put(name + ".rate", Double.valueOf(counter.getRate())); //$NON-NLS-1$
+			} else if (metric instanceof Timer) {
+				Timer timer = (Timer) metric;
+				values.put(name + ".count", Long.valueOf(timer.getCount())); //$NON-NLS-1$
+				values.put(name + ".meanMicros", Double.valueOf(timer.getMeanNanos() / 1000)); //$NON-NLS-1$
+				values.put(name + ".maxMicros", Long.valueOf(timer.getMaxNanos() / 1000)); //$NON-NLS-1$
+			} else {
+				values.put(name, Long.valueOf(((LongSupplier) metric).getAsLong()));
+			}
+		});
+		return values;
+	}
+}
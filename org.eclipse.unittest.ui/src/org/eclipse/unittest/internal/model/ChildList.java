@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * The children of a {@link TestSuiteElement}.
+ * <p>
+ * The children are stored in append-only chunks whose sizes double, so adding
+ * a child never copies the already added ones. Every modification publishes a
+ * new immutable snapshot that shares the chunks with the previous ones: readers
+ * get a consistent, unmodifiable view of the children at the time of the call
+ * without locking or copying, while the (single) writer never waits for
+ * readers.
+ * </p>
+ */
+final class ChildList {
+
+	private static final int MIN_FIRST_CHUNK_SIZE = 4;
+	private static final int MAX_FIRST_CHUNK_SIZE = 1024;
+
+	private static final TestElement[][] NO_CHUNKS = new TestElement[0][];
+
+	/**
+	 * An immutable view of the children added up to a given point in time
+	 */
+	static final class Snapshot extends AbstractList<TestElement> implements RandomAccess {
+		private final TestElement[][] fChunks;
+		private final int fFirstChunkSize;
+		private final int fSize;
+
+		Snapshot(TestElement[][] chunks, int firstChunkSize, int size) {
+			fChunks = chunks;
+			fFirstChunkSize = firstChunkSize;
+			fSize = size;
+		}
+
+		@Override
+		public TestElement get(int index) {
+			if (index < 0 || index >= fSize) {
+				throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fSize); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			// chunk k holds first * 2^k elements, starting at first * (2^k - 1)
+			int chunk = 31 - Integer.numberOfLeadingZeros(index / fFirstChunkSize + 1);
+			return fChunks[chunk][index - fFirstChunkSize * ((1 << chunk) - 1)];
+		}
+
+		@Override
+		public int size() {
+			return fSize;
+		}
+
+		/**
+		 * Returns the last element of this snapshot
+		 *
+		 * @return the last element, or <code>null</code> if empty
+		 */
+		TestElement getLast() {
+			return fSize == 0 ? null : get(fSize - 1);
+		}
+	}
+
+	private final int fFirstChunkSize;
+	private volatile Snapshot fSnapshot;
+
+	/**
+	 * Constructs an empty children list
+	 *
+	 * @param expectedSize the expected number of children
+	 */
+	ChildList(int expectedSize) {
+		fFirstChunkSize = Math.min(Math.max(expectedSize, MIN_FIRST_CHUNK_SIZE), MAX_FIRST_CHUNK_SIZE);
+		fSnapshot = new Snapshot(NO_CHUNKS, fFirstChunkSize, 0);
+	}
+
+	/**
+	 * Returns a snapshot of the current children
+	 *
+	 * @return an unmodifiable list of the children at the time of the call
+	 */
+	Snapshot snapshot() {
+		return fSnapshot;
+	}
+
+	/**
+	 * Returns the current number of children
+	 *
+	 * @return the current number of children
+	 */
+	int size() {
+		return fSnapshot.fSize;
+	}
+
+	/**
+	 * Appends a child
+	 *
+	 * @param child a child element
+	 */
+	synchronized void add(TestElement child) {
+		fSnapshot = append(fSnapshot, child);
+	}
+
+	/**
+	 * Removes a child. As the chunks are append-only, this rebuilds them.
+	 *
+	 * @param child a child element
+	 * @return <code>true</code> if the child was found and removed
+	 */
+	synchronized boolean remove(TestElement child) {
+		Snapshot current = fSnapshot;
+		int index = current.indexOf(child);
+		if (index == -1) {
+			return false;
+		}
+		Snapshot rebuilt = new Snapshot(NO_CHUNKS, fFirstChunkSize, 0);
+		for (int i = 0; i < current.size(); i++) {
+			if (i != index) {
+				rebuilt = append(rebuilt, current.get(i));
+			}
+		}
+		fSnapshot = rebuilt;
+		return true;
+	}
+
+	private static Snapshot append(Snapshot snapshot, TestElement child) {
+		int firstChunkSize = snapshot.fFirstChunkSize;
+		int size = snapshot.fSize;
+		TestElement[][] chunks = snapshot.fChunks;
+		int chunk = 31 - Integer.numberOfLeadingZeros(size / firstChunkSize + 1);
+		if (chunk == chunks.length) {
+			TestElement[][] grown = new TestElement[chunk + 1][];
+			System.arraycopy(chunks, 0, grown, 0, chunks.length);
+			grown[chunk] = new TestElement[firstChunkSize << chunk];
+			chunks = grown;
+		}
+		// slots beyond the size of a snapshot are never read through it, so the
+		// chunks can be shared with the older snapshots
+		chunks[chunk][size - firstChunkSize * ((1 << chunk) - 1)] = child;
+		return new Snapshot(chunks, firstChunkSize, size + 1);
+	}
+}
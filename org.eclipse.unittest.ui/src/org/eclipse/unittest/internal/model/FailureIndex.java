@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * An ordered index of the failed test elements of a test run session, i.e. of
+ * the elements whose own status (not including the status of their children)
+ * is an error or a failure.
+ * <p>
+ * The failures are kept sorted in the order in which a depth-first traversal of
+ * the test tree visits them, so that the next and previous failures of any
+ * element are found in logarithmic time. The runner order (the order in which
+ * the elements were added) is always maintained; one additional order of the
+ * siblings, e.g. the order of a sorted viewer, can be requested and is then
+ * maintained as well until another one is requested.
+ * </p>
+ * <p>
+ * The index is updated by the model when the status of an element changes, and
+ * can be queried from any thread.
+ * </p>
+ */
+public final class FailureIndex {
+
+	/**
+	 * A position right after the last descendant of an element in a depth-first
+	 * traversal, used to look up the last failure inside a subtree
+	 */
+	private static final class SubtreeEnd {
+		final TestElement fRoot;
+
+		SubtreeEnd(TestElement root) {
+			fRoot = root;
+		}
+	}
+
+	/**
+	 * Orders the failures and the subtree ends in depth-first order, using a
+	 * sibling order to order the children of a suite
+	 */
+	private static final class DepthFirstOrder implements Comparator<Object> {
+		final Comparator<? super TestElement> fSiblingOrder;
+
+		DepthFirstOrder(Comparator<? super TestElement> siblingOrder) {
+			fSiblingOrder = siblingOrder;
+		}
+
+		@Override
+		public int compare(Object o1, Object o2) {
+			TestElement e1 = o1 instanceof SubtreeEnd ? ((SubtreeEnd) o1).fRoot : (TestElement) o1;
+			TestElement e2 = o2 instanceof SubtreeEnd ? ((SubtreeEnd) o2).fRoot : (TestElement) o2;
+			int end1 = o1 instanceof SubtreeEnd ? 1 : 0;
+			int end2 = o2 instanceof SubtreeEnd ? 1 : 0;
+			if (e1 == e2) {
+				return end1 - end2;
+			}
+			int depth1 = depth(e1);
+			int depth2 = depth(e2);
+			TestElement a1 = e1;
+			TestElement a2 = e2;
+			for (int i = depth1; i > depth2; i--) {
+				a1 = a1.getParent();
+			}
+			for (int i = depth2; i > depth1; i--) {
+				a2 = a2.getParent();
+			}
+			if (a1 == a2) {
+				// one element is an ancestor of the other: the ancestor comes first, the end
+				// of its subtree last
+				return depth1 < depth2 ? 2 * end1 - 1 : 1 - 2 * end2;
+			}
+			while (a1.getParent() != a2.getParent()) {
+				a1 = a1.getParent();
+				a2 = a2.getParent();
+			}
+			int result = fSiblingOrder != null ? fSiblingOrder.compare(a1, a2) : 0;
+			return result != 0 ? result : Integer.compare(a1.fSiblingOrdinal, a2.fSiblingOrdinal);
+		}
+
+		private static int depth(TestElement element) {
+			int depth = 0;
+			for (TestElement parent = element.getParent(); parent != null; parent = parent.getParent()) {
+				depth++;
+			}
+			return depth;
+		}
+	}
+
+	private final NavigableSet<Object> fRunnerOrder = new TreeSet<>(new DepthFirstOrder(null));
+
+	private Comparator<? super TestElement> fSiblingOrder;
+	private NavigableSet<Object> fSorted;
+
+	/**
+	 * Adds or removes an element, after a change of its own status
+	 *
+	 * @param element a test element
+	 * @param failed  <code>true</code> if the own status of the element is an
+	 *                error or a failure
+	 */
+	synchronized void update(TestElement element, boolean failed) {
+		if (failed) {
+			fRunnerOrder.add(element);
+			if (fSorted != null) {
+				fSorted.add(element);
+			}
+		} else {
+			fRunnerOrder.remove(element);
+			if (fSorted != null) {
+				fSorted.remove(element);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of failures
+	 *
+	 * @return the number of failures
+	 */
+	public synchronized int size() {
+		return fRunnerOrder.size();
+	}
+
+	/**
+	 * Returns the first or the last failure
+	 *
+	 * @param first        <code>true</code> for the first failure,
+	 *                     <code>false</code> for the last one
+	 * @param siblingOrder the order of the siblings, or <code>null</code> for the
+	 *                     runner order
+	 * @return a failed test element, or <code>null</code> if there is no failure
+	 */
+	public synchronized TestElement getFirst(boolean first, Comparator<? super TestElement> siblingOrder) {
+		NavigableSet<Object> failures = getFailureSet(siblingOrder);
+		if (failures.isEmpty()) {
+			return null;
+		}
+		return (TestElement) (first ? failures.first() : failures.last());
+	}
+
+	/**
+	 * Returns the failure following or preceding an element in a depth-first
+	 * traversal of the test tree. Going forward from a suite, its own failed
+	 * descendants come first; going backward from a suite, its last failed
+	 * descendant comes first.
+	 *
+	 * @param element      a test element
+	 * @param next         <code>true</code> for the next failure,
+	 *                     <code>false</code> for the previous one
+	 * @param siblingOrder the order of the siblings, or <code>null</code> for the
+	 *                     runner order
+	 * @return a failed test element, or <code>null</code> if there is none
+	 */
+	public synchronized TestElement getNext(TestElement element, boolean next,
+			Comparator<? super TestElement> siblingOrder) {
+		NavigableSet<Object> failures = getFailureSet(siblingOrder);
+		if (next) {
+			return (TestElement) failures.higher(element);
+		}
+		Object previous = failures.lower(new SubtreeEnd(element));
+		if (previous == element) {
+			previous = failures.lower(element);
+		}
+		return (TestElement) previous;
+	}
+
+	/**
+	 * Returns all the failures
+	 *
+	 * @param siblingOrder the order of the siblings, or <code>null</code> for the
+	 *                     runner order
+	 * @return a new list of the failed test elements, in depth-first order
+	 */
+	public synchronized List<TestElement> getFailures(Comparator<? super TestElement> siblingOrder) {
+		List<TestElement> failures = new ArrayList<>(fRunnerOrder.size());
+		for (Object failure : getFailureSet(siblingOrder)) {
+			failures.add((TestElement) failure);
+		}
+		return failures;
+	}
+
+	private NavigableSet<Object> getFailureSet(Comparator<? super TestElement> siblingOrder) {
+		if (siblingOrder == null) {
+			return fRunnerOrder;
+		}
+		if (siblingOrder != fSiblingOrder) {
+			fSorted = new TreeSet<>(new DepthFirstOrder(siblingOrder));
+			fSorted.addAll(fRunnerOrder);
+			fSiblingOrder = siblingOrder;
+		}
+		return fSorted;
+	}
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.util.Arrays;
+
+/**
+ * The failures reported for a test element, in reporting order.
+ * <p>
+ * The list is append-only and bounded: beyond {@link #MAX_FAILURES}, further
+ * failures are only counted. It is written by a single thread and can be read
+ * from any thread.
+ * </p>
+ */
+final class FailureList {
+
+	/**
+	 * The maximum number of failures recorded per test element
+	 */
+	static final int MAX_FAILURES = 100;
+
+	private volatile FailureTraceStore.Handle[] fHandles = new FailureTraceStore.Handle[1];
+	private volatile int fSize;
+	private volatile int fReportedCount;
+
+	/**
+	 * Constructs a failure list
+	 *
+	 * @param first the first failure
+	 */
+	FailureList(FailureTraceStore.Handle first) {
+		add(first);
+	}
+
+	/**
+	 * Indicates if a new failure would be recorded, or only counted
+	 *
+	 * @return <code>true</code> if the list is not full yet
+	 */
+	boolean canRecord() {
+		return fSize < MAX_FAILURES;
+	}
+
+	/**
+	 * Appends a failure. If the list is full, the failure is only counted.
+	 *
+	 * @param handle a failure, or <code>null</code> to only count it
+	 */
+	void add(FailureTraceStore.Handle handle) {
+		int size = fSize;
+		if (handle != null && size < MAX_FAILURES) {
+			FailureTraceStore.Handle[] handles = fHandles;
+			if (size == handles.length) {
+				handles = Arrays.copyOf(handles, Math.min(size * 2, MAX_FAILURES));
+				fHandles = handles;
+			}
+			handles[size] = handle;
+			fSize = size + 1;
+		}
+		fReportedCount++;
+	}
+
+	/**
+	 * Returns the recorded failures
+	 *
+	 * @return a new array of the recorded failures
+	 */
+	FailureTraceStore.Handle[] toArray() {
+		int size = fSize;
+		return Arrays.copyOf(fHandles, size);
+	}
+
+	/**
+	 * Returns the first failure
+	 *
+	 * @return the first recorded failure
+	 */
+	FailureTraceStore.Handle getFirst() {
+		return fHandles[0];
+	}
+
+	/**
+	 * Returns the number of failures reported but not recorded
+	 *
+	 * @return the number of omitted failures
+	 */
+	int getOmittedCount() {
+		return fReportedCount - fSize;
+	}
+}
@@ -0,0 +1,290 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
+import org.eclipse.unittest.internal.trace.SpilledText;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+
+/**
+ * A store for the failure traces of the test elements of a test run session.
+ * <p>
+ * The traces are compressed and appended to a spill file, and the test elements
+ * only keep a {@link Handle} to their trace: the content is read back when it
+ * is actually displayed or exported. The few most recently read traces are
+ * cached, as a failure is usually shown several times in a row. If the spill
+ * file cannot be written, the traces are kept in memory.
+ * </p>
+ * <p>
+ * The spill file is deleted when the store becomes unreachable, along with the
+ * files of the {@link SpilledText texts too large to be kept in memory} of the
+ * stored traces.
+ * </p>
+ */
+final class FailureTraceStore {
+
+	private static final int CACHE_SIZE = 16;
+
+	private static final int HAS_TRACE = 1;
+	private static final int HAS_EXPECTED = 1 << 1;
+	private static final int HAS_ACTUAL = 1 << 2;
+	private static final int HAS_SPILLED_TRACE = 1 << 3;
+	private static final int HAS_SPILLED_EXPECTED = 1 << 4;
+	private static final int HAS_SPILLED_ACTUAL = 1 << 5;
+
+	private static final Cleaner CLEANER = Cleaner.create();
+
+	/**
+	 * A reference to a stored failure trace
+	 */
+	static final class Handle {
+		final long fOffset;
+		final int fLength;
+		final boolean fComparisonFailure;
+		/**
+		 * The trace, if it could not be spilled
+		 */
+		final FailureTrace fTrace;
+
+		Handle(long offset, int length, boolean comparisonFailure, FailureTrace trace) {
+			fOffset = offset;
+			fLength = length;
+			fComparisonFailure = comparisonFailure;
+			fTrace = trace;
+		}
+
+		/**
+		 * Indicates if the trace is a comparison failure, without loading it
+		 *
+		 * @return <code>true</code> in case of comparison failure
+		 */
+		boolean isComparisonFailure() {
+			return fComparisonFailure;
+		}
+	}
+
+	/**
+	 * Closes and deletes the spill file and the files of the spilled texts, must
+	 * not reference the store
+	 */
+	private static final class SpillFile implements Runnable {
+		final Path fPath;
+		final FileChannel fChannel;
+		final List<Path> fSpilledTexts = Collections.synchronizedList(new ArrayList<>());
+
+		SpillFile(Path path, FileChannel channel) {
+			fPath = path;
+			fChannel = channel;
+		}
+
+		@Override
+		public void run() {
+			try {
+				fChannel.close();
+				Files.deleteIfExists(fPath);
+				synchronized (fSpilledTexts) {
+					for (Path spilledText : fSpilledTexts) {
+						Files.deleteIfExists(spilledText);
+					}
+				}
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+			}
+		}
+	}
+
+	private SpillFile fSpillFile;
+	private boolean fSpillFailed;
+	private long fSize;
+	private volatile long fHeapSize;
+
+	private final Map<Handle, FailureTrace> fCache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Handle, FailureTrace> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Stores a failure trace
+	 *
+	 * @param trace a failure trace
+	 * @return a handle to load the trace
+	 */
+	synchronized Handle put(FailureTrace trace) {
+		boolean comparisonFailure = trace.isComparisonFailure();
+		if (!fSpillFailed) {
+			try {
+				byte[] record = compress(trace);
+				SpillFile spillFile = getSpillFile();
+				addSpilledText(spillFile, SpilledFailureTrace.getSpilledTrace(trace));
+				addSpilledText(spillFile, SpilledFailureTrace.getSpilledExpected(trace));
+				addSpilledText(spillFile, SpilledFailureTrace.getSpilledActual(trace));
+				FileChannel channel = spillFile.fChannel;
+				long offset = fSize;
+				ByteBuffer buffer = ByteBuffer.wrap(record);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer, offset + buffer.position());
+				}
+				fSize += record.length;
+				return new Handle(offset, record.length, comparisonFailure, null);
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+				fSpillFailed = true;
+			}
+		}
+		fHeapSize += length(trace.getTrace()) + length(trace.getExpected()) + length(trace.getActual());
+		return new Handle(-1, 0, comparisonFailure, trace);
+	}
+
+	/**
+	 * Loads a failure trace
+	 *
+	 * @param handle a handle returned by {@link #put(FailureTrace)}
+	 * @return the failure trace, or <code>null</code> if it cannot be read
+	 */
+	synchronized FailureTrace get(Handle handle) {
+		if (handle.fTrace != null) {
+			return handle.fTrace;
+		}
+		FailureTrace trace = fCache.get(handle);
+		if (trace == null) {
+			try {
+				ByteBuffer buffer = ByteBuffer.allocate(handle.fLength);
+				while (buffer.hasRemaining()) {
+					if (fSpillFile.fChannel.read(buffer, handle.fOffset + buffer.position()) < 0) {
+						throw new IOException("Truncated failure trace spill file: " + fSpillFile.fPath); //$NON-NLS-1$
+					}
+				}
+				trace = decompress(buffer.array());
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+				return null;
+			}
+			fCache.put(handle, trace);
+		}
+		return trace;
+	}
+
+	/**
+	 * Returns the number of characters of the traces kept in memory
+	 *
+	 * @return the size of the traces which could not be spilled
+	 */
+	long getHeapSize() {
+		return fHeapSize;
+	}
+
+	private SpillFile getSpillFile() throws IOException {
+		if (fSpillFile == null) {
+			Path path = Files.createTempFile("unittest-traces", ".bin"); //$NON-NLS-1$ //$NON-NLS-2$
+			FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			fSpillFile = new SpillFile(path, channel);
+			CLEANER.register(this, fSpillFile);
+		}
+		return fSpillFile;
+	}
+
+	private static void addSpilledText(SpillFile spillFile, SpilledText text) {
+		if (text != null) {
+			spillFile.fSpilledTexts.add(text.getFile());
+		}
+	}
+
+	private static byte[] compress(FailureTrace trace) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+			int flags = (trace.getTrace() != null ? HAS_TRACE : 0) | (trace.getExpected() != null ? HAS_EXPECTED : 0)
+					| (trace.getActual() != null ? HAS_ACTUAL : 0)
+					| (SpilledFailureTrace.getSpilledTrace(trace) != null ? HAS_SPILLED_TRACE : 0)
+					| (SpilledFailureTrace.getSpilledExpected(trace) != null ? HAS_SPILLED_EXPECTED : 0)
+					| (SpilledFailureTrace.getSpilledActual(trace) != null ? HAS_SPILLED_ACTUAL : 0);
+			out.writeByte(flags);
+			writeString(out, trace.getTrace());
+			writeString(out, trace.getExpected());
+			writeString(out, trace.getActual());
+			writeSpilledText(out, SpilledFailureTrace.getSpilledTrace(trace));
+			writeSpilledText(out, SpilledFailureTrace.getSpilledExpected(trace));
+			writeSpilledText(out, SpilledFailureTrace.getSpilledActual(trace));
+		}
+		return bytes.toByteArray();
+	}
+
+	private static FailureTrace decompress(byte[] record) throws IOException {
+		try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(record)))) {
+			int flags = in.readByte();
+			String trace = (flags & HAS_TRACE) != 0 ? readString(in) : null;
+			String expected = (flags & HAS_EXPECTED) != 0 ? readString(in) : null;
+			String actual = (flags & HAS_ACTUAL) != 0 ? readString(in) : null;
+			SpilledText spilledTrace = (flags & HAS_SPILLED_TRACE) != 0 ? readSpilledText(in) : null;
+			SpilledText spilledExpected = (flags & HAS_SPILLED_EXPECTED) != 0 ? readSpilledText(in) : null;
+			SpilledText spilledActual = (flags & HAS_SPILLED_ACTUAL) != 0 ? readSpilledText(in) : null;
+			return SpilledFailureTrace.create(trace, expected, actual, spilledTrace, spilledExpected, spilledActual);
+		}
+	}
+
+	private static void writeSpilledText(DataOutputStream out, SpilledText text) throws IOException {
+		if (text != null) {
+			writeString(out, text.getFile().toString());
+			out.writeLong(text.getSize());
+		}
+	}
+
+	private static SpilledText readSpilledText(DataInputStream in) throws IOException {
+		Path file = Paths.get(readString(in));
+		return new SpilledText(file, in.readLong());
+	}
+
+	private static void writeString(DataOutputStream out, String value) throws IOException {
+		if (value != null) {
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+		byte[] bytes = new byte[in.readInt()];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int length(String value) {
+		return value != null ? value.length() : 0;
+	}
+}
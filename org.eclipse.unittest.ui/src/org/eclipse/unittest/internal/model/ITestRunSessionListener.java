@@ -34,4 +34,16 @@ public interface ITestRunSessionListener {
 	 * @param testRunSession the new session
 	 */
 	void sessionRemoved(ITestRunSession testRunSession);
+
+	/**
+	 * Asks to store a stopped {@link ITestRunSession} instance, so that it can be
+	 * released from memory and reloaded later on.
+	 *
+	 * @param testRunSession the session to swap out
+	 * @return <code>true</code> if the session has been stored and is no longer
+	 *         referenced by this listener
+	 */
+	default boolean swapOut(ITestRunSession testRunSession) {
+		return false;
+	}
 }
@@ -15,6 +15,7 @@
 package org.eclipse.unittest.internal.model;
 
 import java.time.Duration;
+import java.util.List;
 
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestElement;
@@ -26,6 +27,29 @@ import org.eclipse.unittest.model.ITestElement.Result;
  * run and reruns).
  */
 public interface ITestSessionListener {
+
+	/**
+	 * How the test events (see {@link TestSessionEvent.Kind#isTestEvent()}) are
+	 * delivered to a listener which does not keep up with them. The other events
+	 * are always delivered.
+	 */
+	enum DeliveryPolicy {
+		/**
+		 * Every event is delivered: the pending events are kept as long as the
+		 * listener does not keep up with them
+		 */
+		LOSSLESS,
+		/**
+		 * When too many events are pending, the following test events are replaced
+		 * by a single {@link #testsChanged()} notification
+		 */
+		COALESCE,
+		/**
+		 * When too many events are pending, the following test events are discarded
+		 */
+		DROP
+	}
+
 	/**
 	 * A test run has started.
 	 */
@@ -83,4 +107,39 @@ public interface ITestSessionListener {
 	 */
 	void testFailed(ITestElement testElement, Result status, FailureTrace trace);
 
+	/**
+	 * Test events have been coalesced as this listener did not keep up with them:
+	 * any test may have been added, started, ended or failed since the last
+	 * delivered event. Only called for listeners with a
+	 * {@link DeliveryPolicy#COALESCE} policy.
+	 */
+	default void testsChanged() {
+		// nothing by default
+	}
+
+	/**
+	 * Returns how the test events are delivered to this listener when it does not
+	 * keep up with them
+	 *
+	 * @return the delivery policy, {@link DeliveryPolicy#LOSSLESS} by default
+	 */
+	default DeliveryPolicy getDeliveryPolicy() {
+		return DeliveryPolicy.LOSSLESS;
+	}
+
+	/**
+	 * A batch of events has been published. The events of a batch are delivered in
+	 * publication order, and are only valid during this call. Batches are
+	 * delivered one at a time, but not always from the same thread. Listeners can
+	 * override this method to handle a burst of events at once, the default
+	 * implementation calls the callback of every event.
+	 *
+	 * @param events the published events
+	 */
+	default void eventsPublished(List<TestSessionEvent> events) {
+		for (TestSessionEvent event : events) {
+			event.dispatchTo(this);
+		}
+	}
+
 }
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The test cases of a test run session which are currently running.
+ * <p>
+ * Test runners executing tests in parallel (e.g. the JUnit Platform with
+ * <code>junit.jupiter.execution.parallel.enabled</code>) report several
+ * started tests before the first one ends. Each running test is assigned a
+ * lane, the lowest one not used by another running test: as the runners do not
+ * report their worker threads, lanes approximate them, and their number is the
+ * highest parallelism seen during the run.
+ * </p>
+ */
+public final class InFlightTests {
+
+	private static final TestCaseElement[] NO_LANES = new TestCaseElement[0];
+
+	/**
+	 * The running tests and their lanes, oldest first
+	 */
+	private final Map<TestCaseElement, Integer> fRunning = new LinkedHashMap<>();
+	private TestCaseElement[] fLanes = new TestCaseElement[4];
+	private int fLaneCount;
+
+	/**
+	 * Registers a started test case
+	 *
+	 * @param test a test case element
+	 * @return the lane assigned to the test
+	 */
+	synchronized int start(TestCaseElement test) {
+		Integer lane = fRunning.get(test);
+		if (lane != null) {
+			return lane.intValue();
+		}
+		int free = 0;
+		while (free < fLanes.length && fLanes[free] != null) {
+			free++;
+		}
+		if (free == fLanes.length) {
+			fLanes = Arrays.copyOf(fLanes, fLanes.length * 2);
+		}
+		fLanes[free] = test;
+		fLaneCount = Math.max(fLaneCount, free + 1);
+		fRunning.put(test, Integer.valueOf(free));
+		return free;
+	}
+
+	/**
+	 * Unregisters an ended test case
+	 *
+	 * @param test a test case element
+	 */
+	synchronized void end(TestCaseElement test) {
+		Integer lane = fRunning.remove(test);
+		if (lane != null) {
+			fLanes[lane.intValue()] = null;
+		}
+	}
+
+	/**
+	 * Unregisters all the running tests, e.g. when the run is stopped
+	 */
+	synchronized void clear() {
+		fRunning.clear();
+		Arrays.fill(fLanes, null);
+	}
+
+	/**
+	 * Returns the number of running tests
+	 *
+	 * @return the number of running tests
+	 */
+	public synchronized int size() {
+		return fRunning.size();
+	}
+
+	/**
+	 * Returns the test which has been running for the longest time
+	 *
+	 * @return the oldest running test, or <code>null</code> if no test is running
+	 */
+	public synchronized TestCaseElement getOldest() {
+		Iterator<TestCaseElement> iterator = fRunning.keySet().iterator();
+		return iterator.hasNext() ? iterator.next() : null;
+	}
+
+	/**
+	 * Returns the running test of every lane used so far during the run
+	 *
+	 * @return a new array indexed by lane, with <code>null</code> for the lanes
+	 *         without a running test
+	 */
+	public synchronized TestCaseElement[] getLanes() {
+		return fLaneCount == 0 ? NO_LANES : Arrays.copyOf(fLanes, fLaneCount);
+	}
+}
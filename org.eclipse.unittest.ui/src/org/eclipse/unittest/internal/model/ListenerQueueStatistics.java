@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.time.Duration;
+
+import org.eclipse.unittest.internal.model.ITestSessionListener.DeliveryPolicy;
+
+/**
+ * A snapshot of the state of the event queue of a {@link ITestSessionListener}
+ * of a test run session.
+ */
+public final class ListenerQueueStatistics {
+
+	private final ITestSessionListener fListener;
+	private final DeliveryPolicy fPolicy;
+	private final long fDepth;
+	private final long fMaxDepth;
+	private final Duration fLag;
+	private final Duration fMaxLag;
+	private final long fDelivered;
+	private final long fDropped;
+	private final long fCoalesced;
+
+	ListenerQueueStatistics(ITestSessionListener listener, DeliveryPolicy policy, long depth, long maxDepth,
+			Duration lag, Duration maxLag, long delivered, long dropped, long coalesced) {
+		fListener = listener;
+		fPolicy = policy;
+		fDepth = depth;
+		fMaxDepth = maxDepth;
+		fLag = lag;
+		fMaxLag = maxLag;
+		fDelivered = delivered;
+		fDropped = dropped;
+		fCoalesced = coalesced;
+	}
+
+	/**
+	 * Returns the listener
+	 *
+	 * @return the listener of the queue
+	 */
+	public ITestSessionListener getListener() {
+		return fListener;
+	}
+
+	/**
+	 * Returns the delivery policy of the listener
+	 *
+	 * @return the delivery policy
+	 */
+	public DeliveryPolicy getPolicy() {
+		return fPolicy;
+	}
+
+	/**
+	 * Returns the number of events not delivered yet
+	 *
+	 * @return the number of pending events
+	 */
+	public long getDepth() {
+		return fDepth;
+	}
+
+	/**
+	 * Returns the highest number of pending events so far
+	 *
+	 * @return the maximum number of pending events
+	 */
+	public long getMaxDepth() {
+		return fMaxDepth;
+	}
+
+	/**
+	 * Returns the time elapsed since the oldest pending event was published
+	 *
+	 * @return the current lag of the listener, zero if no event is pending
+	 */
+	public Duration getLag() {
+		return fLag;
+	}
+
+	/**
+	 * Returns the longest time an event waited before its delivery began so far
+	 *
+	 * @return the maximum lag of the listener
+	 */
+	public Duration getMaxLag() {
+		return fMaxLag;
+	}
+
+	/**
+	 * Returns the number of delivered events
+	 *
+	 * @return the number of delivered events
+	 */
+	public long getDelivered() {
+		return fDelivered;
+	}
+
+	/**
+	 * Returns the number of test events discarded by a
+	 * {@link DeliveryPolicy#DROP} policy
+	 *
+	 * @return the number of dropped events
+	 */
+	public long getDropped() {
+		return fDropped;
+	}
+
+	/**
+	 * Returns the number of test events replaced by a
+	 * {@link ITestSessionListener#testsChanged()} notification
+	 *
+	 * @return the number of coalesced events
+	 */
+	public long getCoalesced() {
+		return fCoalesced;
+	}
+
+	@Override
+	public String toString() {
+		return fListener.getClass().getName() + " (" + fPolicy + "): depth=" + fDepth + ", maxDepth=" + fMaxDepth //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ ", lag=" + fLag + ", maxLag=" + fMaxLag + ", delivered=" + fDelivered + ", dropped=" + fDropped //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				+ ", coalesced=" + fCoalesced; //$NON-NLS-1$
+	}
+}
@@ -37,6 +37,8 @@ public class ModelMessages extends NLS {
 
 	public static String TestRunSession_unrootedTests;
 
+	public static String TestElement_failures_omitted;
+
 	static {
 		// initialize resource bundle
 		NLS.initializeMessages(BUNDLE_NAME, ModelMessages.class);
@@ -19,21 +19,54 @@ import org.eclipse.unittest.model.ITestElement.Result;
  * An object describing a test current status
  */
 public final class Status {
-	public static final Status RUNNING_ERROR = new Status("RUNNING_ERROR"); //$NON-NLS-1$
-	public static final Status RUNNING_FAILURE = new Status("RUNNING_FAILURE"); //$NON-NLS-1$
-	public static final Status RUNNING = new Status("RUNNING"); //$NON-NLS-1$
+	public static final Status RUNNING_ERROR = new Status("RUNNING_ERROR", 0); //$NON-NLS-1$
+	public static final Status RUNNING_FAILURE = new Status("RUNNING_FAILURE", 1); //$NON-NLS-1$
+	public static final Status RUNNING = new Status("RUNNING", 2); //$NON-NLS-1$
 
-	public static final Status ERROR = new Status("ERROR"); //$NON-NLS-1$
-	public static final Status FAILURE = new Status("FAILURE"); //$NON-NLS-1$
-	public static final Status OK = new Status("OK"); //$NON-NLS-1$
-	public static final Status NOT_RUN = new Status("NOT_RUN"); //$NON-NLS-1$
+	public static final Status ERROR = new Status("ERROR", 3); //$NON-NLS-1$
+	public static final Status FAILURE = new Status("FAILURE", 4); //$NON-NLS-1$
+	public static final Status OK = new Status("OK", 5); //$NON-NLS-1$
+	public static final Status NOT_RUN = new Status("NOT_RUN", 6); //$NON-NLS-1$
 
 	private static final Status[] OLD_CODE = { OK, ERROR, FAILURE };
 
+	private static final Status[] VALUES = { RUNNING_ERROR, RUNNING_FAILURE, RUNNING, ERROR, FAILURE, OK, NOT_RUN };
+
 	private final String fName;
+	private final int fOrdinal;
 
-	private Status(String name) {
+	private Status(String name, int ordinal) {
 		fName = name;
+		fOrdinal = ordinal;
+	}
+
+	/**
+	 * Returns the number of {@link Status} constants
+	 *
+	 * @return the number of {@link Status} constants
+	 */
+	static int count() {
+		return VALUES.length;
+	}
+
+	/**
+	 * Returns the {@link Status} constant at the given ordinal
+	 *
+	 * @param ordinal an ordinal, <code>0 &lt;= ordinal &lt; count()</code>
+	 * @return the {@link Status} constant
+	 */
+	static Status valueOf(int ordinal) {
+		return VALUES[ordinal];
+	}
+
+	/**
+	 * Returns the ordinal of this status, suitable for indexing arrays of
+	 * {@link #count()} elements
+	 *
+	 * @return the ordinal of this status
+	 */
+	int ordinal() {
+		return fOrdinal;
 	}
 
 	@Override
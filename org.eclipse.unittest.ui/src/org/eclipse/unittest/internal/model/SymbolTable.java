@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * An interning table for the strings held by test elements, shared by all the
+ * test run sessions.
+ * <p>
+ * Test names, display names and runner-specific data repeat a lot, both inside
+ * a session and between the sessions of the history: a session reloaded from
+ * its XML file would otherwise hold its own copy of every string. The table
+ * hands out a canonical instance for every value instead.
+ * </p>
+ * <p>
+ * Structured identifiers, like the JUnit Platform unique identifiers
+ * <code>[engine:junit-jupiter]/[class:com.acme.SomeTest]/[method:test()]</code>,
+ * are interned segment by segment as {@link Symbol}s, so the prefix they share
+ * with the identifiers of their siblings and of their parent is only stored
+ * once.
+ * </p>
+ * <p>
+ * Entries are only weakly referenced by the table, they are released with the
+ * last session using them.
+ * </p>
+ */
+public final class SymbolTable {
+
+	private static final SymbolTable DEFAULT = new SymbolTable();
+
+	/**
+	 * A string interned as a sequence of segments. The value of a symbol is the
+	 * value of its prefix followed by its own segment. Symbols are canonical: two
+	 * symbols from the same table are equal if, and only if, they are identical.
+	 */
+	public static final class Symbol {
+		private final Symbol fPrefix;
+		private final String fSegment;
+		private final int fHashCode;
+
+		Symbol(Symbol prefix, String segment) {
+			fPrefix = prefix;
+			fSegment = segment;
+			fHashCode = 31 * System.identityHashCode(prefix) + segment.hashCode();
+		}
+
+		/**
+		 * Returns the symbol whose value is the value of this symbol without the last
+		 * segment
+		 *
+		 * @return the prefix symbol, or <code>null</code> if this symbol has a single
+		 *         segment
+		 */
+		public Symbol getPrefix() {
+			return fPrefix;
+		}
+
+		private int length() {
+			int length = 0;
+			for (Symbol symbol = this; symbol != null; symbol = symbol.fPrefix) {
+				length += symbol.fSegment.length();
+			}
+			return length;
+		}
+
+		private void appendTo(StringBuilder builder) {
+			if (fPrefix != null) {
+				fPrefix.appendTo(builder);
+			}
+			builder.append(fSegment);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHashCode;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Symbol)) {
+				return false;
+			}
+			Symbol other = (Symbol) obj;
+			return fPrefix == other.fPrefix && fSegment.equals(other.fSegment);
+		}
+
+		/**
+		 * Returns the value of this symbol
+		 *
+		 * @return the value of the symbol, built on every call
+		 */
+		@Override
+		public String toString() {
+			if (fPrefix == null) {
+				return fSegment;
+			}
+			StringBuilder builder = new StringBuilder(length());
+			appendTo(builder);
+			return builder.toString();
+		}
+	}
+
+	private final Map<Object, WeakReference<Object>> fEntries = new WeakHashMap<>();
+
+	/**
+	 * Returns the table shared by all the test run sessions
+	 *
+	 * @return the shared symbol table
+	 */
+	public static SymbolTable getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Returns a canonical instance of a string
+	 *
+	 * @param value a string, can be <code>null</code>
+	 * @return a string equal to the given one, or <code>null</code> if
+	 *         <code>value</code> is <code>null</code>
+	 */
+	public String intern(String value) {
+		return value == null ? null : (String) canonical(value);
+	}
+
+	/**
+	 * Returns the canonical symbol of a structured identifier. The identifier is
+	 * split into segments before every <code>/</code> separating two bracketed
+	 * parts, as in the JUnit Platform unique identifiers, so that the symbol of a
+	 * parent identifier is the prefix of the symbols of its children. Any other
+	 * string results in a single segment symbol.
+	 *
+	 * @param value a string, can be <code>null</code>
+	 * @return a symbol whose value is equal to the given string, or
+	 *         <code>null</code> if <code>value</code> is <code>null</code>
+	 */
+	public Symbol internSegments(String value) {
+		if (value == null) {
+			return null;
+		}
+		Symbol symbol = null;
+		int start = 0;
+		int separator = value.indexOf("]/[", start); //$NON-NLS-1$
+		while (separator != -1) {
+			int end = separator + 1;
+			symbol = (Symbol) canonical(new Symbol(symbol, intern(value.substring(start, end))));
+			start = end;
+			separator = value.indexOf("]/[", start); //$NON-NLS-1$
+		}
+		return (Symbol) canonical(new Symbol(symbol, intern(start == 0 ? value : value.substring(start))));
+	}
+
+	private synchronized Object canonical(Object value) {
+		WeakReference<Object> reference = fEntries.get(value);
+		Object canonical = reference != null ? reference.get() : null;
+		if (canonical == null) {
+			fEntries.put(value, new WeakReference<>(value));
+			canonical = value;
+		}
+		return canonical;
+	}
+}
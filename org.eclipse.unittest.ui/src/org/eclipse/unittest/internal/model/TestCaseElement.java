@@ -23,8 +23,17 @@ import org.eclipse.core.runtime.Assert;
  */
 public class TestCaseElement extends TestElement implements ITestCaseElement {
 
-	private boolean fIgnored;
-	private boolean fIsDynamicTest;
+	private static final int STARTED = 1;
+	private static final int FAILURE = 1 << 1;
+	private static final int ERROR = 1 << 2;
+	private static final int IGNORED = 1 << 3;
+	private static final int ASSUMPTION_FAILURE = 1 << 4;
+
+	/**
+	 * The result counters of the parent suites this test case is currently
+	 * accounted in, a combination of the flags above
+	 */
+	private int fCounters;
 
 	/**
 	 * Constructs a {@link TestCaseElement} object
@@ -40,7 +49,7 @@ public class TestCaseElement extends TestElement implements ITestCaseElement {
 			boolean isDynamicTest, String uniqueId) {
 		super(parent, id, testName, displayName, uniqueId);
 		Assert.isNotNull(parent);
-		fIsDynamicTest = isDynamicTest;
+		getStore().setFlag(getStoreIndex(), TestElementStore.DYNAMIC_TEST, isDynamicTest);
 	}
 
 	@Override
@@ -49,12 +58,13 @@ public class TestCaseElement extends TestElement implements ITestCaseElement {
 	}
 
 	public void setIgnored(boolean ignored) {
-		fIgnored = ignored;
+		getStore().setFlag(getStoreIndex(), TestElementStore.IGNORED, ignored);
+		updateCounters();
 	}
 
 	@Override
 	public boolean isIgnored() {
-		return fIgnored;
+		return getStore().isFlagSet(getStoreIndex(), TestElementStore.IGNORED);
 	}
 
 	@Override
@@ -64,7 +74,42 @@ public class TestCaseElement extends TestElement implements ITestCaseElement {
 
 	@Override
 	public boolean isDynamicTest() {
-		return fIsDynamicTest;
+		return getStore().isFlagSet(getStoreIndex(), TestElementStore.DYNAMIC_TEST);
+	}
+
+	@Override
+	void updateCounters() {
+		int counters = 0;
+		if (getProgressState() != ProgressState.NOT_STARTED || hasStartTime()) {
+			counters |= STARTED;
+		}
+		if (getStatus() == Status.FAILURE) {
+			counters |= FAILURE;
+		} else if (getStatus() == Status.ERROR) {
+			counters |= ERROR;
+		}
+		if (isIgnored()) {
+			counters |= IGNORED;
+		}
+		if (isAssumptionFailure()) {
+			counters |= ASSUMPTION_FAILURE;
+		}
+
+		int changed = counters ^ fCounters;
+		if (changed == 0) {
+			return;
+		}
+		fCounters = counters;
+		getParent().adjustCounters(delta(changed, counters, STARTED), delta(changed, counters, FAILURE),
+				delta(changed, counters, ERROR), delta(changed, counters, IGNORED),
+				delta(changed, counters, ASSUMPTION_FAILURE));
+	}
+
+	private static int delta(int changed, int counters, int flag) {
+		if ((changed & flag) == 0) {
+			return 0;
+		}
+		return (counters & flag) != 0 ? 1 : -1;
 	}
 
 	@Override
@@ -74,26 +119,26 @@ public class TestCaseElement extends TestElement implements ITestCaseElement {
 
 	@Override
 	int countStartedTestCases() {
-		return getProgressState() != ProgressState.NOT_STARTED || testStartedInstant != null ? 1 : 0;
+		return (fCounters & STARTED) != 0 ? 1 : 0;
 	}
 
 	@Override
 	int getCurrentFailureCount() {
-		return getStatus() == Status.FAILURE ? 1 : 0;
+		return (fCounters & FAILURE) != 0 ? 1 : 0;
 	}
 
 	@Override
 	int getCurrentAssumptionFailureCount() {
-		return isAssumptionFailure() ? 1 : 0;
+		return (fCounters & ASSUMPTION_FAILURE) != 0 ? 1 : 0;
 	}
 
 	@Override
 	int getCurrentIgnoredCount() {
-		return isIgnored() ? 1 : 0;
+		return (fCounters & IGNORED) != 0 ? 1 : 0;
 	}
 
 	@Override
 	int getCurrentErrorCount() {
-		return getStatus() == Status.ERROR ? 1 : 0;
+		return (fCounters & ERROR) != 0 ? 1 : 0;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+/**
+ * A monotonic clock used to time the test elements of a test run session.
+ * <p>
+ * Only differences between two values of the same clock are meaningful: the
+ * values are not related to the wall clock time, and do not jump when the wall
+ * clock is adjusted during a run.
+ * </p>
+ */
+@FunctionalInterface
+public interface TestClock {
+
+	/**
+	 * The default clock, based on {@link System#nanoTime()}
+	 */
+	TestClock SYSTEM = System::nanoTime;
+
+	/**
+	 * Returns the current value of the clock
+	 *
+	 * @return the current value of the clock, in nanoseconds
+	 */
+	long nanoTime();
+}
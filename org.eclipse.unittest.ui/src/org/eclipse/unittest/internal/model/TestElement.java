@@ -13,9 +13,13 @@
  *******************************************************************************/
 package org.eclipse.unittest.internal.model;
 
+import java.text.MessageFormat;
 import java.time.Duration;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
 import org.eclipse.unittest.model.ITestElement;
 
 import org.eclipse.core.runtime.Assert;
@@ -29,9 +33,11 @@ public abstract class TestElement implements ITestElement {
 	private final String fId;
 	private final String fTestName;
 	/**
-	 * Extra (runner-specific) data, can be <code>null</code>
+	 * Extra (runner-specific) data, can be <code>null</code>. Interned by segments,
+	 * as it is usually a structured identifier sharing a prefix with the data of
+	 * the parent.
 	 */
-	private final String fData;
+	private final SymbolTable.Symbol fData;
 
 	/**
 	 * The display name of the test element, can be <code>null</code>. In that case,
@@ -39,13 +45,29 @@ public abstract class TestElement implements ITestElement {
 	 */
 	private final String fDisplayName;
 
-	private Status fStatus;
-	protected FailureTrace fTrace;
+	/**
+	 * The session-wide store holding the status, flags and times of this element
+	 */
+	private final TestElementStore fStore;
+	private final int fIndex;
+
+	/**
+	 * The failures reported for this element, their traces are stored in the
+	 * session-wide failure trace store
+	 */
+	private volatile FailureList fFailures;
 
-	private boolean fAssumptionFailed;
+	/**
+	 * The status this element is currently counted with in the parent's
+	 * histogram of children statuses, maintained by the parent
+	 */
+	Status fCountedStatus;
 
-	protected Instant testStartedInstant = null;
-	protected Duration fDuration = null;
+	/**
+	 * The position of this element among the children ever added to its parent,
+	 * assigned by the parent
+	 */
+	int fSiblingOrdinal;
 
 	/**
 	 * Constructs the test element object
@@ -61,10 +83,12 @@ public abstract class TestElement implements ITestElement {
 		Assert.isNotNull(testName);
 		fParent = parent;
 		fId = id;
-		fTestName = testName;
-		fDisplayName = displayName;
-		fData = data;
-		fStatus = Status.NOT_RUN;
+		SymbolTable symbols = SymbolTable.getDefault();
+		fTestName = symbols.intern(testName);
+		fDisplayName = symbols.intern(displayName);
+		fData = symbols.internSegments(data);
+		fStore = parent != null ? ((TestElement) parent).fStore : new TestElementStore();
+		fIndex = fStore.allocate();
 		if (parent != null) {
 			parent.addChild(this);
 		} else if (!(this instanceof TestRunSession)) {
@@ -120,7 +144,7 @@ public abstract class TestElement implements ITestElement {
 	 *         Clients should also prepare for other, new values.
 	 */
 	public Result getTestResult(boolean includeChildren) {
-		if (fAssumptionFailed) {
+		if (isAssumptionFailure()) {
 			return Result.IGNORED;
 		}
 		return getStatus().convertToResult();
@@ -136,14 +160,100 @@ public abstract class TestElement implements ITestElement {
 		return fParent;
 	}
 
+	/**
+	 * Returns the failure trace of this element. If several failures have been
+	 * reported, their traces are concatenated, with the expected and actual values
+	 * of the first one.
+	 *
+	 * @see #getFailureTraces()
+	 */
 	@Override
 	public FailureTrace getFailureTrace() {
-		Result testResult = getTestResult(false);
-		if ((testResult == Result.ERROR || testResult == Result.FAILURE
-				|| (testResult == Result.IGNORED) && fTrace != null)) {
-			return fTrace;
+		if (!hasFailureTrace()) {
+			return null;
+		}
+		FailureList failures = fFailures;
+		FailureTraceStore traces = fStore.getTraceStore();
+		FailureTraceStore.Handle[] handles = failures.toArray();
+		int omitted = failures.getOmittedCount();
+		if (handles.length == 1 && omitted == 0) {
+			return traces.get(handles[0]);
+		}
+		FailureTrace first = null;
+		StringBuilder trace = new StringBuilder();
+		for (FailureTraceStore.Handle handle : handles) {
+			FailureTrace failureTrace = traces.get(handle);
+			if (failureTrace != null) {
+				if (first == null) {
+					first = failureTrace;
+				}
+				trace.append(failureTrace.getTrace());
+			}
 		}
-		return null;
+		if (omitted > 0) {
+			trace.append(MessageFormat.format(ModelMessages.TestElement_failures_omitted, Integer.valueOf(omitted)));
+		}
+		return SpilledFailureTrace.create(trace.toString(), first != null ? first.getExpected() : null,
+				first != null ? first.getActual() : null, null, SpilledFailureTrace.getSpilledExpected(first),
+				SpilledFailureTrace.getSpilledActual(first));
+	}
+
+	/**
+	 * Returns the failure traces of this element, one per reported failure, up to
+	 * {@value FailureList#MAX_FAILURES} failures
+	 *
+	 * @return a list of failure traces, empty if this element has no failure
+	 *         trace
+	 * @see #getOmittedFailureCount()
+	 */
+	public List<FailureTrace> getFailureTraces() {
+		if (!hasFailureTrace()) {
+			return Collections.emptyList();
+		}
+		FailureTraceStore traces = fStore.getTraceStore();
+		List<FailureTrace> failureTraces = new ArrayList<>();
+		for (FailureTraceStore.Handle handle : fFailures.toArray()) {
+			FailureTrace failureTrace = traces.get(handle);
+			if (failureTrace != null) {
+				failureTraces.add(failureTrace);
+			}
+		}
+		return failureTraces;
+	}
+
+	/**
+	 * Returns the number of failures reported for this element beyond the
+	 * {@value FailureList#MAX_FAILURES} recorded ones
+	 *
+	 * @return the number of omitted failures
+	 */
+	public int getOmittedFailureCount() {
+		FailureList failures = fFailures;
+		return failures != null ? failures.getOmittedCount() : 0;
+	}
+
+	/**
+	 * Indicates if this test element has a failure trace, without loading it
+	 *
+	 * @return <code>true</code> if {@link #getFailureTrace()} returns a trace
+	 */
+	public boolean hasFailureTrace() {
+		if (fFailures == null) {
+			return false;
+		}
+		Result testResult = getTestResult(false);
+		return testResult == Result.ERROR || testResult == Result.FAILURE || testResult == Result.IGNORED;
+	}
+
+	/**
+	 * Indicates if the (first) failure trace of this test element is a comparison
+	 * failure, without loading it
+	 *
+	 * @return <code>true</code> in case of comparison failure
+	 * @see FailureTrace#isComparisonFailure()
+	 */
+	public boolean isComparisonFailure() {
+		return hasFailureTrace() && fFailures.getFirst().isComparisonFailure();
 	}
 
 	@Override
@@ -169,14 +279,19 @@ public abstract class TestElement implements ITestElement {
 	 */
 	public void setStatus(Status status) {
 		if (status == Status.RUNNING) {
-			testStartedInstant = Instant.now();
-		} else if (status.convertToProgressState() == ProgressState.COMPLETED && testStartedInstant != null) {
-			this.fDuration = Duration.between(testStartedInstant, Instant.now());
+			recordStartTime();
+		} else if (status.convertToProgressState() == ProgressState.COMPLETED && hasStartTime()) {
+			recordDuration();
 		}
 
-		fStatus = status;
+		boolean wasFailed = fStore.getStatus(fIndex).isErrorOrFailure();
+		fStore.setStatus(fIndex, status);
+		updateCounters();
 		TestSuiteElement parent = getParent();
 		if (parent != null) {
+			if (wasFailed != status.isErrorOrFailure()) {
+				fStore.getFailureIndex().update(this, !wasFailed);
+			}
 			parent.childChangedStatus(this, status);
 		}
 	}
@@ -189,12 +304,13 @@ public abstract class TestElement implements ITestElement {
 	 * @param failureTrace stacktracee/error message or null
 	 */
 	public void setStatus(Status status, FailureTrace failureTrace) {
-		if (failureTrace != null && fTrace != null) {
-			// don't overwrite first trace if same test run logs multiple errors
-			fTrace = new FailureTrace(fTrace.getTrace() + failureTrace.getTrace(), fTrace.getExpected(),
-					fTrace.getActual());
+		if (failureTrace == null) {
+			fFailures = null;
+		} else if (fFailures == null) {
+			fFailures = new FailureList(fStore.getTraceStore().put(failureTrace));
 		} else {
-			fTrace = failureTrace;
+			// keep the previous failures if same test run logs multiple errors
+			fFailures.add(fFailures.canRecord() ? fStore.getTraceStore().put(failureTrace) : null);
 		}
 		setStatus(status);
 	}
@@ -212,7 +328,7 @@ public abstract class TestElement implements ITestElement {
 	 *         {@link Status#ERROR} or {@link Status#FAILURE}.
 	 */
 	public Status getStatus() {
-		return fStatus;
+		return fStore.getStatus(fIndex);
 	}
 
 	/**
@@ -221,12 +337,69 @@ public abstract class TestElement implements ITestElement {
 	 * @param duration a duration value
 	 */
 	public void setDuration(Duration duration) {
-		this.fDuration = duration;
+		fStore.setDuration(fIndex, duration != null ? duration.toNanos() : TestElementStore.UNSET);
 	}
 
 	@Override
 	public Duration getDuration() {
-		return this.fDuration;
+		long duration = fStore.getDuration(fIndex);
+		return duration != TestElementStore.UNSET ? Duration.ofNanos(duration) : null;
+	}
+
+	/**
+	 * Indicates if a duration has been set or recorded for this test element
+	 *
+	 * @return <code>true</code> if this test element has a duration
+	 */
+	boolean hasDuration() {
+		return fStore.getDuration(fIndex) != TestElementStore.UNSET;
+	}
+
+	/**
+	 * Indicates if a start time has been recorded for this test element
+	 *
+	 * @return <code>true</code> if this test element has been started
+	 */
+	boolean hasStartTime() {
+		return fStore.getStartTime(fIndex) != TestElementStore.UNSET;
+	}
+
+	/**
+	 * Records the current time as the start time of this test element
+	 */
+	void recordStartTime() {
+		fStore.setStartTime(fIndex, currentTimeNanos());
+	}
+
+	/**
+	 * Records the time elapsed since the start time as the duration of this test
+	 * element
+	 */
+	void recordDuration() {
+		fStore.setDuration(fIndex, currentTimeNanos() - fStore.getStartTime(fIndex));
+	}
+
+	private long currentTimeNanos() {
+		return fStore.getClock().nanoTime();
+	}
+
+	/**
+	 * Returns the store holding the state of this test element
+	 *
+	 * @return the session-wide test element store
+	 */
+	TestElementStore getStore() {
+		return fStore;
+	}
+
+	/**
+	 * Returns the index of this test element's state in the
+	 * {@link #getStore() store}
+	 *
+	 * @return the store index
+	 */
+	int getStoreIndex() {
+		return fIndex;
 	}
 
 	/**
@@ -235,7 +408,8 @@ public abstract class TestElement implements ITestElement {
 	 * @param assumptionFailed a flag indicating the assumption failure
 	 */
 	public void setAssumptionFailed(boolean assumptionFailed) {
-		fAssumptionFailed = assumptionFailed;
+		fStore.setFlag(fIndex, TestElementStore.ASSUMPTION_FAILED, assumptionFailed);
+		updateCounters();
 	}
 
 	/**
@@ -244,7 +418,7 @@ public abstract class TestElement implements ITestElement {
 	 * @return true if there was a comparison failure, otherwise return false
 	 */
 	public boolean isAssumptionFailure() {
-		return fAssumptionFailed;
+		return fStore.isFlagSet(fIndex, TestElementStore.ASSUMPTION_FAILED);
 	}
 
 	@Override
@@ -259,7 +433,7 @@ public abstract class TestElement implements ITestElement {
 
 	@Override
 	public String getData() {
-		return fData;
+		return fData != null ? fData.toString() : null;
 	}
 
 	@Override
@@ -267,6 +441,15 @@ public abstract class TestElement implements ITestElement {
 		return getParent().getTestRunSession();
 	}
 
+	/**
+	 * Propagates a change of this element's contribution to the result counters
+	 * up to the parent test suites. Test suites only aggregate the counters of
+	 * their children, so there is nothing to do by default.
+	 */
+	void updateCounters() {
+		// nothing to do
+	}
+
 	/**
 	 * Returns the total number of expected test case elements, or the total number
 	 * of ran test case elements if completed, or <code>null</null> if tests are
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe index of the test elements of a test run session by their
+ * identifiers.
+ * <p>
+ * Test runners usually hand out small, dense, numeric identifiers, so such
+ * identifiers are resolved through a growable array indexed by the primitive
+ * id value. Any other identifier (non-numeric, non-canonical or too sparse)
+ * falls back to a concurrent hash map keyed by the identifier string.
+ * </p>
+ * <p>
+ * Lookups never lock and never allocate for numeric identifiers; they can be
+ * performed from any thread. Additions are serialized.
+ * </p>
+ */
+public final class TestElementIndex {
+
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * Numeric identifiers beyond the current capacity only grow the array if they
+	 * are at most this far away from it, others are stored in the fallback map
+	 */
+	private static final int MAX_GAP = 1024;
+
+	private volatile AtomicReferenceArray<TestElement> fElements;
+	private final Map<String, TestElement> fFallback = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructs an empty index
+	 *
+	 * @param expectedSize the expected number of elements
+	 */
+	public TestElementIndex(int expectedSize) {
+		fElements = new AtomicReferenceArray<>(Math.max(expectedSize, MIN_CAPACITY));
+	}
+
+	/**
+	 * Makes sure the index can hold numeric identifiers <code>0</code> to
+	 * <code>expectedSize - 1</code> without growing
+	 *
+	 * @param expectedSize the expected number of elements
+	 */
+	public synchronized void ensureCapacity(int expectedSize) {
+		if (expectedSize > fElements.length()) {
+			grow(expectedSize);
+		}
+	}
+
+	/**
+	 * Adds a test element to the index, replacing any element registered with the
+	 * same identifier
+	 *
+	 * @param id      an identifier of the test element
+	 * @param element a test element
+	 */
+	public synchronized void put(String id, TestElement element) {
+		int numericId = parseId(id, 0, id.length());
+		if (numericId >= 0) {
+			AtomicReferenceArray<TestElement> elements = fElements;
+			if (numericId < elements.length()) {
+				elements.set(numericId, element);
+				return;
+			}
+			if (numericId - elements.length() < MAX_GAP) {
+				grow(Math.max(numericId + 1, elements.length() * 2));
+				fElements.set(numericId, element);
+				return;
+			}
+		}
+		fFallback.put(id, element);
+	}
+
+	/**
+	 * Returns the test element registered with the given identifier
+	 *
+	 * @param id an identifier of the test element
+	 * @return the test element or <code>null</code> if not found
+	 */
+	public TestElement get(String id) {
+		if (id == null) {
+			return null;
+		}
+		int numericId = parseId(id, 0, id.length());
+		if (numericId >= 0) {
+			AtomicReferenceArray<TestElement> elements = fElements;
+			if (numericId < elements.length()) {
+				return elements.get(numericId);
+			}
+		}
+		return fFallback.get(id);
+	}
+
+	/**
+	 * Returns the test element registered with the given numeric identifier
+	 *
+	 * @param id a numeric identifier of the test element
+	 * @return the test element or <code>null</code> if not found
+	 */
+	public TestElement get(int id) {
+		if (id < 0) {
+			return null;
+		}
+		AtomicReferenceArray<TestElement> elements = fElements;
+		if (id < elements.length()) {
+			return elements.get(id);
+		}
+		return fFallback.isEmpty() ? null : fFallback.get(Integer.toString(id));
+	}
+
+	/**
+	 * Returns the test element registered with the identifier found in a region of
+	 * a character sequence
+	 *
+	 * @param text  a character sequence containing an identifier
+	 * @param start the offset of the first character of the identifier
+	 * @param end   the offset after the last character of the identifier
+	 * @return the test element or <code>null</code> if not found
+	 */
+	public TestElement get(CharSequence text, int start, int end) {
+		int numericId = parseId(text, start, end);
+		if (numericId >= 0) {
+			AtomicReferenceArray<TestElement> elements = fElements;
+			if (numericId < elements.length()) {
+				return elements.get(numericId);
+			}
+		}
+		return fFallback.isEmpty() ? null : fFallback.get(text.subSequence(start, end).toString());
+	}
+
+	/**
+	 * Returns the canonical non-negative integer value of an identifier, i.e.
+	 * digits only, without leading zeros and fitting into an <code>int</code>.
+	 *
+	 * @param id    a character sequence containing an identifier
+	 * @param start the offset of the first character of the identifier
+	 * @param end   the offset after the last character of the identifier
+	 * @return the numeric value, or <code>-1</code> if the identifier is not a
+	 *         canonical non-negative integer
+	 */
+	static int parseId(CharSequence id, int start, int end) {
+		int length = end - start;
+		if (length <= 0 || length > 9 || (length > 1 && id.charAt(start) == '0')) {
+			return -1;
+		}
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			char c = id.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	/**
+	 * Grows the array, moving into it the numeric identifiers of the fallback map
+	 * which now fit. They are removed from the map once the array is published,
+	 * so that a lookup finds them in either.
+	 */
+	private void grow(int capacity) {
+		AtomicReferenceArray<TestElement> elements = fElements;
+		AtomicReferenceArray<TestElement> grown = new AtomicReferenceArray<>(capacity);
+		for (int i = 0; i < elements.length(); i++) {
+			grown.set(i, elements.get(i));
+		}
+		List<String> moved = new ArrayList<>();
+		fFallback.forEach((id, element) -> {
+			int numericId = parseId(id, 0, id.length());
+			if (numericId >= 0 && numericId < capacity) {
+				grown.set(numericId, element);
+				moved.add(id);
+			}
+		});
+		fElements = grown;
+		moved.forEach(fFallback::remove);
+	}
+}
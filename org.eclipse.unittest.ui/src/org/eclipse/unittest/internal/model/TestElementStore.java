@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+/**
+ * A columnar store for the mutable state of the test elements of a test run
+ * session.
+ * <p>
+ * Instead of keeping a {@link Status} reference, flags and time objects in
+ * every {@link TestElement}, each element gets an index into primitive arrays
+ * (one per attribute) shared by the whole session. The arrays are split into
+ * fixed size chunks, so growing the store never copies the existing state and
+ * readers on other threads never see a partially grown store.
+ * </p>
+ */
+final class TestElementStore {
+
+	/**
+	 * Value of the time columns when no time has been recorded
+	 */
+	static final long UNSET = Long.MIN_VALUE;
+
+	/*
+	 * Flags
+	 */
+	static final int ASSUMPTION_FAILED = 1;
+	static final int IGNORED = 1 << 1;
+	static final int DYNAMIC_TEST = 1 << 2;
+
+	private static final int CHUNK_SHIFT = 10;
+	private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/**
+	 * The column chunks, replaced as a whole when a chunk is added
+	 */
+	private static final class Columns {
+		final byte[][] fStatus;
+		final byte[][] fFlags;
+		final long[][] fStartTime;
+		final long[][] fDuration;
+
+		Columns(int chunks) {
+			fStatus = new byte[chunks][];
+			fFlags = new byte[chunks][];
+			fStartTime = new long[chunks][];
+			fDuration = new long[chunks][];
+		}
+	}
+
+	private volatile Columns fColumns = new Columns(0);
+	private int fSize;
+
+	private volatile TestClock fClock = TestClock.SYSTEM;
+
+	private final FailureIndex fFailureIndex = new FailureIndex();
+
+	private final FailureTraceStore fTraceStore = new FailureTraceStore();
+
+	/**
+	 * Returns the index of the failed elements of this store
+	 *
+	 * @return the failure index
+	 */
+	FailureIndex getFailureIndex() {
+		return fFailureIndex;
+	}
+
+	/**
+	 * Returns the clock used to record the start times and durations
+	 *
+	 * @return the clock of the elements of this store
+	 */
+	TestClock getClock() {
+		return fClock;
+	}
+
+	/**
+	 * Sets the clock used to record the start times and durations
+	 *
+	 * @param clock a clock
+	 */
+	void setClock(TestClock clock) {
+		fClock = clock;
+	}
+
+	/**
+	 * Allocates the state of a new test element. The element is not run, has no
+	 * flags set and no times recorded.
+	 *
+	 * @return the index of the new element
+	 */
+	synchronized int allocate() {
+		int index = fSize;
+		int chunk = index >>> CHUNK_SHIFT;
+		Columns columns = fColumns;
+		if (chunk == columns.fStatus.length) {
+			Columns grown = new Columns(chunk + 1);
+			System.arraycopy(columns.fStatus, 0, grown.fStatus, 0, chunk);
+			System.arraycopy(columns.fFlags, 0, grown.fFlags, 0, chunk);
+			System.arraycopy(columns.fStartTime, 0, grown.fStartTime, 0, chunk);
+			System.arraycopy(columns.fDuration, 0, grown.fDuration, 0, chunk);
+			grown.fStatus[chunk] = new byte[CHUNK_SIZE];
+			grown.fFlags[chunk] = new byte[CHUNK_SIZE];
+			grown.fStartTime[chunk] = new long[CHUNK_SIZE];
+			grown.fDuration[chunk] = new long[CHUNK_SIZE];
+			columns = grown;
+		}
+		int offset = index & CHUNK_MASK;
+		columns.fStatus[chunk][offset] = (byte) Status.NOT_RUN.ordinal();
+		columns.fStartTime[chunk][offset] = UNSET;
+		columns.fDuration[chunk][offset] = UNSET;
+		fColumns = columns;
+		fSize = index + 1;
+		return index;
+	}
+
+	/**
+	 * Returns the number of allocated elements
+	 *
+	 * @return the number of allocated elements
+	 */
+	synchronized int size() {
+		return fSize;
+	}
+
+	/**
+	 * Returns the number of characters of the failure traces of the elements
+	 * kept in memory
+	 *
+	 * @return the heap size of the failure traces
+	 */
+	long getTraceSize() {
+		return fTraceStore.getHeapSize();
+	}
+
+	/**
+	 * Returns the store of the failure traces of the elements
+	 *
+	 * @return the failure trace store
+	 */
+	FailureTraceStore getTraceStore() {
+		return fTraceStore;
+	}
+
+	/**
+	 * Returns the status of an element
+	 */
+	Status getStatus(int index) {
+		return Status.valueOf(fColumns.fStatus[index >>> CHUNK_SHIFT][index & CHUNK_MASK]);
+	}
+
+	/**
+	 * Sets the status of an element
+	 */
+	void setStatus(int index, Status status) {
+		fColumns.fStatus[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = (byte) status.ordinal();
+	}
+
+	/**
+	 * Indicates if a flag is set for an element
+	 */
+	boolean isFlagSet(int index, int flag) {
+		return (fColumns.fFlags[index >>> CHUNK_SHIFT][index & CHUNK_MASK] & flag) != 0;
+	}
+
+	/**
+	 * Sets or clears a flag of an element
+	 */
+	void setFlag(int index, int flag, boolean value) {
+		byte[] flags = fColumns.fFlags[index >>> CHUNK_SHIFT];
+		int offset = index & CHUNK_MASK;
+		flags[offset] = (byte) (value ? flags[offset] | flag : flags[offset] & ~flag);
+	}
+
+	/**
+	 * Returns the start time of an element in nanoseconds, or {@link #UNSET}
+	 */
+	long getStartTime(int index) {
+		return fColumns.fStartTime[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	/**
+	 * Sets the start time of an element in nanoseconds
+	 */
+	void setStartTime(int index, long nanos) {
+		fColumns.fStartTime[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = nanos;
+	}
+
+	/**
+	 * Returns the duration of an element in nanoseconds, or {@link #UNSET}
+	 */
+	long getDuration(int index) {
+		return fColumns.fDuration[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+	}
+
+	/**
+	 * Sets the duration of an element in nanoseconds, or {@link #UNSET}
+	 */
+	void setDuration(int index, long nanos) {
+		fColumns.fDuration[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = nanos;
+	}
+}
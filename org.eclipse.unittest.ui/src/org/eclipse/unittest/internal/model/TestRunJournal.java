@@ -0,0 +1,756 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.internal.UnitTestPreferencesConstants;
+import org.eclipse.unittest.internal.trace.BoundedTextBuffer;
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
+import org.eclipse.unittest.internal.trace.SpilledText;
+import org.eclipse.unittest.model.ITestElement;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+import org.eclipse.unittest.model.ITestElement.Result;
+import org.eclipse.unittest.model.ITestSuiteElement;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Platform;
+
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * An append-only binary journal of the calls made by a test runner client to
+ * its {@link TestRunSession}, written while the tests run.
+ * <p>
+ * The journal of a running session has the {@value #PARTIAL_EXTENSION}
+ * extension, and is renamed with the {@value #JOURNAL_EXTENSION} extension when
+ * the session completes, is aborted or stopped: a partial journal which is not
+ * being written is left by a crashed workbench, and can be
+ * {@link #restore(File) restored} into a test run session. The most recent
+ * complete journals are kept, so that real runs can be {@link #replay(File,
+ * TestRunSession) replayed} at full speed, e.g. for profiling.
+ * </p>
+ * <p>
+ * The journal starts with a header holding the name of the test run and of its
+ * launch configuration, followed by records made of an operation code, the
+ * nanoseconds elapsed since the previous record and the arguments of the call.
+ * Integers are written as unsigned variable-length quantities, test elements as
+ * their index in the session store, and names are deduplicated: a name already
+ * written is replaced by its number. The records of the test tree are flushed
+ * at most every {@link #FLUSH_INTERVAL} nanoseconds, the records of the start
+ * of the session and of the start and end of the tests are flushed at once, so
+ * that the journal left by a hang or a crash ends with the running test.
+ * </p>
+ */
+public final class TestRunJournal {
+
+	/**
+	 * The extension of complete journals
+	 */
+	public static final String JOURNAL_EXTENSION = ".journal"; //$NON-NLS-1$
+
+	/**
+	 * The extension of journals being written, or left by a crash
+	 */
+	public static final String PARTIAL_EXTENSION = ".partial"; //$NON-NLS-1$
+
+	private static final String DIRECTORY_NAME = "journal"; //$NON-NLS-1$
+
+	private static final byte[] MAGIC = { 'U', 'T', 'J', 1 };
+
+	private static final long FLUSH_INTERVAL = 100_000_000L;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The maximum number of deduplicated names, later names are written in full
+	 */
+	private static final int MAX_SYMBOLS = 1 << 16;
+
+	private static final int OP_TEST_SUITE = 1;
+	private static final int OP_TEST_CASE = 2;
+	private static final int OP_SESSION_STARTED = 3;
+	private static final int OP_TEST_STARTED = 4;
+	private static final int OP_TEST_ENDED = 5;
+	private static final int OP_TEST_FAILED = 6;
+	private static final int OP_SESSION_COMPLETED = 7;
+	private static final int OP_SESSION_ABORTED = 8;
+	private static final int OP_SESSION_STOPPED = 9;
+
+	/*
+	 * Encoding of names: null, a name written in full without a number, a name
+	 * written in full and numbered, or the number of a name plus SYMBOL_BASE
+	 */
+	private static final int SYMBOL_NULL = 0;
+	private static final int SYMBOL_INLINE = 1;
+	private static final int SYMBOL_NEW = 2;
+	private static final int SYMBOL_BASE = 3;
+
+	/**
+	 * The journals being written by this workbench
+	 */
+	private static final Set<File> fgOpenJournals = ConcurrentHashMap.newKeySet();
+
+	private final File fFile;
+	private final FileOutputStream fOutput;
+	private final byte[] fBuffer = new byte[BUFFER_SIZE];
+	private int fPosition;
+	private long fLastTime;
+	private long fLastFlush;
+	private final Map<String, Integer> fSymbols = new HashMap<>();
+	private boolean fClosed;
+
+	private TestRunJournal(File file) throws IOException {
+		fFile = file;
+		fOutput = new FileOutputStream(file);
+		fgOpenJournals.add(file);
+		fLastTime = System.nanoTime();
+		fLastFlush = fLastTime;
+	}
+
+	/**
+	 * Creates the journal of a test run session, the failure to create it is
+	 * logged and does not prevent the tests from running
+	 *
+	 * @param session       the test run session, before any test element is
+	 *                      added
+	 * @param configuration the launch configuration of the session, can be
+	 *                      <code>null</code>
+	 * @return the new journal, or <code>null</code> if it could not be created
+	 */
+	static TestRunJournal create(TestRunSession session, ILaunchConfiguration configuration) {
+		try {
+			File file = File.createTempFile("run", PARTIAL_EXTENSION, getDirectory()); //$NON-NLS-1$
+			TestRunJournal journal = new TestRunJournal(file);
+			journal.write(MAGIC, 0, MAGIC.length);
+			journal.writeVarLong(System.currentTimeMillis());
+			journal.writeSymbol(session.getTestRunName());
+			journal.writeSymbol(configuration != null ? configuration.getName() : null);
+			journal.writeVarLong(session.getStoreIndex());
+			journal.flush();
+			return journal;
+		} catch (IOException | IllegalStateException e) {
+			UnitTestPlugin.log(e);
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the directory of the journals, creating it if needed
+	 *
+	 * @return the journal directory
+	 * @throws IllegalStateException if the plug-in state location is not available
+	 */
+	public static File getDirectory() throws IllegalStateException {
+		File directory = UnitTestPlugin.getDefault().getStateLocation().append(DIRECTORY_NAME).toFile();
+		if (!directory.isDirectory()) {
+			directory.mkdirs();
+		}
+		return directory;
+	}
+
+	/**
+	 * Returns the partial journals which are not being written, i.e. the journals
+	 * of the sessions interrupted by a crash of the workbench
+	 *
+	 * @return the partial journals left by a crash
+	 */
+	public static List<File> getInterruptedJournals() {
+		File[] files = getDirectory().listFiles(
+				file -> file.getName().endsWith(PARTIAL_EXTENSION) && !fgOpenJournals.contains(file));
+		return files != null ? Arrays.asList(files) : List.of();
+	}
+
+	synchronized void testSuite(TestElement suite, ITestSuiteElement parent, String testId, String testName,
+			Integer testCount, String displayName, String data) {
+		if (begin(OP_TEST_SUITE)) {
+			writeVarLong(suite.getStoreIndex());
+			writeReference(parent);
+			writeSymbol(testId);
+			writeSymbol(testName);
+			writeVarLong(testCount != null ? testCount.longValue() + 1 : 0);
+			writeSymbol(displayName);
+			writeSymbol(data);
+			end();
+		}
+	}
+
+	synchronized void testCase(TestElement testCase, ITestSuiteElement parent, String testId, String testName,
+			String displayName, String data) {
+		if (begin(OP_TEST_CASE)) {
+			writeVarLong(testCase.getStoreIndex());
+			writeReference(parent);
+			writeSymbol(testId);
+			writeSymbol(testName);
+			writeSymbol(displayName);
+			writeSymbol(data);
+			end();
+		}
+	}
+
+	synchronized void sessionStarted(Integer count) {
+		if (begin(OP_SESSION_STARTED)) {
+			writeVarLong(count != null ? count.longValue() + 1 : 0);
+			endAndFlush();
+		}
+	}
+
+	synchronized void testStarted(ITestElement test) {
+		if (begin(OP_TEST_STARTED)) {
+			writeReference(test);
+			endAndFlush();
+		}
+	}
+
+	synchronized void testEnded(ITestElement test, boolean isIgnored) {
+		if (begin(OP_TEST_ENDED)) {
+			writeReference(test);
+			writeVarLong(isIgnored ? 1 : 0);
+			endAndFlush();
+		}
+	}
+
+	synchronized void testFailed(ITestElement test, Result status, boolean isAssumptionFailed,
+			FailureTrace failureTrace) {
+		if (begin(OP_TEST_FAILED)) {
+			writeReference(test);
+			writeVarLong(status.ordinal());
+			writeVarLong(isAssumptionFailed ? 1 : 0);
+			if (failureTrace != null) {
+				writeVarLong(1);
+				writeText(failureTrace.getTrace(), SpilledFailureTrace.getSpilledTrace(failureTrace));
+				writeText(failureTrace.getExpected(), SpilledFailureTrace.getSpilledExpected(failureTrace));
+				writeText(failureTrace.getActual(), SpilledFailureTrace.getSpilledActual(failureTrace));
+			} else {
+				writeVarLong(0);
+			}
+			end();
+		}
+	}
+
+	synchronized void sessionCompleted(Duration duration) {
+		if (begin(OP_SESSION_COMPLETED)) {
+			writeDuration(duration);
+			close();
+		}
+	}
+
+	synchronized void sessionAborted(Duration duration, Exception cause) {
+		if (begin(OP_SESSION_ABORTED)) {
+			writeDuration(duration);
+			writeString(cause != null ? cause.toString() : null);
+			close();
+		}
+	}
+
+	synchronized void sessionStopped() {
+		if (begin(OP_SESSION_STOPPED)) {
+			close();
+		}
+	}
+
+	private boolean begin(int operation) {
+		if (fClosed) {
+			return false;
+		}
+		long now = System.nanoTime();
+		writeByte(operation);
+		writeVarLong(now - fLastTime);
+		fLastTime = now;
+		return true;
+	}
+
+	private void end() {
+		if (fLastTime - fLastFlush >= FLUSH_INTERVAL) {
+			endAndFlush();
+		}
+	}
+
+	private void endAndFlush() {
+		flush();
+		fLastFlush = fLastTime;
+	}
+
+	private void writeReference(ITestElement element) {
+		writeVarLong(element != null ? ((TestElement) element).getStoreIndex() + 1L : 0);
+	}
+
+	private void writeDuration(Duration duration) {
+		writeVarLong(duration != null ? duration.toNanos() + 1 : 0);
+	}
+
+	private void writeSymbol(String name) {
+		if (name == null) {
+			writeVarLong(SYMBOL_NULL);
+			return;
+		}
+		Integer number = fSymbols.get(name);
+		if (number != null) {
+			writeVarLong(number.longValue() + SYMBOL_BASE);
+		} else if (fSymbols.size() < MAX_SYMBOLS) {
+			fSymbols.put(name, Integer.valueOf(fSymbols.size()));
+			writeVarLong(SYMBOL_NEW);
+			writeString(name);
+		} else {
+			writeVarLong(SYMBOL_INLINE);
+			writeString(name);
+		}
+	}
+
+	/*
+	 * Strings are written as their length plus one, 0 for null, followed by
+	 * their UTF-8 bytes
+	 */
+	private void writeString(String string) {
+		if (string == null) {
+			writeVarLong(0);
+			return;
+		}
+		byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(bytes.length + 1L);
+		write(bytes, 0, bytes.length);
+	}
+
+	/*
+	 * A text of a failure trace is written as a string, the whole content of a
+	 * truncated text is copied from its file
+	 */
+	private void writeText(String text, SpilledText spilled) {
+		if (spilled == null) {
+			writeString(text);
+			return;
+		}
+		writeVarLong(spilled.getSize() + 1);
+		try (InputStream input = Files.newInputStream(spilled.getFile())) {
+			long remaining = spilled.getSize();
+			while (remaining > 0) {
+				if (fPosition == fBuffer.length) {
+					flush();
+				}
+				int read = input.read(fBuffer, fPosition, (int) Math.min(remaining, fBuffer.length - fPosition));
+				if (read < 0) {
+					throw new EOFException("Truncated file: " + spilled.getFile()); //$NON-NLS-1$
+				}
+				fPosition += read;
+				remaining -= read;
+			}
+		} catch (IOException e) {
+			// the record is incomplete
+			failed(e);
+		}
+	}
+
+	private void writeVarLong(long value) {
+		if (fBuffer.length - fPosition < 10) {
+			flush();
+		}
+		while ((value & ~0x7FL) != 0) {
+			fBuffer[fPosition++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		fBuffer[fPosition++] = (byte) value;
+	}
+
+	private void writeByte(int value) {
+		if (fPosition == fBuffer.length) {
+			flush();
+		}
+		fBuffer[fPosition++] = (byte) value;
+	}
+
+	private void write(byte[] bytes, int offset, int length) {
+		if (length > fBuffer.length - fPosition) {
+			flush();
+			if (length > fBuffer.length) {
+				try {
+					fOutput.write(bytes, offset, length);
+				} catch (IOException e) {
+					failed(e);
+				}
+				return;
+			}
+		}
+		System.arraycopy(bytes, offset, fBuffer, fPosition, length);
+		fPosition += length;
+	}
+
+	private void flush() {
+		if (fPosition > 0 && !fClosed) {
+			try {
+				fOutput.write(fBuffer, 0, fPosition);
+			} catch (IOException e) {
+				failed(e);
+			}
+		}
+		fPosition = 0;
+	}
+
+	private void failed(IOException e) {
+		// journaling stops, the partial journal is replayed as far as it goes
+		UnitTestPlugin.log(e);
+		fClosed = true;
+		closeOutput();
+	}
+
+	private void close() {
+		flush();
+		if (fClosed) {
+			return;
+		}
+		fClosed = true;
+		closeOutput();
+		String name = fFile.getName();
+		File complete = new File(fFile.getParentFile(),
+				name.substring(0, name.length() - PARTIAL_EXTENSION.length()) + JOURNAL_EXTENSION);
+		if (fFile.renameTo(complete)) {
+			pruneJournals();
+		}
+	}
+
+	private void closeOutput() {
+		try {
+			fOutput.close();
+		} catch (IOException e) {
+			UnitTestPlugin.log(e);
+		}
+		fgOpenJournals.remove(fFile);
+	}
+
+	/**
+	 * Deletes the oldest complete journals, keeping as many as the test runs of
+	 * the {@link UnitTestPreferencesConstants#MAX_TEST_RUNS} preference
+	 */
+	private static void pruneJournals() {
+		int maxCount = Platform.getPreferencesService().getInt(UnitTestPlugin.PLUGIN_ID,
+				UnitTestPreferencesConstants.MAX_TEST_RUNS, 10, null);
+		File[] journals = getDirectory().listFiles(file -> file.getName().endsWith(JOURNAL_EXTENSION));
+		if (journals == null || journals.length <= maxCount) {
+			return;
+		}
+		Arrays.sort(journals, Comparator.comparingLong(File::lastModified).reversed());
+		for (int i = maxCount; i < journals.length; i++) {
+			journals[i].delete();
+		}
+	}
+
+	/**
+	 * Rebuilds the test run session recorded in a journal, with the recorded
+	 * timings. The session of a partial journal is aborted after the last
+	 * recorded call.
+	 *
+	 * @param file a complete or partial journal
+	 * @return the restored test run session
+	 * @throws IOException if the journal cannot be read or is not a journal
+	 */
+	public static TestRunSession restore(File file) throws IOException {
+		try (JournalReader reader = new JournalReader(file)) {
+			TestRunSession session = new TestRunSession(reader.fTestRunName, reader.fStartTime,
+					findLaunchConfiguration(reader.fConfigurationName));
+			// the elapsed times of the elements are the recorded ones
+			session.setClock(() -> reader.fTime);
+			if (!reader.replay(session)) {
+				session.notifyTestSessionAborted(null, null);
+			}
+			session.setClock(TestClock.SYSTEM);
+			session.fStartTime = reader.fStartTime;
+			return session;
+		}
+	}
+
+	/**
+	 * Replays the calls recorded in a journal on a test run session, as fast as
+	 * possible
+	 *
+	 * @param file   a complete or partial journal
+	 * @param target the session to replay the calls on, without any test element
+	 * @return <code>true</code> if the recorded session ended, <code>false</code>
+	 *         if the journal is partial
+	 * @throws IOException if the journal cannot be read or is not a journal
+	 */
+	public static boolean replay(File file, TestRunSession target) throws IOException {
+		try (JournalReader reader = new JournalReader(file)) {
+			return reader.replay(target);
+		}
+	}
+
+	private static ILaunchConfiguration findLaunchConfiguration(String name) {
+		if (name != null) {
+			try {
+				for (ILaunchConfiguration config : DebugPlugin.getDefault().getLaunchManager()
+						.getLaunchConfigurations()) {
+					if (config.getName().equals(name)) {
+						return config;
+					}
+				}
+			} catch (CoreException e) {
+				UnitTestPlugin.log(e);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads a journal
+	 */
+	private static final class JournalReader implements Closeable {
+		private final InputStream fInput;
+		private final List<String> fSymbols = new ArrayList<>();
+		private final String fTestRunName;
+		private final String fConfigurationName;
+		private final Instant fStartTime;
+		private final long fRootIndex;
+		private final List<ITestElement> fElements = new ArrayList<>();
+
+		/**
+		 * The time of the current record, relative to the start of the journal
+		 */
+		volatile long fTime;
+
+		JournalReader(File file) throws IOException {
+			fInput = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+			byte[] magic = new byte[MAGIC.length];
+			if (fInput.readNBytes(magic, 0, magic.length) != magic.length || !Arrays.equals(magic, MAGIC)) {
+				fInput.close();
+				throw new IOException("Not a test run journal: " + file); //$NON-NLS-1$
+			}
+			fStartTime = Instant.ofEpochMilli(readVarLong());
+			fTestRunName = readSymbol();
+			fConfigurationName = readSymbol();
+			fRootIndex = readVarLong();
+		}
+
+		boolean replay(TestRunSession target) throws IOException {
+			setElement(fRootIndex, target);
+			try {
+				int operation;
+				while ((operation = fInput.read()) != -1) {
+					fTime += readVarLong();
+					switch (operation) {
+					case OP_TEST_SUITE: {
+						long index = readVarLong();
+						ITestSuiteElement parent = (ITestSuiteElement) readReference();
+						String testId = readSymbol();
+						String testName = readSymbol();
+						long testCount = readVarLong();
+						setElement(index, target.newTestSuite(testId, testName,
+								testCount != 0 ? Integer.valueOf((int) (testCount - 1)) : null, parent, readSymbol(),
+								readSymbol()));
+						break;
+					}
+					case OP_TEST_CASE: {
+						long index = readVarLong();
+						ITestSuiteElement parent = (ITestSuiteElement) readReference();
+						String testId = readSymbol();
+						String testName = readSymbol();
+						setElement(index, target.newTestCase(testId, testName, parent, readSymbol(), readSymbol()));
+						break;
+					}
+					case OP_SESSION_STARTED: {
+						long count = readVarLong();
+						target.notifyTestSessionStarted(count != 0 ? Integer.valueOf((int) (count - 1)) : null);
+						break;
+					}
+					case OP_TEST_STARTED:
+						target.notifyTestStarted(readReference());
+						break;
+					case OP_TEST_ENDED:
+						target.notifyTestEnded(readReference(), readVarLong() != 0);
+						break;
+					case OP_TEST_FAILED: {
+						ITestElement test = readReference();
+						Result status = Result.values()[(int) readVarLong()];
+						boolean isAssumptionFailed = readVarLong() != 0;
+						FailureTrace trace = readVarLong() != 0 ? readFailureTrace() : null;
+						target.notifyTestFailed(test, status, isAssumptionFailed, trace);
+						break;
+					}
+					case OP_SESSION_COMPLETED:
+						target.notifyTestSessionCompleted(readDuration());
+						return true;
+					case OP_SESSION_ABORTED: {
+						Duration duration = readDuration();
+						String cause = readString();
+						target.notifyTestSessionAborted(duration, cause != null ? new Exception(cause) : null);
+						return true;
+					}
+					case OP_SESSION_STOPPED:
+						target.abortTestRun();
+						return true;
+					default:
+						throw new IOException("Unknown journal record: " + operation); //$NON-NLS-1$
+					}
+				}
+			} catch (EOFException e) {
+				// a partial journal may end within a record
+			}
+			return false;
+		}
+
+		private void setElement(long index, ITestElement element) {
+			while (fElements.size() <= index) {
+				fElements.add(null);
+			}
+			fElements.set((int) index, element);
+		}
+
+		private ITestElement readReference() throws IOException {
+			long reference = readVarLong();
+			if (reference == 0) {
+				return null;
+			}
+			if (reference > fElements.size()) {
+				throw new IOException("Unknown test element: " + (reference - 1)); //$NON-NLS-1$
+			}
+			return fElements.get((int) (reference - 1));
+		}
+
+		private Duration readDuration() throws IOException {
+			long nanos = readVarLong();
+			return nanos != 0 ? Duration.ofNanos(nanos - 1) : null;
+		}
+
+		private String readSymbol() throws IOException {
+			int code = (int) readVarLong();
+			switch (code) {
+			case SYMBOL_NULL:
+				return null;
+			case SYMBOL_INLINE:
+				return readString();
+			case SYMBOL_NEW:
+				String name = readString();
+				fSymbols.add(name);
+				return name;
+			default:
+				if (code - SYMBOL_BASE >= fSymbols.size()) {
+					throw new IOException("Unknown name: " + (code - SYMBOL_BASE)); //$NON-NLS-1$
+				}
+				return fSymbols.get(code - SYMBOL_BASE);
+			}
+		}
+
+		private FailureTrace readFailureTrace() throws IOException {
+			BoundedTextBuffer trace = BoundedTextBuffer.forFailureTrace();
+			BoundedTextBuffer expected = BoundedTextBuffer.forComparisonResult();
+			BoundedTextBuffer actual = BoundedTextBuffer.forComparisonResult();
+			try {
+				boolean hasTrace = readText(trace);
+				boolean hasExpected = readText(expected);
+				boolean hasActual = readText(actual);
+				return SpilledFailureTrace.create(hasTrace ? trace.getText() : null,
+						hasExpected ? expected.getText() : null, hasActual ? actual.getText() : null,
+						trace.toSpilledText(), expected.toSpilledText(), actual.toSpilledText());
+			} catch (IOException e) {
+				trace.clear();
+				expected.clear();
+				actual.clear();
+				throw e;
+			}
+		}
+
+		/**
+		 * Reads a text of a failure trace into a buffer, which keeps the beginning of
+		 * a large text in memory and the whole text in a file
+		 *
+		 * @param text the buffer to fill
+		 * @return <code>false</code> if the text is <code>null</code>
+		 * @throws IOException if the journal cannot be read
+		 */
+		private boolean readText(BoundedTextBuffer text) throws IOException {
+			long length = readVarLong();
+			if (length == 0) {
+				return false;
+			}
+			CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+					.onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+			ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+			CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+			long remaining = length - 1;
+			while (remaining > 0) {
+				int read = fInput.read(bytes.array(), bytes.position(), (int) Math.min(remaining, bytes.remaining()));
+				if (read < 0) {
+					throw new EOFException();
+				}
+				bytes.position(bytes.position() + read);
+				remaining -= read;
+				bytes.flip();
+				// a character may be split between two reads
+				decoder.decode(bytes, chars, remaining == 0);
+				if (remaining == 0) {
+					decoder.flush(chars);
+				}
+				text.append(chars.flip());
+				chars.clear();
+				bytes.compact();
+			}
+			return true;
+		}
+
+		private String readString() throws IOException {
+			long length = readVarLong();
+			if (length == 0) {
+				return null;
+			}
+			byte[] bytes = new byte[(int) (length - 1)];
+			if (fInput.readNBytes(bytes, 0, bytes.length) != bytes.length) {
+				throw new EOFException();
+			}
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		private long readVarLong() throws IOException {
+			long value = 0;
+			for (int shift = 0; shift < 64; shift += 7) {
+				int b = fInput.read();
+				if (b == -1) {
+					throw new EOFException();
+				}
+				value |= (long) (b & 0x7F) << shift;
+				if ((b & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new IOException("Malformed journal"); //$NON-NLS-1$
+		}
+
+		@Override
+		public void close() throws IOException {
+			fInput.close();
+		}
+	}
+}
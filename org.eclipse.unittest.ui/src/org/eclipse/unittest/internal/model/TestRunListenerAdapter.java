@@ -14,15 +14,21 @@
 package org.eclipse.unittest.internal.model;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
 
+import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.launcher.TestListenerRegistry;
-import org.eclipse.unittest.internal.launcher.TestRunListener;
+import org.eclipse.unittest.launcher.TestRunEvent;
+import org.eclipse.unittest.launcher.TestRunListener;
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestElement;
 import org.eclipse.unittest.model.ITestElement.FailureTrace;
 import org.eclipse.unittest.model.ITestElement.Result;
 
+import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.SafeRunner;
 
 /**
  * Notifier for the callback listener API {@link TestRunListener}.
@@ -31,6 +37,11 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 
 	private final TestRunSession fSession;
 
+	/**
+	 * The publication time of the event being delivered
+	 */
+	private long fEventTime;
+
 	/**
 	 * Constructs a {@link TestRunListenerAdapter} object
 	 *
@@ -44,27 +55,75 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 		return TestListenerRegistry.getDefault().getUnitTestRunListeners();
 	}
 
-	private void fireSessionStarted() {
+	/**
+	 * Notifies every listener, an exception thrown by one of them is logged and
+	 * does not prevent notifying the others
+	 *
+	 * @param notification the call of a listener
+	 */
+	private void fireEvent(Consumer<TestRunListener> notification) {
 		for (TestRunListener listener : getListenerList()) {
-			listener.sessionStarted(fSession);
+			SafeRunner.run(new ISafeRunnable() {
+				@Override
+				public void run() throws Exception {
+					notification.accept(listener);
+				}
+
+				@Override
+				public void handleException(Throwable exception) {
+					UnitTestPlugin.log(exception);
+				}
+			});
 		}
 	}
 
+	private void fireSessionStarted() {
+		TestRunEvent event = newEvent(TestRunEvent.Kind.SESSION_STARTED, null, Result.UNDEFINED);
+		fireEvent(listener -> {
+			listener.sessionStarted(fSession);
+			listener.handleEvent(event);
+		});
+	}
+
 	private void fireSessionFinished() {
-		for (TestRunListener listener : getListenerList()) {
+		TestRunEvent event = newEvent(TestRunEvent.Kind.SESSION_FINISHED, null, fSession.getTestResult(true));
+		fireEvent(listener -> {
+			listener.handleEvent(event);
 			listener.sessionFinished(fSession);
-		}
+		});
 	}
 
 	private void fireTestCaseStarted(ITestCaseElement testCaseElement) {
-		for (TestRunListener listener : getListenerList()) {
+		TestRunEvent event = newEvent(TestRunEvent.Kind.TEST_STARTED, testCaseElement, Result.UNDEFINED);
+		fireEvent(listener -> {
 			listener.testCaseStarted(testCaseElement);
-		}
+			listener.handleEvent(event);
+		});
 	}
 
 	private void fireTestCaseFinished(ITestCaseElement testCaseElement) {
-		for (TestRunListener listener : getListenerList()) {
+		TestRunEvent event = newEvent(TestRunEvent.Kind.TEST_FINISHED, testCaseElement,
+				((TestElement) testCaseElement).getTestResult(false));
+		fireEvent(listener -> {
 			listener.testCaseFinished(testCaseElement);
+			listener.handleEvent(event);
+		});
+	}
+
+	private void fireTestFailed(ITestElement testElement, Result status) {
+		TestRunEvent event = newEvent(TestRunEvent.Kind.TEST_FAILED, testElement, status);
+		fireEvent(listener -> listener.handleEvent(event));
+	}
+
+	private TestRunEvent newEvent(TestRunEvent.Kind kind, ITestElement testElement, Result result) {
+		return new TestRunEvent(kind, testElement != null ? testElement.getId() : null, fEventTime, result);
+	}
+
+	@Override
+	public void eventsPublished(List<TestSessionEvent> events) {
+		for (TestSessionEvent event : events) {
+			fEventTime = event.getPublishTime();
+			event.dispatchTo(this);
 		}
 	}
 
@@ -105,6 +164,6 @@ public class TestRunListenerAdapter implements ITestSessionListener {
 
 	@Override
 	public void testFailed(ITestElement testElement, Result status, FailureTrace trace) {
-		// ignore
+		fireTestFailed(testElement, status);
 	}
 }
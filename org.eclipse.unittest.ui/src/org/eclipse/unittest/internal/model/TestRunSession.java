@@ -18,14 +18,17 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.launcher.TestViewSupportRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Counter;
 import org.eclipse.unittest.launcher.ITestRunnerClient;
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestElement;
@@ -35,7 +38,6 @@ import org.eclipse.unittest.ui.ITestViewSupport;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.ISafeRunnable;
-import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.SafeRunner;
 
 import org.eclipse.debug.core.DebugPlugin;
@@ -52,6 +54,19 @@ import org.eclipse.debug.core.model.ISourceLocator;
  */
 public class TestRunSession extends TestSuiteElement implements ITestRunSession, ITestRunSessionReport {
 
+	/**
+	 * The estimated heap size of a test element, including its share of the
+	 * session-wide structures
+	 */
+	private static final long ESTIMATED_ELEMENT_SIZE = 256;
+
+	/**
+	 * The events received from the test runner clients of all the sessions
+	 */
+	private static final Counter EVENTS_RECEIVED = MetricsRegistry.getDefault().counter("events.received"); //$NON-NLS-1$
+
+	private static final AtomicInteger fgSessionCount = new AtomicInteger();
+
 	/**
 	 * The launch, or <code>null</code> iff this session was run externally.
 	 */
@@ -64,9 +79,26 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	 */
 	private ITestRunnerClient fTestRunnerClient;
 
-	private final ListenerList<ITestSessionListener> fSessionListeners;
+	private final TestSessionEventBus fEventBus = new TestSessionEventBus();
 	private final TestSessionNotifier fSessionNotifier = new TestSessionNotifier();
 
+	/**
+	 * The test cases currently running, several ones for parallel runs.
+	 */
+	private final InFlightTests fInFlightTests = new InFlightTests();
+
+	/**
+	 * The prefix of the names of the metrics of this session
+	 */
+	private final String fMetricsPrefix = "session." + fgSessionCount.incrementAndGet() + '.'; //$NON-NLS-1$
+	private final Counter fEventsReceived = new Counter();
+
+	/**
+	 * The journal of the calls of the test runner client, or <code>null</code> if
+	 * this session was imported or the journal could not be created.
+	 */
+	private final TestRunJournal fJournal;
+
 	/**
 	 * The test run session's cached result, or <code>null</code> if
 	 * <code>fTestRoot != null</code>.
@@ -74,9 +106,9 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	private Result fTestResult;
 
 	/**
-	 * Map from testId to testElement.
+	 * Index from testId to testElement.
 	 */
-	private HashMap<String, TestElement> fIdToTest;
+	private volatile TestElementIndex fIdToTest;
 
 	volatile Instant fStartTime;
 	volatile Integer fPredefinedTestCount;
@@ -102,12 +134,12 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 		Assert.isNotNull(testRunName);
 		fTestRunName = testRunName;
 
-		fIdToTest = new HashMap<>();
+		fIdToTest = new TestElementIndex(0);
 
 		fTestRunnerClient = null;
+		fJournal = null;
 		fStartTime = startTime;
 
-		fSessionListeners = new ListenerList<>();
 	}
 
 	/**
@@ -130,7 +162,8 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 			fTestRunnerSupport = null;
 		}
 
-		fIdToTest = new HashMap<>();
+		fIdToTest = new TestElementIndex(0);
+		fJournal = TestRunJournal.create(this, launchConfiguration);
 
 		if (fTestRunnerSupport != null) {
 			fTestRunnerClient = fTestRunnerSupport.newTestRunnerClient(this);
@@ -162,7 +195,6 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 				// do nothing
 			}
 		});
-		fSessionListeners = new ListenerList<>();
 		setStatus(Status.RUNNING);
 		addTestSessionListener(new TestRunListenerAdapter(this));
 		fTestRunnerClient.startMonitoring();
@@ -176,7 +208,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	 */
 	public void reset() {
 		fTestResult = null;
-		fIdToTest = new HashMap<>();
+		fIdToTest = new TestElementIndex(0);
 	}
 
 	@Override
@@ -228,24 +260,16 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 		return fTestRunName;
 	}
 
-	@Override
-	public int getCurrentErrorCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentErrorCount).sum();
-	}
-
-	@Override
-	public int getCurrentFailureCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentFailureCount).sum();
-	}
-
-	@Override
-	public int getCurrentAssumptionFailureCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentAssumptionFailureCount).sum();
-	}
-
-	@Override
-	public int getCurrentIgnoredCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentIgnoredCount).sum();
+	/**
+	 * Sets the clock used to time the test elements of this session. Start times
+	 * recorded with a previous clock are not converted, so the clock should be set
+	 * before the session is started.
+	 *
+	 * @param clock a monotonic clock
+	 */
+	public void setClock(TestClock clock) {
+		Assert.isNotNull(clock);
+		getStore().setClock(clock);
 	}
 
 	/**
@@ -274,7 +298,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	 * @param listener an {@link ITestSessionListener} object
 	 */
 	public synchronized void addTestSessionListener(ITestSessionListener listener) {
-		fSessionListeners.add(listener);
+		fEventBus.addListener(listener);
 	}
 
 	/**
@@ -283,7 +307,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	 * @param listener an {@link ITestSessionListener} object
 	 */
 	public void removeTestSessionListener(ITestSessionListener listener) {
-		fSessionListeners.remove(listener);
+		fEventBus.removeListener(listener);
 	}
 
 	@Override
@@ -295,6 +319,9 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	 * Forces a test run session to abort its execution
 	 */
 	public void abortTestRun() {
+		if (fJournal != null && !fIsAborted) {
+			fJournal.sessionStopped();
+		}
 		fIsAborted = true;
 		if (fTestRunnerClient != null) {
 			fTestRunnerClient.stopTest();
@@ -312,6 +339,16 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 		return fIdToTest.get(id);
 	}
 
+	@Override
+	public TestElement getTestElement(int id) {
+		return fIdToTest.get(id);
+	}
+
+	@Override
+	public TestElement getTestElement(CharSequence text, int start, int end) {
+		return fIdToTest.get(text, start, end);
+	}
+
 	private TestElement addTreeEntry(String id, String testName, boolean isSuite, Integer testCount,
 			boolean isDynamicTest, TestSuiteElement parent, String displayName, String data) {
 		return createTestElement(parent != null ? parent : this, id, testName, isSuite, testCount, isDynamicTest,
@@ -369,7 +406,8 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 
 	/**
 	 * Listens to events from the and translates {@link ITestRunnerClient} them into
-	 * high-level model events (broadcasted to {@link ITestSessionListener}s).
+	 * high-level model events (published to {@link ITestSessionListener}s through
+	 * the {@link TestSessionEventBus}).
 	 */
 	private class TestSessionNotifier {
 
@@ -384,9 +422,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 			fStartTime = Instant.now();
 			fPredefinedTestCount = testCount;
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionStarted();
-			}
+			fEventBus.publish(TestSessionEvent.Kind.SESSION_STARTED);
 		}
 
 		/**
@@ -395,9 +431,8 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 		 * @param duration a duration of this test run
 		 */
 		public void testRunEnded(Duration duration) {
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionCompleted(duration);
-			}
+			fInFlightTests.clear();
+			fEventBus.publish(TestSessionEvent.Kind.SESSION_COMPLETED, null, null, null, duration);
 		}
 
 		/**
@@ -407,10 +442,9 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 		 */
 		public void testRunStopped(Duration duration) {
 			fIsAborted = true;
+			fInFlightTests.clear();
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.sessionAborted(duration);
-			}
+			fEventBus.publish(TestSessionEvent.Kind.SESSION_ABORTED, null, null, null, duration);
 		}
 
 		/**
@@ -433,9 +467,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 			ITestElement testElement = addTreeEntry(testId, testName, isSuite, testCount, isDynamicTest,
 					(TestSuiteElement) parent, displayName, uniqueId);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testAdded(testElement);
-			}
+			fEventBus.publish(TestSessionEvent.Kind.TEST_ADDED, testElement);
 			return testElement;
 		}
 
@@ -449,16 +481,13 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 				return;
 			}
 			if (firstStart) {
-				for (ITestSessionListener listener : fSessionListeners) {
-					listener.runningBegins();
-				}
+				fEventBus.publish(TestSessionEvent.Kind.RUNNING_BEGINS);
 				firstStart = false;
 			}
 			setStatus(test, Status.RUNNING);
+			fInFlightTests.start((TestCaseElement) test);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testStarted((ITestCaseElement) test);
-			}
+			fEventBus.publish(TestSessionEvent.Kind.TEST_STARTED, test);
 		}
 
 		/**
@@ -487,10 +516,9 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 
 			if (testCaseElement.getStatus() == Status.RUNNING)
 				setStatus(testCaseElement, Status.OK);
+			fInFlightTests.end(testCaseElement);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testEnded(testCaseElement);
-			}
+			fEventBus.publish(TestSessionEvent.Kind.TEST_ENDED, testCaseElement);
 		}
 
 		/**
@@ -514,9 +542,7 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 
 			registerTestFailureStatus((TestElement) testElement, status, trace);
 
-			for (ITestSessionListener listener : fSessionListeners) {
-				listener.testFailed(testElement, status, trace);
-			}
+			fEventBus.publish(TestSessionEvent.Kind.TEST_FAILED, testElement, status, trace, null);
 		}
 
 		private void logUnexpectedTest(String testId, ITestElement testElement) {
@@ -565,27 +591,99 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	}
 
 	/**
-	 * Returns an array of all failed {@link ITestElement}s
+	 * Returns a rough estimate of the heap size retained by the test elements of
+	 * this session and their failure traces
+	 *
+	 * @return an estimated size in bytes
+	 */
+	public long getEstimatedSize() {
+		TestElementStore store = getStore();
+		return store.size() * ESTIMATED_ELEMENT_SIZE + 2 * store.getTraceSize();
+	}
+
+	/**
+	 * Returns the index of the failed test elements of this session
+	 *
+	 * @return the failure index
+	 */
+	public FailureIndex getFailureIndex() {
+		return getStore().getFailureIndex();
+	}
+
+	/**
+	 * Returns the statistics of the event queues of the listeners of this session
+	 *
+	 * @return a new list with the statistics of every listener
+	 */
+	public List<ListenerQueueStatistics> getListenerQueueStatistics() {
+		return fEventBus.getStatistics();
+	}
+
+	private void eventReceived() {
+		fEventsReceived.increment();
+		EVENTS_RECEIVED.increment();
+	}
+
+	/**
+	 * Registers the metrics of this session: the events received, the number and
+	 * estimated size of the test elements, the pending events and the lag of the
+	 * listeners
+	 *
+	 * @param registry a metrics registry
+	 * @see #unregisterMetrics(MetricsRegistry)
+	 */
+	void registerMetrics(MetricsRegistry registry) {
+		registry.register(fMetricsPrefix + "events", fEventsReceived); //$NON-NLS-1$
+		registry.gauge(fMetricsPrefix + "elements", () -> getStore().size()); //$NON-NLS-1$
+		registry.gauge(fMetricsPrefix + "estimatedBytes", this::getEstimatedSize); //$NON-NLS-1$
+		registry.gauge(fMetricsPrefix + "listeners.depth", //$NON-NLS-1$
+				() -> getListenerQueueStatistics().stream().mapToLong(ListenerQueueStatistics::getDepth).sum());
+		registry.gauge(fMetricsPrefix + "listeners.lagMillis", () -> getListenerQueueStatistics().stream() //$NON-NLS-1$
+				.mapToLong(statistics -> statistics.getLag().toMillis()).max().orElse(0));
+	}
+
+	/**
+	 * Unregisters the metrics of this session, which must not stay reachable
+	 * from the registry once removed from the model
+	 *
+	 * @param registry a metrics registry
+	 */
+	void unregisterMetrics(MetricsRegistry registry) {
+		registry.removeAll(fMetricsPrefix);
+	}
+
+	/**
+	 * Returns the test cases of this session which are currently running
+	 *
+	 * @return the in-flight tests
+	 */
+	public InFlightTests getInFlightTests() {
+		return fInFlightTests;
+	}
+
+	/**
+	 * Returns an array of all failed {@link ITestElement}s, including the suites
+	 * containing failures
 	 *
 	 * @return an array of failed {@link ITestElement}s
 	 */
 	public List<TestElement> getAllFailedTestElements() {
 		List<TestElement> failures = new ArrayList<>();
-		addFailures(failures, this);
+		Set<TestElement> added = new HashSet<>();
+		for (TestElement failure : getFailureIndex().getFailures(null)) {
+			addFailure(failures, added, failure);
+		}
 		return Collections.unmodifiableList(failures);
 	}
 
-	private void addFailures(Collection<TestElement> failures, TestElement testElement) {
-		Result testResult = testElement.getTestResult(true);
-		if (testResult == Result.ERROR || testResult == Result.FAILURE) {
-			failures.add(testElement);
-		}
-		if (testElement instanceof TestSuiteElement) {
-			TestSuiteElement testSuiteElement = (TestSuiteElement) testElement;
-			for (TestElement child : testSuiteElement.getChildren()) {
-				addFailures(failures, child);
-			}
+	private void addFailure(List<TestElement> failures, Set<TestElement> added, TestElement testElement) {
+		// the failures are visited in depth-first order, so the suites containing a
+		// failure are added right before it
+		if (testElement == null || !added.add(testElement)) {
+			return;
 		}
+		addFailure(failures, added, testElement.getParent());
+		failures.add(testElement);
 	}
 
 	@Override
@@ -616,58 +714,86 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	@Override
 	public TestCaseElement newTestCase(String testId, String testName, ITestSuiteElement parent, String displayName,
 			String data) {
-		return (TestCaseElement) fSessionNotifier.testTreeEntry(testId, testName, false, Integer.valueOf(1), false,
-				parent, displayName, data);
+		eventReceived();
+		TestCaseElement testCase = (TestCaseElement) fSessionNotifier.testTreeEntry(testId, testName, false,
+				Integer.valueOf(1), false, parent, displayName, data);
+		if (fJournal != null) {
+			fJournal.testCase(testCase, parent, testId, testName, displayName, data);
+		}
+		return testCase;
 	}
 
 	@Override
 	public TestSuiteElement newTestSuite(String testId, String testName, Integer testCount, ITestSuiteElement parent,
 			String displayName, String data) {
-		return (TestSuiteElement) fSessionNotifier.testTreeEntry(testId, testName, true, testCount, testCount == null,
-				parent, displayName, data);
+		eventReceived();
+		TestSuiteElement testSuite = (TestSuiteElement) fSessionNotifier.testTreeEntry(testId, testName, true,
+				testCount, testCount == null, parent, displayName, data);
+		if (fJournal != null) {
+			fJournal.testSuite(testSuite, parent, testId, testName, testCount, displayName, data);
+		}
+		return testSuite;
 	}
 
 	@Override
 	public void notifyTestSessionAborted(final Duration reportDuration, Exception cause) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
 		if (reportDuration != null) {
 			setDuration(reportDuration);
 		}
-		fTestRunnerClient.stopMonitoring();
+		if (fTestRunnerClient != null) {
+			fTestRunnerClient.stopMonitoring();
+		}
+		if (fJournal != null) {
+			fJournal.sessionAborted(reportDuration, cause);
+		}
 		this.completedOrAborted = true;
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
-				fSessionNotifier.testRunStopped(fDuration);
+				fSessionNotifier.testRunStopped(getDuration());
 			}
 		});
+		UnitTestModel.getInstance().enforceMemoryBudget();
 	}
 
 	@Override
 	public void notifyTestSessionCompleted(final Duration reportDuration) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
 		if (reportDuration != null) {
 			setDuration(reportDuration);
 		}
-		fTestRunnerClient.stopMonitoring();
+		if (fTestRunnerClient != null) {
+			fTestRunnerClient.stopMonitoring();
+		}
+		if (fJournal != null) {
+			fJournal.sessionCompleted(reportDuration);
+		}
 		this.completedOrAborted = true;
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
-				fSessionNotifier.testRunEnded(fDuration);
+				fSessionNotifier.testRunEnded(getDuration());
 			}
 		});
+		UnitTestModel.getInstance().enforceMemoryBudget();
 	}
 
 	@Override
 	public void notifyTestEnded(ITestElement test, boolean isIgnored) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
+		if (fJournal != null) {
+			fJournal.testEnded(test, isIgnored);
+		}
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
@@ -678,9 +804,13 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 
 	@Override
 	public void notifyTestStarted(ITestElement test) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
+		if (fJournal != null) {
+			fJournal.testStarted(test);
+		}
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
@@ -691,10 +821,17 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 
 	@Override
 	public void notifyTestSessionStarted(final Integer count) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
 		this.predefinedTestCount = count;
+		if (count != null) {
+			fIdToTest.ensureCapacity(count.intValue());
+		}
+		if (fJournal != null) {
+			fJournal.sessionStarted(count);
+		}
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
@@ -706,12 +843,16 @@ public class TestRunSession extends TestSuiteElement implements ITestRunSession,
 	@Override
 	public void notifyTestFailed(ITestElement test, Result status, boolean isAssumptionFailed,
 			FailureTrace failureTrace) {
+		eventReceived();
 		if (isStopped()) {
 			return;
 		}
 		if (status != Result.FAILURE && status != Result.ERROR) {
 			throw new IllegalArgumentException("Status has to be FAILURE or ERROR"); //$NON-NLS-1$
 		}
+		if (fJournal != null) {
+			fJournal.testFailed(test, status, isAssumptionFailed, failureTrace);
+		}
 		SafeRunner.run(new ListenerSafeRunnable() {
 			@Override
 			public void run() {
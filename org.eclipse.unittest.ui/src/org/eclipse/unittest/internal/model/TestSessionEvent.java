@@ -0,0 +1,204 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.time.Duration;
+
+import org.eclipse.unittest.model.ITestCaseElement;
+import org.eclipse.unittest.model.ITestElement;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+import org.eclipse.unittest.model.ITestElement.Result;
+
+/**
+ * An event of a test run session, as delivered to the
+ * {@link ITestSessionListener}s.
+ * <p>
+ * Events are slots of a ring buffer which are reused once delivered: an event
+ * is only valid during the listener callback it is passed to, and must not be
+ * kept afterwards.
+ * </p>
+ */
+public final class TestSessionEvent {
+
+	/**
+	 * The kinds of test run session events, one per {@link ITestSessionListener}
+	 * callback
+	 */
+	public enum Kind {
+		/**
+		 * See {@link ITestSessionListener#sessionStarted()}
+		 */
+		SESSION_STARTED,
+		/**
+		 * See {@link ITestSessionListener#sessionCompleted(Duration)}
+		 */
+		SESSION_COMPLETED,
+		/**
+		 * See {@link ITestSessionListener#sessionAborted(Duration)}
+		 */
+		SESSION_ABORTED,
+		/**
+		 * See {@link ITestSessionListener#testAdded(ITestElement)}
+		 */
+		TEST_ADDED,
+		/**
+		 * See {@link ITestSessionListener#runningBegins()}
+		 */
+		RUNNING_BEGINS,
+		/**
+		 * See {@link ITestSessionListener#testStarted(ITestCaseElement)}
+		 */
+		TEST_STARTED,
+		/**
+		 * See {@link ITestSessionListener#testEnded(ITestCaseElement)}
+		 */
+		TEST_ENDED,
+		/**
+		 * See
+		 * {@link ITestSessionListener#testFailed(ITestElement, Result, FailureTrace)}
+		 */
+		TEST_FAILED,
+		/**
+		 * See {@link ITestSessionListener#testsChanged()}
+		 */
+		TESTS_CHANGED;
+
+		/**
+		 * Indicates if events of this kind report the progress of a single test,
+		 * and can be coalesced or dropped depending on the
+		 * {@link ITestSessionListener.DeliveryPolicy} of a listener
+		 *
+		 * @return <code>true</code> for test events
+		 */
+		public boolean isTestEvent() {
+			return this == TEST_ADDED || this == TEST_STARTED || this == TEST_ENDED || this == TEST_FAILED;
+		}
+	}
+
+	private Kind fKind;
+	private ITestElement fTestElement;
+	private Result fResult;
+	private FailureTrace fTrace;
+	private Duration fDuration;
+	private long fPublishTime;
+
+	void set(Kind kind, ITestElement testElement, Result result, FailureTrace trace, Duration duration,
+			long publishTime) {
+		fKind = kind;
+		fTestElement = testElement;
+		fResult = result;
+		fTrace = trace;
+		fDuration = duration;
+		fPublishTime = publishTime;
+	}
+
+	/**
+	 * Releases the references held by this event once delivered
+	 */
+	void clear() {
+		set(null, null, null, null, null, 0);
+	}
+
+	/**
+	 * Returns the kind of this event
+	 *
+	 * @return the event kind
+	 */
+	public Kind getKind() {
+		return fKind;
+	}
+
+	/**
+	 * Returns the test element of a test event
+	 *
+	 * @return the test element, or <code>null</code> for a session event
+	 */
+	public ITestElement getTestElement() {
+		return fTestElement;
+	}
+
+	/**
+	 * Returns the result of a {@link Kind#TEST_FAILED} event
+	 *
+	 * @return the result, or <code>null</code> for other events
+	 */
+	public Result getResult() {
+		return fResult;
+	}
+
+	/**
+	 * Returns the failure trace of a {@link Kind#TEST_FAILED} event
+	 *
+	 * @return the failure trace, or <code>null</code>
+	 */
+	public FailureTrace getTrace() {
+		return fTrace;
+	}
+
+	/**
+	 * Returns the duration of a {@link Kind#SESSION_COMPLETED} or
+	 * {@link Kind#SESSION_ABORTED} event
+	 *
+	 * @return the duration, or <code>null</code>
+	 */
+	public Duration getDuration() {
+		return fDuration;
+	}
+
+	/**
+	 * Returns the time at which this event was published
+	 *
+	 * @return the {@link System#nanoTime()} at publication
+	 */
+	public long getPublishTime() {
+		return fPublishTime;
+	}
+
+	/**
+	 * Delivers this event to the matching callback of a listener
+	 *
+	 * @param listener a test session listener
+	 */
+	public void dispatchTo(ITestSessionListener listener) {
+		switch (fKind) {
+		case SESSION_STARTED:
+			listener.sessionStarted();
+			break;
+		case SESSION_COMPLETED:
+			listener.sessionCompleted(fDuration);
+			break;
+		case SESSION_ABORTED:
+			listener.sessionAborted(fDuration);
+			break;
+		case TEST_ADDED:
+			listener.testAdded(fTestElement);
+			break;
+		case RUNNING_BEGINS:
+			listener.runningBegins();
+			break;
+		case TEST_STARTED:
+			listener.testStarted((ITestCaseElement) fTestElement);
+			break;
+		case TEST_ENDED:
+			listener.testEnded((ITestCaseElement) fTestElement);
+			break;
+		case TEST_FAILED:
+			listener.testFailed(fTestElement, fResult, fTrace);
+			break;
+		case TESTS_CHANGED:
+			listener.testsChanged();
+			break;
+		}
+	}
+}
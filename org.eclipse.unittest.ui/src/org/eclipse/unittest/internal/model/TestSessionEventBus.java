@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Timer;
+import org.eclipse.unittest.internal.model.ITestSessionListener.DeliveryPolicy;
+import org.eclipse.unittest.model.ITestElement;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+import org.eclipse.unittest.model.ITestElement.Result;
+
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.SafeRunner;
+
+/**
+ * Delivers the events of a test run session to its {@link ITestSessionListener}s.
+ * <p>
+ * Every listener has its own queue, a ring buffer of preallocated, reusable
+ * {@link TestSessionEvent} slots. The model publishes the events into the queues
+ * without waiting for the listeners, and the queues are drained by an executor
+ * shared by all the sessions: the pending events of a queue are handed to its
+ * listener in batches, in publication order, with one
+ * {@link ITestSessionListener#eventsPublished(List)} call. A slow listener,
+ * e.g. one writing the history file when a session completes, only delays its
+ * own events, never the reading of the test runner output nor the other
+ * listeners.
+ * </p>
+ * <p>
+ * The queues of the listeners with a {@link DeliveryPolicy#COALESCE} or
+ * {@link DeliveryPolicy#DROP} policy hold at most {@link #QUEUE_CAPACITY} test
+ * events, the other events are always queued. A
+ * {@link DeliveryPolicy#LOSSLESS} queue grows as long as its listener does not
+ * keep up. The publisher never waits for a listener: it may be a thread shared
+ * by all the test runner connections, or the UI thread.
+ * </p>
+ */
+final class TestSessionEventBus {
+
+	/**
+	 * The maximum number of test events pending in a bounded queue
+	 */
+	static final int QUEUE_CAPACITY = 1 << 12;
+
+	private static final int INITIAL_CAPACITY = 1 << 8;
+
+	/**
+	 * The time in milliseconds after which an idle executor thread stops
+	 */
+	private static final long IDLE_TIMEOUT = 1000;
+
+	private static final ThreadPoolExecutor EXECUTOR;
+
+	/**
+	 * The time from the publication of the first event of a batch to the start of
+	 * its delivery
+	 */
+	private static final Timer DISPATCH_LATENCY = MetricsRegistry.getDefault().timer("listeners.latency"); //$NON-NLS-1$
+
+	/**
+	 * The time spent by the listeners in {@link ITestSessionListener#eventsPublished(List)}
+	 */
+	private static final Timer DELIVERY_TIME = MetricsRegistry.getDefault().timer("listeners.delivery"); //$NON-NLS-1$
+
+	static {
+		AtomicInteger threadCount = new AtomicInteger();
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+		EXECUTOR = new ThreadPoolExecutor(threads, threads, IDLE_TIMEOUT, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable,
+							"Unit Test Session Event Dispatcher " + threadCount.incrementAndGet()); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * The queue of a listener, scheduled on the executor while it has pending
+	 * events
+	 */
+	private static final class ListenerQueue implements Runnable {
+		final ITestSessionListener fListener;
+		final DeliveryPolicy fPolicy;
+
+		private TestSessionEvent[] fSlots = newSlots(INITIAL_CAPACITY);
+		/**
+		 * The sequence number of the next event to deliver
+		 */
+		private long fHead;
+		/**
+		 * The sequence number following the last event taken for delivery
+		 */
+		private long fTaken;
+		/**
+		 * The sequence number of the next event to publish
+		 */
+		private long fTail;
+		private boolean fScheduled;
+		private boolean fRemoved;
+
+		private long fDelivered;
+		private long fDropped;
+		private long fCoalesced;
+		private long fMaxDepth;
+		private long fMaxLag;
+
+		/*
+		 * Only accessed by the delivering thread
+		 */
+		private final List<TestSessionEvent> fBatch = new ArrayList<>();
+		private final List<TestSessionEvent> fBatchView = Collections.unmodifiableList(fBatch);
+		private final ISafeRunnable fDelivery = new ISafeRunnable() {
+			@Override
+			public void run() throws Exception {
+				fListener.eventsPublished(fBatchView);
+			}
+
+			@Override
+			public void handleException(Throwable exception) {
+				UnitTestPlugin.log(exception);
+			}
+		};
+
+		ListenerQueue(ITestSessionListener listener) {
+			fListener = listener;
+			fPolicy = listener.getDeliveryPolicy();
+		}
+
+		synchronized void offer(TestSessionEvent.Kind kind, ITestElement testElement, Result result,
+				FailureTrace trace, Duration duration, long publishTime) {
+			if (fRemoved) {
+				return;
+			}
+			if (kind.isTestEvent() && fPolicy != DeliveryPolicy.LOSSLESS && fTail - fHead >= QUEUE_CAPACITY) {
+				if (fPolicy == DeliveryPolicy.DROP) {
+					fDropped++;
+					return;
+				}
+				fCoalesced++;
+				// a marker not yet taken for delivery also covers this event
+				if (fTail > fTaken && slot(fTail - 1).getKind() == TestSessionEvent.Kind.TESTS_CHANGED) {
+					return;
+				}
+				kind = TestSessionEvent.Kind.TESTS_CHANGED;
+				testElement = null;
+				result = null;
+				trace = null;
+			}
+			if (fTail - fHead == fSlots.length) {
+				grow();
+			}
+			slot(fTail).set(kind, testElement, result, trace, duration, publishTime);
+			fTail++;
+			fMaxDepth = Math.max(fMaxDepth, fTail - fHead);
+			if (!fScheduled) {
+				fScheduled = true;
+				EXECUTOR.execute(this);
+			}
+		}
+
+		synchronized void remove() {
+			fRemoved = true;
+		}
+
+		@Override
+		public void run() {
+			while (takeBatch()) {
+				long start = System.nanoTime();
+				SafeRunner.run(fDelivery);
+				DELIVERY_TIME.recordSince(start);
+				for (TestSessionEvent event : fBatch) {
+					event.clear();
+				}
+				synchronized (this) {
+					fHead += fBatch.size();
+					fDelivered += fBatch.size();
+				}
+				fBatch.clear();
+			}
+		}
+
+		/**
+		 * Collects the pending events into the current batch
+		 *
+		 * @return <code>false</code> if there is no event to deliver
+		 */
+		private synchronized boolean takeBatch() {
+			if (fHead == fTail || fRemoved) {
+				fScheduled = false;
+				return false;
+			}
+			// the slots of the batch are not reused before fHead is moved past them
+			for (long sequence = fHead; sequence < fTail; sequence++) {
+				fBatch.add(slot(sequence));
+			}
+			fTaken = fTail;
+			long lag = System.nanoTime() - slot(fHead).getPublishTime();
+			fMaxLag = Math.max(fMaxLag, lag);
+			DISPATCH_LATENCY.record(lag);
+			return true;
+		}
+
+		private TestSessionEvent slot(long sequence) {
+			return fSlots[(int) (sequence & (fSlots.length - 1))];
+		}
+
+		private void grow() {
+			TestSessionEvent[] slots = fSlots;
+			TestSessionEvent[] grown = new TestSessionEvent[slots.length * 2];
+			// keep every pending event at the index of its sequence number
+			for (long sequence = fHead; sequence < fTail; sequence++) {
+				grown[(int) (sequence & (grown.length - 1))] = slots[(int) (sequence & (slots.length - 1))];
+			}
+			for (int i = 0; i < grown.length; i++) {
+				if (grown[i] == null) {
+					grown[i] = new TestSessionEvent();
+				}
+			}
+			fSlots = grown;
+		}
+
+		synchronized ListenerQueueStatistics getStatistics() {
+			long depth = fTail - fHead;
+			long lag = depth == 0 ? 0 : System.nanoTime() - slot(fHead).getPublishTime();
+			return new ListenerQueueStatistics(fListener, fPolicy, depth, fMaxDepth, Duration.ofNanos(lag),
+					Duration.ofNanos(fMaxLag), fDelivered, fDropped, fCoalesced);
+		}
+	}
+
+	private volatile ListenerQueue[] fQueues = new ListenerQueue[0];
+
+	/**
+	 * Adds a listener, which is notified of the events published from now on
+	 *
+	 * @param listener a test session listener
+	 */
+	synchronized void addListener(ITestSessionListener listener) {
+		for (ListenerQueue queue : fQueues) {
+			if (queue.fListener == listener) {
+				return;
+			}
+		}
+		ListenerQueue[] queues = Arrays.copyOf(fQueues, fQueues.length + 1);
+		queues[queues.length - 1] = new ListenerQueue(listener);
+		fQueues = queues;
+	}
+
+	/**
+	 * Removes a listener. The events still pending for the listener are not
+	 * delivered.
+	 *
+	 * @param listener a test session listener
+	 */
+	synchronized void removeListener(ITestSessionListener listener) {
+		ListenerQueue[] queues = fQueues;
+		for (int i = 0; i < queues.length; i++) {
+			if (queues[i].fListener == listener) {
+				queues[i].remove();
+				ListenerQueue[] removed = new ListenerQueue[queues.length - 1];
+				System.arraycopy(queues, 0, removed, 0, i);
+				System.arraycopy(queues, i + 1, removed, i, removed.length - i);
+				fQueues = removed;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Publishes an event to all the listeners
+	 *
+	 * @param kind        the kind of event
+	 * @param testElement the test element, or <code>null</code> for a session
+	 *                    event
+	 * @param result      the result of a failure, or <code>null</code>
+	 * @param trace       the trace of a failure, or <code>null</code>
+	 * @param duration    the duration of a session, or <code>null</code>
+	 */
+	synchronized void publish(TestSessionEvent.Kind kind, ITestElement testElement, Result result,
+			FailureTrace trace, Duration duration) {
+		long publishTime = System.nanoTime();
+		for (ListenerQueue queue : fQueues) {
+			queue.offer(kind, testElement, result, trace, duration, publishTime);
+		}
+	}
+
+	/**
+	 * Publishes a session event
+	 *
+	 * @param kind the kind of event
+	 */
+	void publish(TestSessionEvent.Kind kind) {
+		publish(kind, null, null, null, null);
+	}
+
+	/**
+	 * Publishes a test event
+	 *
+	 * @param kind        the kind of event
+	 * @param testElement the test element
+	 */
+	void publish(TestSessionEvent.Kind kind, ITestElement testElement) {
+		publish(kind, testElement, null, null, null);
+	}
+
+	/**
+	 * Returns the statistics of the queues of the listeners
+	 *
+	 * @return a new list with the statistics of every listener
+	 */
+	List<ListenerQueueStatistics> getStatistics() {
+		ListenerQueue[] queues = fQueues;
+		List<ListenerQueueStatistics> statistics = new ArrayList<>(queues.length);
+		for (ListenerQueue queue : queues) {
+			statistics.add(queue.getStatistics());
+		}
+		return statistics;
+	}
+
+	private static TestSessionEvent[] newSlots(int capacity) {
+		TestSessionEvent[] slots = new TestSessionEvent[capacity];
+		for (int i = 0; i < capacity; i++) {
+			slots[i] = new TestSessionEvent();
+		}
+		return slots;
+	}
+}
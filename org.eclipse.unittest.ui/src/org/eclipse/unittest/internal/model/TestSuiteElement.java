@@ -14,10 +14,6 @@
 
 package org.eclipse.unittest.internal.model;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -29,10 +25,26 @@ import org.eclipse.unittest.model.ITestSuiteElement;
  */
 public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
-	private final List<TestElement> fChildren;
+	private final ChildList fChildren;
+	private int fNextSiblingOrdinal;
 	private Status fChildrenStatus;
 	private Integer expectedTestCount;
 
+	/**
+	 * Number of children per status, indexed by {@link Status#ordinal()}
+	 */
+	private final int[] fChildrenStatusCounts = new int[Status.count()];
+
+	/*
+	 * Result counters aggregated over all test cases below this suite, kept up to
+	 * date by the test cases themselves (see TestCaseElement#updateCounters())
+	 */
+	private int fStartedCount;
+	private int fFailureCount;
+	private int fErrorCount;
+	private int fIgnoredCount;
+	private int fAssumptionFailureCount;
+
 	/**
 	 * Constructs a test suite object
 	 *
@@ -47,7 +59,7 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 			String displayName, String data) {
 		super(parent, id, testName, displayName, data);
 		this.expectedTestCount = expectedChildrenCount;
-		fChildren = new ArrayList<>(expectedChildrenCount == null ? 0 : expectedChildrenCount.intValue());
+		fChildren = new ChildList(expectedChildrenCount == null ? 0 : expectedChildrenCount.intValue());
 	}
 
 	@Override
@@ -61,7 +73,7 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
 	@Override
 	public List<TestElement> getChildren() {
-		return Collections.unmodifiableList(fChildren);
+		return fChildren.snapshot();
 	}
 
 	/**
@@ -70,7 +82,9 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	 * @param child a child {@link ITestElement}
 	 */
 	public void addChild(TestElement child) {
+		child.fSiblingOrdinal = fNextSiblingOrdinal++;
 		fChildren.add(child);
+		countChildStatus(child, child.getStatus());
 	}
 
 	/**
@@ -79,7 +93,32 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	 * @param child a child {@link ITestElement}
 	 */
 	public void removeChild(TestElement child) {
-		fChildren.remove(child);
+		if (fChildren.remove(child)) {
+			countChildStatus(child, null);
+			adjustCounters(-child.countStartedTestCases(), -child.getCurrentFailureCount(),
+					-child.getCurrentErrorCount(), -child.getCurrentIgnoredCount(),
+					-child.getCurrentAssumptionFailureCount());
+		}
+	}
+
+	/**
+	 * Adds the given deltas to the result counters of this test suite element and
+	 * all its parents
+	 *
+	 * @param started            a delta for the number of started test cases
+	 * @param failures           a delta for the number of failed test cases
+	 * @param errors             a delta for the number of test cases with errors
+	 * @param ignored            a delta for the number of ignored test cases
+	 * @param assumptionFailures a delta for the number of assumption failures
+	 */
+	void adjustCounters(int started, int failures, int errors, int ignored, int assumptionFailures) {
+		for (TestSuiteElement suite = this; suite != null; suite = suite.getParent()) {
+			suite.fStartedCount += started;
+			suite.fFailureCount += failures;
+			suite.fErrorCount += errors;
+			suite.fIgnoredCount += ignored;
+			suite.fAssumptionFailureCount += assumptionFailures;
+		}
 	}
 
 	@Override
@@ -95,21 +134,34 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	}
 
 	private Status getCumulatedStatus() {
-		TestElement[] children = fChildren.toArray(new TestElement[fChildren.size()]); // copy list to avoid concurreny
-																						// problems
-		if (children.length == 0)
-			return getSuiteStatus();
-
-		Status cumulated = children[0].getStatus();
+		// combining is idempotent, commutative and associative, so it is enough to
+		// combine each status present among the children once
+		Status cumulated = null;
+		for (int i = 0; i < fChildrenStatusCounts.length; i++) {
+			if (fChildrenStatusCounts[i] > 0) {
+				Status childStatus = Status.valueOf(i);
+				cumulated = cumulated == null ? childStatus : combineStatus(cumulated, childStatus);
+			}
+		}
+		return cumulated != null ? cumulated : getSuiteStatus();
+	}
 
-		for (int i = 1; i < children.length; i++) {
-			Status childStatus = children[i].getStatus();
-			cumulated = combineStatus(cumulated, childStatus);
+	/**
+	 * Moves a child from the histogram bucket of its previously counted status to
+	 * the bucket of the given status
+	 *
+	 * @param child  a child element
+	 * @param status a new status of the child, or <code>null</code> if the child
+	 *               is removed
+	 */
+	private void countChildStatus(TestElement child, Status status) {
+		if (child.fCountedStatus != null) {
+			fChildrenStatusCounts[child.fCountedStatus.ordinal()]--;
+		}
+		if (status != null) {
+			fChildrenStatusCounts[status.ordinal()]++;
 		}
-		// not necessary, see special code in Status.combineProgress()
-//		if (suiteStatus.isErrorOrFailure() && cumulated.isNotRun())
-//			return suiteStatus; //progress is Done if error in Suite and no children run
-		return cumulated;
+		child.fCountedStatus = status;
 	}
 
 	/**
@@ -129,16 +181,22 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 	 * @param childStatus a new status value
 	 */
 	public void childChangedStatus(ITestElement child, Status childStatus) {
-		int childCount = fChildren.size();
-		if (child == fChildren.get(0) && childStatus.isRunning()) {
-			// is first child, and is running -> copy status
+		// a suite reports its own status here, so count its combined status
+		countChildStatus((TestElement) child, ((TestElement) child).getStatus());
+
+		ChildList.Snapshot children = fChildren.snapshot();
+		if (childStatus.isRunning()
+				&& (child == children.get(0) || fChildrenStatus == null || !fChildrenStatus.isRunning())) {
+			// is first child, or first child to run when children run in parallel, and
+			// is running -> copy status
 			internalSetChildrenStatus(childStatus);
 			return;
 		}
-		TestElement lastChild = fChildren.get(childCount - 1);
+		TestElement lastChild = children.getLast();
 		if (child == lastChild) {
 			if (childStatus.isDone()) {
-				// all children done, collect cumulative status
+				// collect cumulative status, still running if children run in parallel and
+				// some have not ended yet
 				internalSetChildrenStatus(getCumulatedStatus());
 				return;
 			}
@@ -171,14 +229,13 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 			return;
 
 		if (status == Status.RUNNING) {
-			if (fDuration != null) {
+			if (hasDuration()) {
 				// re-running child: ignore change
 			} else {
-				testStartedInstant = Instant.now();
+				recordStartTime();
 			}
-		} else if (status.convertToProgressState() == ProgressState.COMPLETED && fDuration == null
-				&& testStartedInstant != null) {
-			fDuration = Duration.between(testStartedInstant, Instant.now());
+		} else if (status.convertToProgressState() == ProgressState.COMPLETED && !hasDuration() && hasStartTime()) {
+			recordDuration();
 		}
 
 		fChildrenStatus = status;
@@ -261,27 +318,27 @@ public class TestSuiteElement extends TestElement implements ITestSuiteElement {
 
 	@Override
 	public int countStartedTestCases() {
-		return getChildren().stream().mapToInt(TestElement::countStartedTestCases).sum();
+		return fStartedCount;
 	}
 
 	@Override
-	int getCurrentFailureCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentFailureCount).sum();
+	public int getCurrentFailureCount() {
+		return fFailureCount;
 	}
 
 	@Override
-	int getCurrentAssumptionFailureCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentAssumptionFailureCount).sum();
+	public int getCurrentAssumptionFailureCount() {
+		return fAssumptionFailureCount;
 	}
 
 	@Override
-	int getCurrentIgnoredCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentIgnoredCount).sum();
+	public int getCurrentIgnoredCount() {
+		return fIgnoredCount;
 	}
 
 	@Override
-	int getCurrentErrorCount() {
-		return getChildren().stream().mapToInt(TestElement::getCurrentErrorCount).sum();
+	public int getCurrentErrorCount() {
+		return fErrorCount;
 	}
 
 }
@@ -17,9 +17,9 @@ import java.util.HashSet;
 
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.launcher.TestListenerRegistry;
-import org.eclipse.unittest.internal.launcher.TestRunListener;
 import org.eclipse.unittest.internal.launcher.TestViewSupportRegistry;
 import org.eclipse.unittest.internal.launcher.UnitTestLaunchConfigurationConstants;
+import org.eclipse.unittest.launcher.TestRunListener;
 import org.eclipse.unittest.ui.ITestViewSupport;
 
 import org.eclipse.core.runtime.CoreException;
@@ -16,9 +16,12 @@ package org.eclipse.unittest.internal.model;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -29,6 +32,7 @@ import org.xml.sax.SAXException;
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.UnitTestPreferencesConstants;
 import org.eclipse.unittest.internal.junitXmlReport.TestRunHandler;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
 import org.eclipse.unittest.model.ITestRunSession;
 
 import org.eclipse.core.runtime.Assert;
@@ -38,17 +42,34 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Platform;
+import org.eclipse.core.runtime.jobs.Job;
 
 /**
  * Central registry for Unit Test test runs.
  */
 public final class UnitTestModel {
 
+	private static final String METRIC_SESSIONS = "model.sessions"; //$NON-NLS-1$
+	private static final String METRIC_ESTIMATED_BYTES = "model.estimatedBytes"; //$NON-NLS-1$
+
 	private final ListenerList<ITestRunSessionListener> fTestRunSessionListeners = new ListenerList<>();
 	/**
 	 * Active test run sessions, youngest first.
 	 */
 	private final LinkedList<TestRunSession> fTestRunSessions = new LinkedList<>();
+	/**
+	 * Active test run sessions, least recently viewed first.
+	 */
+	private final LinkedHashSet<TestRunSession> fViewOrder = new LinkedHashSet<>();
+	/**
+	 * Sessions currently shown, with the number of views showing them.
+	 */
+	private final Map<TestRunSession, Integer> fShownSessions = new HashMap<>();
+	/**
+	 * Swaps out the sessions beyond the memory budget one at a time, off the
+	 * threads reading the test runners and off the UI thread.
+	 */
+	private final Job fSwapOutJob = Job.createSystem("Swap out test runs", monitor -> swapOutBeyondBudget()); //$NON-NLS-1$
 
 	private static UnitTestModel INSTANCE = null;
 
@@ -100,6 +121,10 @@ public final class UnitTestModel {
 //		}
 
 //		addTestRunSessionListener(new LegacyTestRunSessionListener());
+
+		MetricsRegistry.getDefault().gauge(METRIC_SESSIONS, () -> getTestRunSessions().size());
+		MetricsRegistry.getDefault().gauge(METRIC_ESTIMATED_BYTES,
+				() -> getTestRunSessions().stream().mapToLong(TestRunSession::getEstimatedSize).sum());
 	}
 
 	/**
@@ -117,6 +142,8 @@ public final class UnitTestModel {
 //				}
 //			});
 //		}
+		MetricsRegistry.getDefault().removeAll(METRIC_SESSIONS);
+		MetricsRegistry.getDefault().removeAll(METRIC_ESTIMATED_BYTES);
 	}
 
 	/**
@@ -151,7 +178,9 @@ public final class UnitTestModel {
 	 * test run sessions.
 	 *
 	 * The list length is limited by the value of
-	 * {@link UnitTestPreferencesConstants#MAX_TEST_RUNS} preference.
+	 * {@link UnitTestPreferencesConstants#MAX_TEST_RUNS} preference, and the
+	 * sessions kept in memory by the value of
+	 * {@link UnitTestPreferencesConstants#MAX_TEST_RUNS_HEAP_SIZE} preference.
 	 *
 	 * @param testRunSession a {@link TestRunSession} object to be added
 	 * @see org.eclipse.unittest.internal.UnitTestPreferencesConstants#MAX_TEST_RUNS
@@ -164,6 +193,7 @@ public final class UnitTestModel {
 		synchronized (this) {
 			Assert.isLegal(!fTestRunSessions.contains(testRunSession));
 			fTestRunSessions.addFirst(testRunSession);
+			fViewOrder.add(testRunSession);
 
 			int maxCount = Platform.getPreferencesService().getInt(UnitTestPlugin.PLUGIN_ID,
 					UnitTestPreferencesConstants.MAX_TEST_RUNS, 10, null);
@@ -175,13 +205,105 @@ public final class UnitTestModel {
 					if (oldSession.isStopped()) {
 						toRemove.add(oldSession);
 						iter.remove();
+						fViewOrder.remove(oldSession);
+						fShownSessions.remove(oldSession);
 					}
 				}
 			}
 		}
 
-		toRemove.forEach(this::notifyTestRunSessionRemoved);
+		testRunSession.registerMetrics(MetricsRegistry.getDefault());
+		for (TestRunSession oldSession : toRemove) {
+			oldSession.unregisterMetrics(MetricsRegistry.getDefault());
+			notifyTestRunSessionRemoved(oldSession);
+		}
 		notifyTestRunSessionAdded(testRunSession);
+		enforceMemoryBudget();
+	}
+
+	/**
+	 * Marks a test run session as shown in a view, and as the most recently
+	 * viewed session. A session that has been swapped out and reloaded becomes an
+	 * active session again.
+	 *
+	 * @param testRunSession a test run session, can be <code>null</code>
+	 * @see #hideTestRunSession(TestRunSession)
+	 */
+	public void showTestRunSession(TestRunSession testRunSession) {
+		if (testRunSession == null) {
+			return;
+		}
+		synchronized (this) {
+			if (!fTestRunSessions.contains(testRunSession)) {
+				fTestRunSessions.addLast(testRunSession);
+				testRunSession.registerMetrics(MetricsRegistry.getDefault());
+			}
+			fViewOrder.remove(testRunSession);
+			fViewOrder.add(testRunSession);
+			fShownSessions.merge(testRunSession, Integer.valueOf(1), (a, b) -> Integer.valueOf(a.intValue() + 1));
+		}
+		enforceMemoryBudget();
+	}
+
+	/**
+	 * Marks a test run session as no longer shown in a view
+	 *
+	 * @param testRunSession a test run session, can be <code>null</code>
+	 * @see #showTestRunSession(TestRunSession)
+	 */
+	public synchronized void hideTestRunSession(TestRunSession testRunSession) {
+		if (testRunSession != null) {
+			fShownSessions.computeIfPresent(testRunSession,
+					(session, count) -> count.intValue() > 1 ? Integer.valueOf(count.intValue() - 1) : null);
+		}
+	}
+
+	/**
+	 * Schedules the swap out of the least recently viewed sessions, which are
+	 * neither shown nor running, until the estimated heap size of the active
+	 * sessions fits into the value of
+	 * {@link UnitTestPreferencesConstants#MAX_TEST_RUNS_HEAP_SIZE} preference.
+	 */
+	void enforceMemoryBudget() {
+		fSwapOutJob.schedule();
+	}
+
+	private void swapOutBeyondBudget() {
+		long maxSize = Platform.getPreferencesService().getLong(UnitTestPlugin.PLUGIN_ID,
+				UnitTestPreferencesConstants.MAX_TEST_RUNS_HEAP_SIZE, Runtime.getRuntime().maxMemory() / 4, null);
+		List<TestRunSession> toSwapOut = new ArrayList<>();
+		synchronized (this) {
+			long size = 0;
+			for (TestRunSession session : fTestRunSessions) {
+				size += session.getEstimatedSize();
+			}
+			for (Iterator<TestRunSession> iter = fViewOrder.iterator(); iter.hasNext() && size > maxSize;) {
+				TestRunSession session = iter.next();
+				// completed or aborted
+				if (!session.isRunning() && !session.isStarting() && !fShownSessions.containsKey(session)) {
+					toSwapOut.add(session);
+					size -= session.getEstimatedSize();
+				}
+			}
+		}
+		toSwapOut.forEach(this::swapOut);
+	}
+
+	private void swapOut(TestRunSession testRunSession) {
+		boolean swappedOut = false;
+		for (ITestRunSessionListener listener : fTestRunSessionListeners) {
+			swappedOut |= listener.swapOut(testRunSession);
+		}
+		if (swappedOut) {
+			synchronized (this) {
+				if (!fShownSessions.containsKey(testRunSession)) {
+					// not removed: the history keeps the session, it just leaves the memory
+					fTestRunSessions.remove(testRunSession);
+					fViewOrder.remove(testRunSession);
+					testRunSession.unregisterMetrics(MetricsRegistry.getDefault());
+				}
+			}
+		}
 	}
 
 	/**
@@ -266,8 +388,11 @@ public final class UnitTestModel {
 		boolean existed;
 		synchronized (this) {
 			existed = fTestRunSessions.remove(testRunSession);
+			fViewOrder.remove(testRunSession);
+			fShownSessions.remove(testRunSession);
 		}
 		if (existed) {
+			testRunSession.unregisterMetrics(MetricsRegistry.getDefault());
 			notifyTestRunSessionRemoved(testRunSession);
 		}
 	}
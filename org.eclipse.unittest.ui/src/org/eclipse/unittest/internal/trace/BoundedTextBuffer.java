@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.trace;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
+import org.eclipse.unittest.internal.UnitTestPreferencesConstants;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+
+import org.eclipse.core.runtime.Platform;
+
+/**
+ * Collects a text of a {@link FailureTrace}, e.g. a trace or an expected
+ * result, received in pieces by a test runner client, with a bounded memory
+ * footprint.
+ * <p>
+ * The text is kept in memory up to a maximum size. Beyond it, only its
+ * beginning stays in memory, and the whole text is streamed to a temporary
+ * file through a small write buffer, whatever its size: the text is then
+ * available as a {@link SpilledText}.
+ * </p>
+ * <p>
+ * A buffer is reused for the texts of successive failures, in the thread of
+ * its client.
+ * </p>
+ */
+public final class BoundedTextBuffer {
+
+	private static final int DEFAULT_MAX_SIZE = 1 << 20;
+
+	private final int fMaxSize;
+	private final StringBuilder fText = new StringBuilder();
+	/**
+	 * The number of UTF-8 bytes of {@link #fText}
+	 */
+	private int fSize;
+	private Path fFile;
+	private Writer fWriter;
+	private boolean fSpillFailed;
+
+	/**
+	 * Constructs a buffer
+	 *
+	 * @param maxSize the maximum number of UTF-8 bytes kept in memory
+	 */
+	public BoundedTextBuffer(int maxSize) {
+		fMaxSize = maxSize;
+	}
+
+	/**
+	 * Constructs a buffer for failure traces, bounded by the
+	 * {@link UnitTestPreferencesConstants#MAX_FAILURE_TRACE_SIZE} preference
+	 *
+	 * @return a buffer
+	 */
+	public static BoundedTextBuffer forFailureTrace() {
+		return new BoundedTextBuffer(getMaxSize(UnitTestPreferencesConstants.MAX_FAILURE_TRACE_SIZE));
+	}
+
+	/**
+	 * Constructs a buffer for expected or actual results, bounded by the
+	 * {@link UnitTestPreferencesConstants#MAX_COMPARISON_RESULT_SIZE} preference
+	 *
+	 * @return a buffer
+	 */
+	public static BoundedTextBuffer forComparisonResult() {
+		return new BoundedTextBuffer(getMaxSize(UnitTestPreferencesConstants.MAX_COMPARISON_RESULT_SIZE));
+	}
+
+	private static int getMaxSize(String key) {
+		return Platform.getPreferencesService().getInt(UnitTestPlugin.PLUGIN_ID, key, DEFAULT_MAX_SIZE, null);
+	}
+
+	/**
+	 * Appends a piece of the text
+	 *
+	 * @param text a piece of the text
+	 * @return this buffer
+	 */
+	public BoundedTextBuffer append(CharSequence text) {
+		int size = utf8Size(text, text.length());
+		if (!isTruncated() && fSize + size <= fMaxSize) {
+			fText.append(text);
+			fSize += size;
+			return this;
+		}
+		if (fWriter == null && !fSpillFailed) {
+			startSpill();
+		}
+		if (fSize < fMaxSize) {
+			int end = prefixLength(text, fMaxSize - fSize);
+			fText.append(text, 0, end);
+			fSize += utf8Size(text, end);
+		}
+		if (fWriter != null) {
+			try {
+				fWriter.append(text);
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+				fSpillFailed = true;
+				deleteFile();
+			}
+		}
+		return this;
+	}
+
+	/**
+	 * Tells whether the buffer is empty
+	 *
+	 * @return <code>true</code> if nothing has been appended since the buffer was
+	 *         cleared
+	 */
+	public boolean isEmpty() {
+		return fText.length() == 0;
+	}
+
+	/**
+	 * Tells whether the text has exceeded the maximum size
+	 *
+	 * @return <code>true</code> if {@link #getText()} is only the beginning of the
+	 *         text
+	 */
+	public boolean isTruncated() {
+		return fWriter != null || fSpillFailed;
+	}
+
+	/**
+	 * Returns the text kept in memory
+	 *
+	 * @return the text, or its beginning if it has been truncated
+	 */
+	public String getText() {
+		return fText.toString();
+	}
+
+	/**
+	 * Returns the text kept in memory, without its last line delimiter
+	 *
+	 * @return the text, or <code>null</code> if the buffer is empty
+	 */
+	public String getTextWithoutLastDelimiter() {
+		int length = fText.length();
+		if (length == 0) {
+			return null;
+		}
+		if (!isTruncated()) {
+			if (fText.charAt(length - 1) == '\n') {
+				length--;
+			}
+			if (length > 0 && fText.charAt(length - 1) == '\r') {
+				length--;
+			}
+		}
+		return fText.substring(0, length);
+	}
+
+	/**
+	 * Constructs a failure trace from the texts of buffers, which hand over the
+	 * files of their truncated texts to the failure trace
+	 *
+	 * @param trace    the buffer of the trace
+	 * @param expected the buffer of the expected result
+	 * @param actual   the buffer of the actual result
+	 * @return a new failure trace, whose expected and actual results are
+	 *         <code>null</code> if their buffer is empty
+	 */
+	public static FailureTrace toFailureTrace(BoundedTextBuffer trace, BoundedTextBuffer expected,
+			BoundedTextBuffer actual) {
+		return SpilledFailureTrace.create(trace.getText(), expected.getTextWithoutLastDelimiter(),
+				actual.getTextWithoutLastDelimiter(), trace.toSpilledText(), expected.toSpilledText(),
+				actual.toSpilledText());
+	}
+
+	/**
+	 * Completes the file of a truncated text and hands it over to the caller,
+	 * e.g. to a {@link FailureTrace}, which becomes responsible for deleting it
+	 *
+	 * @return the whole text, or <code>null</code> if the text has not been
+	 *         truncated or could not be written to a file
+	 */
+	public SpilledText toSpilledText() {
+		if (fWriter == null) {
+			return null;
+		}
+		Path file = fFile;
+		try {
+			fWriter.close();
+			fWriter = null;
+			fFile = null;
+			return new SpilledText(file, Files.size(file));
+		} catch (IOException e) {
+			UnitTestPlugin.log(e);
+			deleteFile();
+			return null;
+		}
+	}
+
+	/**
+	 * Clears the buffer, deleting the file of a truncated text which has not been
+	 * handed over by {@link #toSpilledText()}
+	 */
+	public void clear() {
+		fText.setLength(0);
+		if (fText.capacity() > fMaxSize) {
+			// don't keep the capacity of an exceptionally large text
+			fText.trimToSize();
+		}
+		fSize = 0;
+		deleteFile();
+		fSpillFailed = false;
+	}
+
+	private void startSpill() {
+		try {
+			fFile = Files.createTempFile("unittest-failure", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+			fWriter = Files.newBufferedWriter(fFile, StandardCharsets.UTF_8);
+			fWriter.append(fText);
+		} catch (IOException e) {
+			UnitTestPlugin.log(e);
+			fSpillFailed = true;
+			deleteFile();
+		}
+	}
+
+	private void deleteFile() {
+		if (fWriter != null) {
+			try {
+				fWriter.close();
+			} catch (IOException e) {
+				// the file is deleted anyway
+			}
+			fWriter = null;
+		}
+		if (fFile != null) {
+			try {
+				Files.deleteIfExists(fFile);
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+			}
+			fFile = null;
+		}
+	}
+
+	/**
+	 * Returns the number of characters of the longest prefix of a text which fits
+	 * in a number of UTF-8 bytes, without splitting a surrogate pair
+	 */
+	private static int prefixLength(CharSequence text, int maxSize) {
+		int size = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			size += utf8Size(c);
+			if (size > maxSize) {
+				return i > 0 && Character.isHighSurrogate(text.charAt(i - 1)) ? i - 1 : i;
+			}
+		}
+		return length;
+	}
+
+	private static int utf8Size(CharSequence text, int end) {
+		int size = 0;
+		for (int i = 0; i < end; i++) {
+			size += utf8Size(text.charAt(i));
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of UTF-8 bytes of a character, counting 2 bytes for each
+	 * surrogate of a 4 bytes sequence
+	 */
+	private static int utf8Size(char c) {
+		if (c < 0x80) {
+			return 1;
+		}
+		if (c < 0x800 || Character.isSurrogate(c)) {
+			return 2;
+		}
+		return 3;
+	}
+}
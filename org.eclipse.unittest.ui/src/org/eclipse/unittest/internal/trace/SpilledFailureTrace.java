@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.trace;
+
+import java.util.Objects;
+
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
+
+/**
+ * A failure trace whose texts may have been truncated, along with the
+ * {@link SpilledText files} of their whole content.
+ */
+public final class SpilledFailureTrace extends FailureTrace {
+	private final SpilledText fSpilledTrace;
+	private final SpilledText fSpilledExpected;
+	private final SpilledText fSpilledActual;
+
+	/**
+	 * Constructs a failure trace whose texts may have been truncated
+	 *
+	 * @param trace           the beginning of the trace
+	 * @param expected        the beginning of the expected result, or
+	 *                        <code>null</code>
+	 * @param actual          the beginning of the actual result, or
+	 *                        <code>null</code>
+	 * @param spilledTrace    the whole trace if it has been truncated, or
+	 *                        <code>null</code>
+	 * @param spilledExpected the whole expected result if it has been truncated,
+	 *                        or <code>null</code>
+	 * @param spilledActual   the whole actual result if it has been truncated, or
+	 *                        <code>null</code>
+	 */
+	private SpilledFailureTrace(String trace, String expected, String actual, SpilledText spilledTrace,
+			SpilledText spilledExpected, SpilledText spilledActual) {
+		super(trace, expected, actual);
+		fSpilledTrace = spilledTrace;
+		fSpilledExpected = spilledExpected;
+		fSpilledActual = spilledActual;
+	}
+
+	/**
+	 * Constructs a failure trace, holding the files of the truncated texts if
+	 * any
+	 *
+	 * @param trace           the beginning of the trace
+	 * @param expected        the beginning of the expected result, or
+	 *                        <code>null</code>
+	 * @param actual          the beginning of the actual result, or
+	 *                        <code>null</code>
+	 * @param spilledTrace    the whole trace if it has been truncated, or
+	 *                        <code>null</code>
+	 * @param spilledExpected the whole expected result if it has been truncated,
+	 *                        or <code>null</code>
+	 * @param spilledActual   the whole actual result if it has been truncated, or
+	 *                        <code>null</code>
+	 * @return a new failure trace
+	 */
+	public static FailureTrace create(String trace, String expected, String actual, SpilledText spilledTrace,
+			SpilledText spilledExpected, SpilledText spilledActual) {
+		if (spilledTrace == null && spilledExpected == null && spilledActual == null) {
+			return new FailureTrace(trace, expected, actual);
+		}
+		return new SpilledFailureTrace(trace, expected, actual, spilledTrace, spilledExpected, spilledActual);
+	}
+
+	/**
+	 * Returns the whole trace of a failure trace, if {@link #getTrace()} has been
+	 * truncated
+	 *
+	 * @param trace a failure trace
+	 * @return the whole trace, or <code>null</code> if the trace is complete
+	 */
+	public static SpilledText getSpilledTrace(FailureTrace trace) {
+		return trace instanceof SpilledFailureTrace ? ((SpilledFailureTrace) trace).fSpilledTrace : null;
+	}
+
+	/**
+	 * Returns the whole expected result of a failure trace, if
+	 * {@link #getExpected()} has been truncated
+	 *
+	 * @param trace a failure trace
+	 * @return the whole expected result, or <code>null</code> if the expected
+	 *         result is complete
+	 */
+	public static SpilledText getSpilledExpected(FailureTrace trace) {
+		return trace instanceof SpilledFailureTrace ? ((SpilledFailureTrace) trace).fSpilledExpected : null;
+	}
+
+	/**
+	 * Returns the whole actual result of a failure trace, if {@link #getActual()}
+	 * has been truncated
+	 *
+	 * @param trace a failure trace
+	 * @return the whole actual result, or <code>null</code> if the actual result
+	 *         is complete
+	 */
+	public static SpilledText getSpilledActual(FailureTrace trace) {
+		return trace instanceof SpilledFailureTrace ? ((SpilledFailureTrace) trace).fSpilledActual : null;
+	}
+
+	@Override
+	public boolean isComparisonFailure() {
+		return (getExpected() != null || getActual() != null)
+				&& (!Objects.equals(getActual(), getExpected()) || fSpilledExpected != null || fSpilledActual != null);
+	}
+
+	@Override
+	public boolean isTruncated() {
+		return fSpilledTrace != null || fSpilledExpected != null || fSpilledActual != null;
+	}
+}
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.internal.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The whole content of a text of a failure trace which is too large to be
+ * kept in memory: a UTF-8 file, read one page at a time.
+ */
+public final class SpilledText {
+	/**
+	 * The number of bytes of a page
+	 */
+	public static final int PAGE_SIZE = 1 << 18;
+
+	private final Path fFile;
+	private final long fSize;
+
+	/**
+	 * Constructs the text of a file
+	 *
+	 * @param file the UTF-8 file, deleted with its failure trace
+	 * @param size the number of bytes of the file
+	 */
+	public SpilledText(Path file, long size) {
+		fFile = file;
+		fSize = size;
+	}
+
+	/**
+	 * Returns the file of the text
+	 *
+	 * @return the UTF-8 file
+	 */
+	public Path getFile() {
+		return fFile;
+	}
+
+	/**
+	 * Returns the size of the text
+	 *
+	 * @return the number of bytes of the file
+	 */
+	public long getSize() {
+		return fSize;
+	}
+
+	/**
+	 * Returns the number of pages of the text
+	 *
+	 * @return the number of pages, at least 1
+	 */
+	public int getPageCount() {
+		return (int) Math.max(1, (fSize + PAGE_SIZE - 1) / PAGE_SIZE);
+	}
+
+	/**
+	 * Reads a page of the text. The bounds of the page are moved to the next
+	 * character, so that no character is split between two pages.
+	 *
+	 * @param page the index of the page, from 0
+	 * @return the characters of the page
+	 * @throws IOException if the file cannot be read
+	 */
+	public String readPage(int page) throws IOException {
+		long start = (long) page * PAGE_SIZE;
+		if (start >= fSize) {
+			return ""; //$NON-NLS-1$
+		}
+		// a UTF-8 character has at most 3 continuation bytes
+		ByteBuffer bytes = ByteBuffer.allocate((int) Math.min(PAGE_SIZE + 3L, fSize - start));
+		try (FileChannel channel = FileChannel.open(fFile, StandardOpenOption.READ)) {
+			while (bytes.hasRemaining()) {
+				if (channel.read(bytes, start + bytes.position()) < 0) {
+					throw new IOException("Truncated file: " + fFile); //$NON-NLS-1$
+				}
+			}
+		}
+		byte[] array = bytes.array();
+		int from = 0;
+		while (from < array.length && isContinuationByte(array[from])) {
+			from++;
+		}
+		int to = Math.min(PAGE_SIZE, array.length);
+		while (to < array.length && isContinuationByte(array[to])) {
+			to++;
+		}
+		return new String(array, from, Math.max(0, to - from), StandardCharsets.UTF_8);
+	}
+
+	private static boolean isContinuationByte(byte b) {
+		return (b & 0xC0) == 0x80;
+	}
+}
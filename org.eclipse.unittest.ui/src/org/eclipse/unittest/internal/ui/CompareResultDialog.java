@@ -14,11 +14,16 @@
 package org.eclipse.unittest.internal.ui;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+import org.eclipse.osgi.util.NLS;
+
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.model.TestElement;
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
+import org.eclipse.unittest.internal.trace.SpilledText;
 import org.eclipse.unittest.model.ITestElement;
 import org.eclipse.unittest.model.ITestElement.FailureTrace;
 
@@ -27,6 +32,7 @@ import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
@@ -68,6 +74,8 @@ import org.eclipse.compare.structuremergeviewer.DiffNode;
  */
 public class CompareResultDialog extends TrayDialog {
 	private static final String PREFIX_SUFFIX_PROPERTY = UnitTestPlugin.PLUGIN_ID + ".CompareResultDialog.prefixSuffix"; //$NON-NLS-1$
+	private static final int PREVIOUS_PAGE_ID = IDialogConstants.CLIENT_ID + 1;
+	private static final int NEXT_PAGE_ID = IDialogConstants.CLIENT_ID + 2;
 
 	private static class CompareResultMergeViewer extends TextMergeViewer {
 		private CompareResultMergeViewer(Composite parent, int style, CompareConfiguration configuration) {
@@ -178,6 +186,15 @@ public class CompareResultDialog extends TrayDialog {
 	private FailureTrace trace;
 	private String fTestName;
 
+	/**
+	 * The shown page of the expected and actual results too long to be kept in
+	 * memory, and the number of pages: 1 if both are in memory
+	 */
+	private int fPage;
+	private int fPageCount;
+	private String fExpected;
+	private String fActual;
+
 	/**
 	 * Lengths of common prefix and suffix. Note: this array is passed to the
 	 * DamagerRepairer and the lengths are updated on content change.
@@ -206,9 +223,42 @@ public class CompareResultDialog extends TrayDialog {
 	private void setFailedTest(TestElement failedTest) {
 		fTestName = failedTest.getTestName();
 		trace = failedTest.getFailureTrace();
+		fPageCount = Math.max(getPageCount(SpilledFailureTrace.getSpilledExpected(trace)),
+				getPageCount(SpilledFailureTrace.getSpilledActual(trace)));
+		setPage(0);
+	}
+
+	private static int getPageCount(SpilledText spilledText) {
+		return spilledText != null ? spilledText.getPageCount() : 1;
+	}
+
+	private void setPage(int page) {
+		fPage = page;
+		fExpected = readPage(trace.getExpected(), SpilledFailureTrace.getSpilledExpected(trace), page);
+		fActual = readPage(trace.getActual(), SpilledFailureTrace.getSpilledActual(trace), page);
 		computePrefixSuffix();
 	}
 
+	/**
+	 * Returns a page of a result, which is entirely on the first page when it is
+	 * kept in memory
+	 *
+	 * @param text        the result in memory, or its beginning if spilled
+	 * @param spilledText the file of the result, or <code>null</code>
+	 * @param page        the index of the page, from 0
+	 * @return the text of the page
+	 */
+	private static String readPage(String text, SpilledText spilledText, int page) {
+		if (spilledText != null) {
+			try {
+				return spilledText.readPage(page);
+			} catch (IOException e) {
+				UnitTestPlugin.log(e);
+			}
+		}
+		return page == 0 && text != null ? text : ""; //$NON-NLS-1$
+	}
+
 	@Override
 	protected IDialogSettings getDialogBoundsSettings() {
 		return getDialogSettingsSection(getClass().getName());
@@ -230,8 +280,8 @@ public class CompareResultDialog extends TrayDialog {
 	}
 
 	private void computePrefixSuffix() {
-		String expected = trace.getExpected();
-		String actual = trace.getActual();
+		String expected = fExpected;
+		String actual = fActual;
 		int end = Math.min(expected.length(), actual.length());
 		int i = 0;
 		for (; i < end; i++)
@@ -259,7 +309,33 @@ public class CompareResultDialog extends TrayDialog {
 
 	@Override
 	protected void createButtonsForButtonBar(Composite parent) {
+		createButton(parent, PREVIOUS_PAGE_ID, Messages.CompareResultDialog_previousPage, false);
+		createButton(parent, NEXT_PAGE_ID, Messages.CompareResultDialog_nextPage, false);
 		createButton(parent, IDialogConstants.OK_ID, IDialogConstants.OK_LABEL, true);
+		updatePageButtons();
+	}
+
+	@Override
+	protected void buttonPressed(int buttonId) {
+		if (buttonId == PREVIOUS_PAGE_ID || buttonId == NEXT_PAGE_ID) {
+			setPage(buttonId == PREVIOUS_PAGE_ID ? fPage - 1 : fPage + 1);
+			setCompareViewerInput();
+		} else {
+			super.buttonPressed(buttonId);
+		}
+	}
+
+	private void updatePageButtons() {
+		Button previous = getButton(PREVIOUS_PAGE_ID);
+		Button next = getButton(NEXT_PAGE_ID);
+		if (previous == null || next == null) {
+			return;
+		}
+		// the buttons are only shown for the results too long to be kept in memory
+		previous.setVisible(fPageCount > 1);
+		next.setVisible(fPageCount > 1);
+		previous.setEnabled(fPage > 0);
+		next.setEnabled(fPage < fPageCount - 1);
 	}
 
 	@Override
@@ -302,9 +378,10 @@ public class CompareResultDialog extends TrayDialog {
 
 	private void setCompareViewerInput() {
 		if (!fViewer.getControl().isDisposed()) {
-			fViewer.setInput(
-					new DiffNode(new CompareElement(trace.getExpected()), new CompareElement(trace.getActual())));
-			fCompareViewerPane.setText(fTestName);
+			fViewer.setInput(new DiffNode(new CompareElement(fExpected), new CompareElement(fActual)));
+			fCompareViewerPane.setText(fPageCount > 1 ? NLS.bind(Messages.CompareResultDialog_pageTitle,
+					new Object[] { fTestName, Integer.valueOf(fPage + 1), Integer.valueOf(fPageCount) }) : fTestName);
+			updatePageButtons();
 		}
 	}
 
@@ -13,13 +13,20 @@
  *******************************************************************************/
 package org.eclipse.unittest.internal.ui;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
 
+import org.eclipse.osgi.util.NLS;
+
+import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.UnitTestPreferencesConstants;
 import org.eclipse.unittest.internal.model.TestElement;
 import org.eclipse.unittest.internal.model.TestRunSession;
+import org.eclipse.unittest.internal.trace.SpilledFailureTrace;
+import org.eclipse.unittest.internal.trace.SpilledText;
+import org.eclipse.unittest.model.ITestElement.FailureTrace;
 import org.eclipse.unittest.model.ITestRunSession;
 import org.eclipse.unittest.ui.ITestViewSupport;
 
@@ -36,10 +43,12 @@ import org.eclipse.core.text.StringMatcher;
 
 import org.eclipse.core.runtime.Assert;
 
+import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
+import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.action.ToolBarManager;
 import org.eclipse.jface.util.OpenStrategy;
 
@@ -51,10 +60,30 @@ import org.eclipse.jface.util.OpenStrategy;
  */
 public class FailureTraceUIBlock implements IMenuListener {
 
+	private class ShowTracePageAction extends Action {
+		private final int fTargetPage;
+
+		public ShowTracePageAction(String text, int page) {
+			super(text);
+			fTargetPage = page;
+			setEnabled(page >= 0 && page < fSpilledTrace.getPageCount());
+		}
+
+		@Override
+		public void run() {
+			showPage(fTargetPage);
+		}
+	}
+
 	private static final int MAX_LABEL_LENGTH = 256;
 	private Table fTable;
 	private TestRunnerViewPart fTestRunner;
 	private String fInputTrace;
+	/**
+	 * The file of a trace too long to be kept in memory, shown page by page
+	 */
+	private SpilledText fSpilledTrace;
+	private int fPage;
 	private final Clipboard fClipboard;
 	private TestElement fFailure;
 	private CompareResultsAction fCompareAction;
@@ -89,8 +118,7 @@ public class FailureTraceUIBlock implements IMenuListener {
 
 		OpenStrategy handler = new OpenStrategy(fTable);
 		handler.addOpenListener(e -> {
-			if (fTable.getSelectionIndex() == 0 && fFailure.getFailureTrace() != null
-					&& fFailure.getFailureTrace().isComparisonFailure()) {
+			if (fTable.getSelectionIndex() == 0 && fFailure.isComparisonFailure()) {
 				fCompareAction.run();
 			}
 			if (fTable.getSelection().length != 0) {
@@ -122,10 +150,14 @@ public class FailureTraceUIBlock implements IMenuListener {
 			manager.add(new UnitTestCopyAction(FailureTraceUIBlock.this, fClipboard));
 		}
 		// fix for bug 68058
-		if (fFailure != null && fFailure.getFailureTrace() != null
-				&& fFailure.getFailureTrace().isComparisonFailure()) {
+		if (fFailure != null && fFailure.isComparisonFailure()) {
 			manager.add(fCompareAction);
 		}
+		if (fSpilledTrace != null) {
+			manager.add(new Separator());
+			manager.add(new ShowTracePageAction(Messages.FailureTraceUIBlock_previousPage, fPage - 1));
+			manager.add(new ShowTracePageAction(Messages.FailureTraceUIBlock_nextPage, fPage + 1));
+		}
 	}
 
 	/**
@@ -172,32 +204,64 @@ public class FailureTraceUIBlock implements IMenuListener {
 		String trace = ""; //$NON-NLS-1$
 		updateActions(test);
 		updateEnablement(test);
-		if (test != null && test.getFailureTrace() != null) {
-			trace = test.getFailureTrace().getTrace();
+		FailureTrace failureTrace = test != null ? test.getFailureTrace() : null;
+		SpilledText spilledTrace = null;
+		if (failureTrace != null) {
+			trace = failureTrace.getTrace();
+			spilledTrace = SpilledFailureTrace.getSpilledTrace(failureTrace);
 		}
-		if (Objects.equals(fInputTrace, trace)) {
+		if (spilledTrace != null) {
+			if (spilledTrace != fSpilledTrace) {
+				fSpilledTrace = spilledTrace;
+				showPage(0);
+			}
 			return;
 		}
+		if (fSpilledTrace == null && Objects.equals(fInputTrace, trace)) {
+			return;
+		}
+		fSpilledTrace = null;
+		fInputTrace = trace;
+		updateTable(trace);
+	}
+
+	/**
+	 * Shows a page of the trace too long to be kept in memory. The first page is
+	 * shown from memory if the file cannot be read.
+	 *
+	 * @param page the index of the page, from 0
+	 */
+	private void showPage(int page) {
+		String trace = null;
+		try {
+			trace = fSpilledTrace.readPage(page);
+		} catch (IOException e) {
+			UnitTestPlugin.log(e);
+		}
+		if (trace == null) {
+			page = 0;
+			trace = fFailure.getFailureTrace().getTrace();
+		}
+		fPage = page;
 		fInputTrace = trace;
 		updateTable(trace);
 	}
 
 	private void updateActions(TestElement test) {
 		ITestViewSupport testViewSupport = test != null ? test.getTestRunSession().getTestViewSupport() : null;
-		fShowTraceInConsoleAction.setDelegate(testViewSupport != null && test.getFailureTrace() != null
+		fShowTraceInConsoleAction.setDelegate(testViewSupport != null && test.hasFailureTrace()
 				? testViewSupport.createShowStackTraceInConsoleViewActionDelegate(test)
 				: null);
 	}
 
 	private void updateEnablement(TestElement test) {
-		boolean enableCompare = test != null && test.getFailureTrace() != null
-				&& test.getFailureTrace().isComparisonFailure();
+		boolean enableCompare = test != null && test.isComparisonFailure();
 		fCompareAction.setEnabled(enableCompare);
 		if (enableCompare) {
 			fCompareAction.updateOpenDialog(test);
 		}
 
-		boolean enableShowTraceInConsole = test != null && test.getFailureTrace() != null;
+		boolean enableShowTraceInConsole = test != null && test.hasFailureTrace();
 		fShowTraceInConsoleAction.setEnabled(enableShowTraceInConsole);
 	}
 
@@ -210,6 +274,10 @@ public class FailureTraceUIBlock implements IMenuListener {
 		fTable.setRedraw(false);
 		fTable.removeAll();
 		new TextualTrace(trace, getFilterPatterns()).display(fFailureTableDisplay, MAX_LABEL_LENGTH);
+		if (fSpilledTrace != null) {
+			fFailureTableDisplay.newTableItem().setText(NLS.bind(Messages.FailureTraceUIBlock_pageInfo,
+					Integer.valueOf(fPage + 1), Integer.valueOf(fSpilledTrace.getPageCount())));
+		}
 		fTable.setRedraw(true);
 	}
 
@@ -256,6 +324,7 @@ public class FailureTraceUIBlock implements IMenuListener {
 	public void clear() {
 		fTable.removeAll();
 		fInputTrace = null;
+		fSpilledTrace = null;
 	}
 
 	/**
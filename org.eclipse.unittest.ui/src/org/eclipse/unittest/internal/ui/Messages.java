@@ -30,6 +30,9 @@ public final class Messages extends NLS {
 
 	public static String CompareResultDialog_actualLabel;
 	public static String CompareResultDialog_expectedLabel;
+	public static String CompareResultDialog_nextPage;
+	public static String CompareResultDialog_pageTitle;
+	public static String CompareResultDialog_previousPage;
 	public static String CompareResultDialog_title;
 	public static String CompareResultsAction_description;
 	public static String CompareResultsAction_label;
@@ -56,6 +59,10 @@ public final class Messages extends NLS {
 	public static String EnableStackFilterAction_action_label;
 	public static String EnableStackFilterAction_action_tooltip;
 
+	public static String FailureTraceUIBlock_nextPage;
+	public static String FailureTraceUIBlock_pageInfo;
+	public static String FailureTraceUIBlock_previousPage;
+
 	public static String ExpandAllAction_text;
 	public static String ExpandAllAction_tooltip;
 
@@ -93,6 +100,9 @@ public final class Messages extends NLS {
 	public static String TestRunnerViewPart_Launching;
 	public static String TestRunnerViewPart_message_finish;
 	public static String TestRunnerViewPart_message_stopped;
+	public static String TestRunnerViewPart_message_running;
+	public static String TestRunnerViewPart_message_lane;
+	public static String TestRunnerViewPart_message_lane_separator;
 	public static String TestRunnerViewPart_message_terminated;
 	public static String TestRunnerViewPart_rerunaction_label;
 	public static String TestRunnerViewPart_rerunaction_tooltip;
@@ -109,6 +119,7 @@ public final class Messages extends NLS {
 	public static String TestRunnerViewPart_titleToolTip;
 	public static String TestRunnerViewPart_wrapperJobName;
 	public static String TestRunnerViewPart_show_execution_time;
+	public static String TestRunnerViewPart_show_running_lanes;
 	public static String TestRunnerViewPart_show_failures_only;
 	public static String TestRunnerViewPart_show_ignored_only;
 
@@ -23,21 +23,23 @@ import java.util.List;
 
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.UnitTestPreferencesConstants;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Timer;
 import org.eclipse.unittest.internal.model.ITestRunSessionListener;
 import org.eclipse.unittest.internal.model.ITestSessionListener;
+import org.eclipse.unittest.internal.model.InFlightTests;
 import org.eclipse.unittest.internal.model.ProgressState;
 import org.eclipse.unittest.internal.model.TestCaseElement;
 import org.eclipse.unittest.internal.model.TestElement;
 import org.eclipse.unittest.internal.model.TestRunSession;
+import org.eclipse.unittest.internal.model.TestSessionEvent;
 import org.eclipse.unittest.internal.model.UnitTestModel;
 import org.eclipse.unittest.internal.ui.history.History;
 import org.eclipse.unittest.internal.ui.history.HistoryHandler;
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestElement;
 import org.eclipse.unittest.model.ITestElement.FailureTrace;
-import org.eclipse.unittest.model.ITestElement.Result;
 import org.eclipse.unittest.model.ITestRunSession;
-import org.eclipse.unittest.model.ITestSuiteElement;
 import org.eclipse.unittest.ui.ITestViewSupport;
 
 import org.eclipse.swt.SWT;
@@ -138,6 +140,8 @@ public class TestRunnerViewPart extends ViewPart {
 
 	static final int REFRESH_INTERVAL = 200;
 
+	private static final Timer PROCESS_CHANGES_TIME = MetricsRegistry.getDefault().timer("ui.processChanges"); //$NON-NLS-1$
+
 	/**
 	 * A Test Result layout
 	 */
@@ -172,6 +176,10 @@ public class TestRunnerViewPart extends ViewPart {
 	protected boolean fShowOnErrorOnly = false;
 	protected Clipboard fClipboard;
 	protected volatile String fInfoMessage;
+	/**
+	 * Set when tests started or ended since the running tests were last shown
+	 */
+	private volatile boolean fRunningTestsChanged;
 
 	private FailureTraceUIBlock fFailureTrace;
 
@@ -203,6 +211,7 @@ public class TestRunnerViewPart extends ViewPart {
 	private ToggleOrientationAction[] fToggleOrientationActions;
 	private ShowTestHierarchyAction fShowTestHierarchyAction;
 	private ShowTimeAction fShowTimeAction;
+	private ShowRunningLanesAction fShowRunningLanesAction;
 	private ActivateOnErrorAction fActivateOnErrorAction;
 	private IMenuListener fViewMenuListener;
 
@@ -259,6 +268,9 @@ public class TestRunnerViewPart extends ViewPart {
 	/**
 	 */
 	static final String TAG_SHOW_TIME = "time"; //$NON-NLS-1$
+	/**
+	 */
+	static final String TAG_SHOW_RUNNING_LANES = "runningLanes"; //$NON-NLS-1$
 
 	/**
 	 */
@@ -414,6 +426,38 @@ public class TestRunnerViewPart extends ViewPart {
 	}
 
 	private class TestSessionListener implements ITestSessionListener {
+		/**
+		 * The session whose running tests changed in the current batch of events
+		 */
+		private TestRunSession fRunningTestsSession;
+
+		@Override
+		public DeliveryPolicy getDeliveryPolicy() {
+			// the viewers can always be refreshed from the model
+			return DeliveryPolicy.COALESCE;
+		}
+
+		@Override
+		public void testsChanged() {
+			fTestViewer.registerViewersRefresh();
+			fRunningTestsChanged = true;
+		}
+
+		@Override
+		public void eventsPublished(List<TestSessionEvent> events) {
+			ITestSessionListener.super.eventsPublished(events);
+			if (fRunningTestsSession != null) {
+				// follow the test running for the longest time, which only changes when it
+				// ends when tests run in parallel
+				TestCaseElement oldest = fRunningTestsSession.getInFlightTests().getOldest();
+				fRunningTestsSession = null;
+				if (oldest != null) {
+					fTestViewer.registerAutoScrollTarget(oldest);
+				}
+				fRunningTestsChanged = true;
+			}
+		}
+
 		@Override
 		public void sessionStarted() {
 			fTestViewer.registerViewersRefresh();
@@ -473,9 +517,8 @@ public class TestRunnerViewPart extends ViewPart {
 
 		@Override
 		public void testStarted(ITestCaseElement testCaseElement) {
-			fTestViewer.registerAutoScrollTarget(testCaseElement);
 			fTestViewer.registerViewerUpdate(testCaseElement);
-			registerInfoMessage(testCaseElement.getDisplayName());
+			fRunningTestsSession = ((TestCaseElement) testCaseElement).getTestRunSession();
 		}
 
 		@Override
@@ -493,6 +536,7 @@ public class TestRunnerViewPart extends ViewPart {
 		@Override
 		public void testEnded(ITestCaseElement testCaseElement) {
 			fTestViewer.registerViewerUpdate(testCaseElement);
+			fRunningTestsSession = ((TestCaseElement) testCaseElement).getTestRunSession();
 		}
 
 		@Override
@@ -687,6 +731,17 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
+	private class ShowRunningLanesAction extends Action {
+		public ShowRunningLanesAction() {
+			super(Messages.TestRunnerViewPart_show_running_lanes, IAction.AS_CHECK_BOX);
+		}
+
+		@Override
+		public void run() {
+			fRunningTestsChanged = true;
+		}
+	}
+
 	private class ShowTestHierarchyAction extends Action {
 		public ShowTestHierarchyAction() {
 			super(Messages.TestRunnerViewPart_hierarchical_layout, IAction.AS_CHECK_BOX);
@@ -798,6 +853,7 @@ public class TestRunnerViewPart extends ViewPart {
 		memento.putString(TAG_IGNORED_ONLY, fIgnoredOnlyFilterAction.isChecked() ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
 		memento.putString(TAG_LAYOUT, fLayout.name());
 		memento.putString(TAG_SHOW_TIME, fShowTimeAction.isChecked() ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
+		memento.putString(TAG_SHOW_RUNNING_LANES, fShowRunningLanesAction.isChecked() ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	private void restoreLayoutState(IMemento memento) {
@@ -841,6 +897,10 @@ public class TestRunnerViewPart extends ViewPart {
 		if (time != null)
 			showTime = time.equals("true"); //$NON-NLS-1$
 
+		String runningLanes = memento.getString(TAG_SHOW_RUNNING_LANES);
+		if (runningLanes != null)
+			fShowRunningLanesAction.setChecked(runningLanes.equals("true")); //$NON-NLS-1$
+
 		setFilterAndLayout(showFailuresOnly, showIgnoredOnly, layout);
 		setShowExecutionTime(showTime);
 	}
@@ -891,6 +951,11 @@ public class TestRunnerViewPart extends ViewPart {
 		if (fSashForm.isDisposed())
 			return;
 
+		long start = System.nanoTime();
+		if (fRunningTestsChanged) {
+			fRunningTestsChanged = false;
+			showRunningTests();
+		}
 		doShowInfoMessage();
 		refreshCounters();
 
@@ -902,6 +967,7 @@ public class TestRunnerViewPart extends ViewPart {
 		updateNextPreviousActions();
 
 		fTestViewer.processChangesInUI();
+		PROCESS_CHANGES_TIME.recordSince(start);
 	}
 
 	private void updateNextPreviousActions() {
@@ -935,21 +1001,15 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
-	private void collectFailedTestCases(TestElement testElement, List<ITestElement> allFailedTestCases) {
-		if (testElement == null) {
-			return;
-		}
-		Result result = testElement.getTestResult(true);
-		if (result != Result.ERROR && result != Result.FAILURE) {
+	private void collectFailedTestCases(TestRunSession testRunSession, List<ITestElement> allFailedTestCases) {
+		if (testRunSession == null) {
 			return;
 		}
-		if (testElement instanceof TestCaseElement) {
-			allFailedTestCases.add(testElement);
-		} else if (testElement instanceof ITestSuiteElement) {
-			((ITestSuiteElement) testElement).getChildren()
-					.forEach(child -> collectFailedTestCases((TestElement) child, allFailedTestCases));
+		for (TestElement failure : testRunSession.getFailureIndex().getFailures(null)) {
+			if (failure instanceof TestCaseElement) {
+				allFailedTestCases.add(failure);
+			}
 		}
-
 	}
 
 	/**
@@ -1085,7 +1145,8 @@ public class TestRunnerViewPart extends ViewPart {
 
 		fTestRunSession = testRunSession;
 		fTestViewer.registerActiveSession(testRunSession);
-		History.INSTANCE.watch(testRunSession);
+		UnitTestModel.getInstance().hideTestRunSession(deactivatedSession);
+		UnitTestModel.getInstance().showTestRunSession(testRunSession);
 
 		if (fSashForm.isDisposed()) {
 			stopUpdateJobs();
@@ -1211,9 +1272,9 @@ public class TestRunnerViewPart extends ViewPart {
 	}
 
 	private void refreshCounters() {
-		// TODO: Inefficient. Either
-		// - keep a boolean fHasTestRun and update only on changes, or
-		// - improve components to only redraw on changes (once!).
+		// The counters are maintained incrementally by the test suite elements, so
+		// reading them is cheap.
+		// TODO: improve components to only redraw on changes (once!).
 
 		int startedCount;
 		int ignoredCount;
@@ -1310,6 +1371,45 @@ public class TestRunnerViewPart extends ViewPart {
 		}
 	}
 
+	/**
+	 * Shows the running tests as info message: the test running for the longest
+	 * time and the number of other running tests, or the test running in every
+	 * lane if running lanes are shown
+	 */
+	private void showRunningTests() {
+		if (fInfoMessage != null || fTestRunSession == null || !fTestRunSession.isRunning()) {
+			return;
+		}
+		InFlightTests inFlightTests = fTestRunSession.getInFlightTests();
+		if (fShowRunningLanesAction.isChecked()) {
+			TestCaseElement[] lanes = inFlightTests.getLanes();
+			if (lanes.length > 1) {
+				StringBuilder message = new StringBuilder();
+				for (int i = 0; i < lanes.length; i++) {
+					if (lanes[i] != null) {
+						if (message.length() > 0) {
+							message.append(Messages.TestRunnerViewPart_message_lane_separator);
+						}
+						message.append(MessageFormat.format(Messages.TestRunnerViewPart_message_lane,
+								Integer.valueOf(i + 1), lanes[i].getDisplayName()));
+					}
+				}
+				if (message.length() > 0) {
+					registerInfoMessage(message.toString());
+				}
+				return;
+			}
+		}
+		TestCaseElement oldest = inFlightTests.getOldest();
+		if (oldest == null) {
+			return;
+		}
+		int others = inFlightTests.size() - 1;
+		registerInfoMessage(others <= 0 ? oldest.getDisplayName()
+				: MessageFormat.format(Messages.TestRunnerViewPart_message_running, oldest.getDisplayName(),
+						Integer.valueOf(others)));
+	}
+
 	/**
 	 * Registers a test information message
 	 *
@@ -1594,8 +1694,10 @@ public class TestRunnerViewPart extends ViewPart {
 
 		fShowTestHierarchyAction = new ShowTestHierarchyAction();
 		fShowTimeAction = new ShowTimeAction();
+		fShowRunningLanesAction = new ShowRunningLanesAction();
 		viewMenu.add(fShowTestHierarchyAction);
 		viewMenu.add(fShowTimeAction);
+		viewMenu.add(fShowRunningLanesAction);
 		viewMenu.add(new Separator());
 
 		MenuManager layoutSubMenu = new MenuManager(Messages.TestRunnerViewPart_layout_menu);
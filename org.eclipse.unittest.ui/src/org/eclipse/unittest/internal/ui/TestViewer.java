@@ -14,11 +14,10 @@
 
 package org.eclipse.unittest.internal.ui;
 
-import java.util.AbstractList;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -149,24 +148,6 @@ class TestViewer {
 		}
 	}
 
-	private static class ReverseList<E> extends AbstractList<E> {
-		private final List<E> fList;
-
-		public ReverseList(List<E> list) {
-			fList = list;
-		}
-
-		@Override
-		public E get(int index) {
-			return fList.get(fList.size() - index - 1);
-		}
-
-		@Override
-		public int size() {
-			return fList.size();
-		}
-	}
-
 	private class ExpandAllAction extends Action {
 		public ExpandAllAction() {
 			setText(Messages.ExpandAllAction_text);
@@ -210,6 +191,13 @@ class TestViewer {
 		}
 	};
 
+	/**
+	 * The order of {@link #TEST_ELEMENT_ALPHABETIC_ORDER} as a sibling order of
+	 * the failure index
+	 */
+	private static final Comparator<TestElement> TEST_ELEMENT_ALPHABETIC_SIBLING_ORDER = (e1,
+			e2) -> TEST_ELEMENT_ALPHABETIC_ORDER.compare(null, e1, e2);
+
 	private final FailuresOnlyFilter fFailuresOnlyFilter = new FailuresOnlyFilter();
 	private final IgnoredOnlyFilter fIgnoredOnlyFilter = new IgnoredOnlyFilter();
 
@@ -234,6 +222,7 @@ class TestViewer {
 	private boolean fTableNeedsRefresh;
 	private HashSet<ITestElement> fNeedUpdate;
 	private ITestCaseElement fAutoScrollTarget;
+	private ITestCaseElement fLastAutoScrollTarget;
 
 	private LinkedList<ITestSuiteElement> fAutoClose;
 	private HashSet<ITestSuiteElement> fAutoExpand;
@@ -691,7 +680,7 @@ class TestViewer {
 	 * Selects the next failure test element
 	 */
 	public void selectFirstFailure() {
-		ITestElement firstFailure = getNextChildFailure(fTestRunSession, true);
+		ITestElement firstFailure = fTestRunSession.getFailureIndex().getFirst(true, getSiblingOrder());
 		if (firstFailure != null)
 			getActiveViewer().setSelection(new StructuredSelection(firstFailure), true);
 	}
@@ -708,7 +697,7 @@ class TestViewer {
 		ITestElement next;
 
 		if (selected == null) {
-			next = getNextChildFailure(fTestRunSession, showNext);
+			next = fTestRunSession.getFailureIndex().getFirst(showNext, getSiblingOrder());
 		} else {
 			next = getNextFailure(selected, showNext);
 		}
@@ -718,68 +707,11 @@ class TestViewer {
 	}
 
 	private TestElement getNextFailure(TestElement selected, boolean showNext) {
-		if (selected instanceof TestSuiteElement) {
-			TestElement nextChild = getNextChildFailure((TestSuiteElement) selected, showNext);
-			if (nextChild != null)
-				return nextChild;
-		}
-		return getNextFailureSibling(selected, showNext);
-	}
-
-	private TestElement getNextFailureSibling(TestElement current, boolean showNext) {
-		TestSuiteElement parent = current.getParent();
-		if (parent == null)
-			return null;
-
-		List<TestElement> siblings = getSortedChildren(parent);
-		if (!showNext)
-			siblings = new ReverseList<>(siblings);
-
-		int nextIndex = siblings.indexOf(current) + 1;
-		for (int i = nextIndex; i < siblings.size(); i++) {
-			TestElement sibling = siblings.get(i);
-			if (sibling.getStatus().isErrorOrFailure()) {
-				if (sibling instanceof ITestCaseElement) {
-					return sibling;
-				} else {
-					TestSuiteElement testSuiteElement = (TestSuiteElement) sibling;
-					if (testSuiteElement.getChildren().isEmpty()) {
-						return testSuiteElement;
-					}
-					return getNextChildFailure(testSuiteElement, showNext);
-				}
-			}
-		}
-		return getNextFailureSibling(parent, showNext);
-	}
-
-	private TestElement getNextChildFailure(TestSuiteElement root, boolean showNext) {
-		List<TestElement> children = getSortedChildren(root);
-		if (!showNext)
-			children = new ReverseList<>(children);
-		for (TestElement child : children) {
-			if (child.getStatus().isErrorOrFailure()) {
-				if (child instanceof ITestCaseElement) {
-					return child;
-				} else {
-					TestSuiteElement testSuiteElement = (TestSuiteElement) child;
-					if (testSuiteElement.getChildren().isEmpty()) {
-						return testSuiteElement;
-					}
-					return getNextChildFailure(testSuiteElement, showNext);
-				}
-			}
-		}
-		return null;
+		return fTestRunSession.getFailureIndex().getNext(selected, showNext, getSiblingOrder());
 	}
 
-	private List<TestElement> getSortedChildren(TestSuiteElement parent) {
-		List<TestElement> siblings = new ArrayList<>(parent.getChildren());
-		ViewerComparator comparator = fTreeViewer.getComparator();
-		if (comparator != null) {
-			siblings.sort((e1, e2) -> comparator.compare(fTreeViewer, e1, e2));
-		}
-		return siblings;
+	private Comparator<TestElement> getSiblingOrder() {
+		return isAlphabeticalSort() ? TEST_ELEMENT_ALPHABETIC_SIBLING_ORDER : null;
 	}
 
 	/**
@@ -822,12 +754,17 @@ class TestViewer {
 	}
 
 	/**
-	 * Registers an auto-scroll target test case element
+	 * Registers an auto-scroll target test case element. Registering again the
+	 * last registered target has no effect, so that the viewer does not scroll
+	 * back to a test which keeps running while parallel tests start and end.
 	 *
 	 * @param testCaseElement a test case element
 	 */
 	public void registerAutoScrollTarget(ITestCaseElement testCaseElement) {
-		fAutoScrollTarget = testCaseElement;
+		if (testCaseElement != fLastAutoScrollTarget) {
+			fAutoScrollTarget = testCaseElement;
+			fLastAutoScrollTarget = testCaseElement;
+		}
 	}
 
 	/**
@@ -14,7 +14,7 @@
 package org.eclipse.unittest.internal.ui;
 
 import org.eclipse.unittest.internal.UnitTestPlugin;
-import org.eclipse.unittest.internal.launcher.TestRunListener;
+import org.eclipse.unittest.launcher.TestRunListener;
 import org.eclipse.unittest.model.ITestRunSession;
 
 import org.eclipse.swt.widgets.Display;
@@ -31,6 +31,10 @@ import org.eclipse.ui.PlatformUI;
 public class UITestRunListener extends TestRunListener {
 	@Override
 	public void sessionLaunched(ITestRunSession session) {
+		if (!PlatformUI.isWorkbenchRunning()) {
+			// headless run
+			return;
+		}
 		getDisplay().asyncExec(this::showTestRunnerViewPartInActivePage);
 	}
 
@@ -12,17 +12,20 @@ package org.eclipse.unittest.internal.ui.history;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.model.ITestRunSessionListener;
+import org.eclipse.unittest.internal.model.TestRunJournal;
 import org.eclipse.unittest.internal.model.TestRunSession;
 import org.eclipse.unittest.model.ITestRunSession;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
 
 /**
  * A test run sessions history object
@@ -40,7 +43,13 @@ public class History implements ITestRunSessionListener {
 	}
 
 	private boolean wasRead = false;
-	private List<HistoryItem> items = new ArrayList<>();
+	/**
+	 * The items, also read by the swap out of the sessions in the background
+	 */
+	private List<HistoryItem> items = new CopyOnWriteArrayList<>();
+
+	private final Job fRecoveryJob = Job.createSystem("Recover interrupted test runs", //$NON-NLS-1$
+			monitor -> recoverInterruptedSessions());
 
 	/**
 	 * Creates and returns a directory to store the History information
@@ -62,7 +71,7 @@ public class History implements ITestRunSessionListener {
 	 *
 	 * @return a list of history items
 	 */
-	public List<HistoryItem> getHistory() {
+	public synchronized List<HistoryItem> getHistory() {
 		if (!wasRead) {
 			Arrays.stream(getDirectory().listFiles()).map(HistoryItem::new).forEach(items::add);
 			wasRead = true;
@@ -70,6 +79,41 @@ public class History implements ITestRunSessionListener {
 		return Collections.unmodifiableList(items);
 	}
 
+	/**
+	 * Schedules the recovery of the sessions whose run was interrupted by a crash
+	 * of the workbench, in the background
+	 */
+	public void scheduleRecovery() {
+		fRecoveryJob.schedule();
+	}
+
+	/**
+	 * Restores the sessions whose run was interrupted by a crash of the workbench
+	 * from their journal, and adds them to the history directory
+	 */
+	private void recoverInterruptedSessions() {
+		for (File journal : TestRunJournal.getInterruptedJournals()) {
+			try {
+				TestRunSession session = TestRunJournal.restore(journal);
+				HistoryItem item = new HistoryItem(session);
+				synchronized (this) {
+					// the history read from now on lists the file
+					item.storeSessionToFile(item.getFile());
+					if (wasRead) {
+						items.add(new HistoryItem(item.getFile()));
+					}
+				}
+				Files.delete(journal.toPath());
+			} catch (IOException e) {
+				// an unreadable journal is not retried
+				UnitTestPlugin.log(e);
+				journal.delete();
+			} catch (CoreException e) {
+				UnitTestPlugin.log(e);
+			}
+		}
+	}
+
 	/**
 	 * Clears the history
 	 */
@@ -101,21 +145,19 @@ public class History implements ITestRunSessionListener {
 				});
 	}
 
-	/**
-	 * Saves a test run session into history
-	 *
-	 * @param testRunSession a test run session object
-	 */
-	public void watch(TestRunSession testRunSession) {
+	@Override
+	public boolean swapOut(ITestRunSession testRunSession) {
 		for (HistoryItem item : items) {
-			if (testRunSession == null || item.getCurrentTestRunSession().filter(testRunSession::equals).isEmpty()) {
+			if (item.getCurrentTestRunSession().filter(testRunSession::equals).isPresent()) {
 				try {
 					item.swapOut();
 				} catch (CoreException e) {
 					UnitTestPlugin.log(e);
 				}
+				return item.getCurrentTestRunSession().isEmpty();
 			}
 		}
+		return false;
 	}
 
 	/**
@@ -36,6 +36,9 @@ import org.eclipse.unittest.internal.UnitTestPlugin;
 import org.eclipse.unittest.internal.junitXmlReport.HistoryEntryHandler;
 import org.eclipse.unittest.internal.junitXmlReport.TestRunHandler;
 import org.eclipse.unittest.internal.junitXmlReport.TestRunSessionSerializer;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Counter;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Timer;
 import org.eclipse.unittest.internal.model.ITestSessionListener;
 import org.eclipse.unittest.internal.model.ModelMessages;
 import org.eclipse.unittest.internal.model.TestRunSession;
@@ -54,9 +57,14 @@ import org.eclipse.core.runtime.NullProgressMonitor;
  */
 public class HistoryItem {
 
+	private static final Timer READ_TIME = MetricsRegistry.getDefault().timer("history.read"); //$NON-NLS-1$
+	private static final Counter READ_BYTES = MetricsRegistry.getDefault().counter("history.readBytes"); //$NON-NLS-1$
+	private static final Timer WRITE_TIME = MetricsRegistry.getDefault().timer("history.write"); //$NON-NLS-1$
+	private static final Counter WRITE_BYTES = MetricsRegistry.getDefault().counter("history.writtenBytes"); //$NON-NLS-1$
+
 	private File historyFile;
 
-	private TestRunSession session;
+	private volatile TestRunSession session;
 
 	private String name;
 
@@ -75,6 +83,12 @@ public class HistoryItem {
 		this.startTime = session.getStartTime();
 		this.failuresAndErrors = session.getCurrentErrorCount() + session.getCurrentFailureCount();
 		session.addTestSessionListener(new ITestSessionListener() {
+			@Override
+			public DeliveryPolicy getDeliveryPolicy() {
+				// only the session events matter
+				return DeliveryPolicy.DROP;
+			}
+
 			@Override
 			public void testStarted(ITestCaseElement testCaseElement) {
 				// nothing
@@ -147,14 +161,17 @@ public class HistoryItem {
 	 * @return a {@link TestRunSession} object instance
 	 * @throws CoreException in case of a problem during the object reading
 	 */
-	public TestRunSession reloadTestRunSession() throws CoreException {
+	public synchronized TestRunSession reloadTestRunSession() throws CoreException {
 		if (this.session == null && getFile() != null) {
+			long start = System.nanoTime();
 			try {
 				SAXParserFactory parserFactory = SAXParserFactory.newInstance();
 				SAXParser parser = parserFactory.newSAXParser();
 				TestRunHandler handler = new TestRunHandler(new NullProgressMonitor());
 				parser.parse(getFile(), handler);
 				this.session = handler.getTestRunSession();
+				READ_TIME.recordSince(start);
+				READ_BYTES.add(getFile().length());
 			} catch (Exception e) {
 				throwImportError(getFile(), e);
 			}
@@ -191,10 +208,11 @@ public class HistoryItem {
 	 * @throws CoreException                        in case of storing operation
 	 *                                              failure
 	 */
-	void storeSessionToFile(File target) throws TransformerFactoryConfigurationError, CoreException {
+	synchronized void storeSessionToFile(File target) throws TransformerFactoryConfigurationError, CoreException {
 		if (this.session == null) {
 			return;
 		}
+		long start = System.nanoTime();
 		try (FileOutputStream out = new FileOutputStream(target)) {
 			Transformer transformer = TransformerFactory.newInstance().newTransformer();
 			InputSource inputSource = new InputSource();
@@ -218,6 +236,8 @@ public class HistoryItem {
 		} catch (Exception e) {
 			throwExportError(target, e);
 		}
+		WRITE_TIME.recordSince(start);
+		WRITE_BYTES.add(target.length());
 	}
 
 	/**
@@ -238,12 +258,13 @@ public class HistoryItem {
 	}
 
 	/**
-	 * Stores test session into a swap file
+	 * Stores test session into a swap file, once it is completed or aborted. The
+	 * file is not written concurrently with the store on completion.
 	 *
 	 * @throws CoreException in case of a problem
 	 */
-	public void swapOut() throws CoreException {
-		if (session != null && session.isStopped()) {
+	public synchronized void swapOut() throws CoreException {
+		if (session != null && !session.isRunning() && !session.isStarting()) {
 			storeSessionToFile(getFile());
 			session = null;
 		}
@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.launcher;
+
+import org.eclipse.unittest.internal.metrics.MetricsRegistry;
+import org.eclipse.unittest.internal.metrics.MetricsRegistry.Timer;
+
+/**
+ * A timer of the protocol of a test runner client, e.g. of the time spent
+ * processing a message of the test runner. The timers are published with the
+ * other metrics of the unit test infrastructure, under the name
+ * <code>protocol.</code><i>name</i>.
+ */
+public final class ProtocolTimer {
+
+	private static final String PREFIX = "protocol."; //$NON-NLS-1$
+
+	private final Timer fTimer;
+
+	private ProtocolTimer(Timer timer) {
+		fTimer = timer;
+	}
+
+	/**
+	 * Returns a timer of a protocol, registering it if needed
+	 *
+	 * @param name the name of the timer, e.g. <code>junit.messages</code>
+	 * @return the timer
+	 */
+	public static ProtocolTimer get(String name) {
+		return new ProtocolTimer(MetricsRegistry.getDefault().timer(PREFIX + name));
+	}
+
+	/**
+	 * Records the duration elapsed since a start time
+	 *
+	 * @param startTime the {@link System#nanoTime()} at the start
+	 */
+	public void recordSince(long startTime) {
+		fTimer.recordSince(startTime);
+	}
+}
@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2020 Red Hat Inc. and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Red Hat Inc. - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.unittest.launcher;
+
+import org.eclipse.unittest.model.ITestElement.Result;
+
+/**
+ * An immutable record of an event of a test run session, as delivered to
+ * {@link TestRunListener#handleEvent(TestRunEvent)}.
+ * <p>
+ * Unlike the test elements, records do not reference the test run session:
+ * they can be kept, queued or exported after the session has finished.
+ * </p>
+ */
+public final class TestRunEvent {
+
+	/**
+	 * The kinds of test run events
+	 */
+	public enum Kind {
+		/**
+		 * All the tests have been added and running begins
+		 */
+		SESSION_STARTED,
+		/**
+		 * A test case has started
+		 */
+		TEST_STARTED,
+		/**
+		 * A test element has failed, the failure trace is available from the test
+		 * element
+		 */
+		TEST_FAILED,
+		/**
+		 * A test case has ended
+		 */
+		TEST_FINISHED,
+		/**
+		 * The test run session has completed or has been stopped
+		 */
+		SESSION_FINISHED
+	}
+
+	private final Kind fKind;
+	private final String fTestId;
+	private final long fTimestamp;
+	private final Result fResult;
+
+	/**
+	 * Constructs a test run event record
+	 *
+	 * @param kind      the kind of event
+	 * @param testId    the identifier of the test element, or <code>null</code>
+	 *                  for a session event
+	 * @param timestamp the {@link System#nanoTime()} at which the event occurred
+	 * @param result    the result of the test element or of the session
+	 */
+	public TestRunEvent(Kind kind, String testId, long timestamp, Result result) {
+		fKind = kind;
+		fTestId = testId;
+		fTimestamp = timestamp;
+		fResult = result;
+	}
+
+	/**
+	 * Returns the kind of this event
+	 *
+	 * @return the event kind
+	 */
+	public Kind getKind() {
+		return fKind;
+	}
+
+	/**
+	 * Returns the identifier of the test element of this event
+	 *
+	 * @return a test element identifier, or <code>null</code> for a session event
+	 */
+	public String getTestId() {
+		return fTestId;
+	}
+
+	/**
+	 * Returns the time at which this event occurred, only meaningful when compared
+	 * to the time of other events of the same VM
+	 *
+	 * @return the {@link System#nanoTime()} of the event
+	 */
+	public long getTimestamp() {
+		return fTimestamp;
+	}
+
+	/**
+	 * Returns the result of the test element or of the session:
+	 * {@link Result#UNDEFINED} for started tests and sessions, the failure result
+	 * for {@link Kind#TEST_FAILED} events, the outcome for finished tests and
+	 * sessions
+	 *
+	 * @return the result
+	 */
+	public Result getResult() {
+		return fResult;
+	}
+
+	@Override
+	public String toString() {
+		return fKind + " " + (fTestId != null ? fTestId + " " : "") + fResult + " @" + fTimestamp; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+	}
+}
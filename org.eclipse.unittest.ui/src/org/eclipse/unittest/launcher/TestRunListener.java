@@ -11,7 +11,7 @@
  * Contributors:
  *     IBM Corporation - initial API and implementation
  *******************************************************************************/
-package org.eclipse.unittest.internal.launcher;
+package org.eclipse.unittest.launcher;
 
 import org.eclipse.unittest.model.ITestCaseElement;
 import org.eclipse.unittest.model.ITestRunSession;
@@ -31,6 +31,17 @@ import org.eclipse.unittest.model.ITestRunSession;
  * {@link #sessionFinished(ITestRunSession)}. After that call, no references
  * must be kept to the session or any of the test cases or suites.
  * </p>
+ * <p>
+ * Every notification is also delivered as an immutable {@link TestRunEvent}
+ * record to {@link #handleEvent(TestRunEvent)}, along with the failures, which
+ * suits listeners exporting or collecting results without a UI.
+ * </p>
+ * <p>
+ * Test run listeners are contributed to the
+ * <code>org.eclipse.unittest.ui.testRunListeners</code> extension point. They
+ * are notified from background threads, and must not access the UI thread
+ * unless they are UI listeners.
+ * </p>
  */
 public class TestRunListener {
 
@@ -103,4 +114,15 @@ public class TestRunListener {
 	public void testCaseFinished(ITestCaseElement testCaseElement) {
 		// does nothing
 	}
+
+	/**
+	 * An event of a test run session has occurred. Records are sent for the
+	 * started and finished sessions, the started and finished test cases, and the
+	 * failed test elements, in the order of the events.
+	 *
+	 * @param event an immutable event record, which can be kept
+	 */
+	public void handleEvent(TestRunEvent event) {
+		// does nothing
+	}
 }
@@ -58,8 +58,10 @@ public interface ITestElement {
 	 * A failure trace of a test.
 	 *
 	 * This class is not intended to be instantiated or extended by clients.
+	 *
+	 * @noextend This class is not intended to be subclassed by clients.
 	 */
-	public static final class FailureTrace {
+	public static class FailureTrace {
 		private final String fActual;
 		private final String fExpected;
 		private final String fTrace;
@@ -110,6 +112,17 @@ public interface ITestElement {
 		public boolean isComparisonFailure() {
 			return (fExpected != null || fActual != null) && !Objects.equals(fActual, fExpected);
 		}
+
+		/**
+		 * Tells whether a text of this failure trace was too large to be kept in
+		 * memory, in which case {@link #getTrace()}, {@link #getExpected()} or
+		 * {@link #getActual()} only returns its beginning.
+		 *
+		 * @return <code>true</code> if a text has been truncated
+		 */
+		public boolean isTruncated() {
+			return false;
+		}
 	}
 
 	/**
@@ -45,6 +45,35 @@ public interface ITestRunSession extends ITestSuiteElement {
 	 */
 	ITestElement getTestElement(String id);
 
+	/**
+	 * Returns a test element by its numeric identifier, i.e. the element created
+	 * with the identifier {@link Integer#toString(int) Integer.toString(id)}. The
+	 * default implementation looks up this identifier; the test run sessions of
+	 * the framework don't allocate and are safe to call from any thread.
+	 *
+	 * @param id a numeric test element identifier
+	 * @return a {@link ITestElement} found or <code>null</code>
+	 */
+	default ITestElement getTestElement(int id) {
+		return getTestElement(Integer.toString(id));
+	}
+
+	/**
+	 * Returns a test element by an identifier read from a region of a character
+	 * sequence, e.g. of a line of a test runner protocol. The default
+	 * implementation looks up the identifier extracted from the region; the test
+	 * run sessions of the framework don't allocate for numeric identifiers and
+	 * are safe to call from any thread.
+	 *
+	 * @param text  a character sequence containing a test element identifier
+	 * @param start the offset of the first character of the identifier
+	 * @param end   the offset after the last character of the identifier
+	 * @return a {@link ITestElement} found or <code>null</code>
+	 */
+	default ITestElement getTestElement(CharSequence text, int start, int end) {
+		return getTestElement(text.subSequence(start, end).toString());
+	}
+
 	/**
 	 * Creates a new Test Case and adds it to the model
 	 *